@@ -1,6 +1,7 @@
 package com.helios.auctix.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
@@ -11,6 +12,8 @@ import org.springframework.context.annotation.Configuration;
 import javax.annotation.PostConstruct;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -51,6 +54,12 @@ public class FirebaseConfig {
     @Value("${firebase.universe-domain}")
     private String universeDomain;
 
+    // e.g. http://localhost:9099 to send the FCM calls to a local stub instead of Google, empty for the real endpoint
+    @Value("${firebase.messaging-endpoint:}")
+    private String messagingEndpoint;
+
+    private static final String FCM_ENDPOINT = "https://fcm.googleapis.com";
+
     @PostConstruct
     public void initialize() {
         try {
@@ -63,11 +72,15 @@ public class FirebaseConfig {
 
             // Initialize Firebase with the credentials
             GoogleCredentials credentialsStream = GoogleCredentials.fromStream(new ByteArrayInputStream(jsonData));
-            FirebaseOptions options = FirebaseOptions.builder()
-                    .setCredentials(credentialsStream)
-                    .build();
+            FirebaseOptions.Builder options = FirebaseOptions.builder()
+                    .setCredentials(credentialsStream);
+
+            if (!messagingEndpoint.isBlank()) {
+                options.setHttpTransport(redirectingTransport(messagingEndpoint));
+                log.info("Firebase messaging calls go to " + messagingEndpoint);
+            }
 
-            FirebaseApp.initializeApp(options);
+            FirebaseApp.initializeApp(options.build());
 
             log.info("Firebase init success");
 
@@ -77,6 +90,20 @@ public class FirebaseConfig {
         }
     }
 
+    // rewrites the FCM calls to the given endpoint, other calls (e.g. fetching the OAuth token) are left alone
+    static NetHttpTransport redirectingTransport(String endpoint) {
+        String target = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        return new NetHttpTransport.Builder()
+                .setConnectionFactory(url -> {
+                    String address = url.toString();
+                    if (address.startsWith(FCM_ENDPOINT)) {
+                        address = target + address.substring(FCM_ENDPOINT.length());
+                    }
+                    return (HttpURLConnection) URI.create(address).toURL().openConnection();
+                })
+                .build();
+    }
+
     private Map<String, String> getCredentialsMap() {
         Map<String, String> credentialsMap = new HashMap<>();
         credentialsMap.put("type", accountType);
@@ -1,8 +1,7 @@
 package com.helios.auctix.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.helios.auctix.domain.user.UserRoleEnum;
-import com.helios.auctix.services.JwtService;
+import com.helios.auctix.services.VerifiedTokenCache;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import org.springframework.http.HttpStatus;
@@ -17,8 +16,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
 import java.io.IOException;
@@ -29,16 +27,14 @@ import java.util.Map;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     // Jackson ObjectMapper to serialize Java objects (like error details) into JSON responses
     // refs:  https://stackoverflow.com/questions/57194249/how-to-return-response-as-json-from-spring-filter
     private final ObjectMapper mapper;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService, ObjectMapper mapper) {
-        this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, ObjectMapper mapper) {
+        this.verifiedTokenCache = verifiedTokenCache;
         this.mapper = mapper;
     }
 
@@ -48,8 +44,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
-        final UserRoleEnum role;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -58,31 +52,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
 
+        final VerifiedTokenCache.VerifiedToken verified;
         try {
-            userEmail = jwtService.extractEmail(jwt);
-            role = jwtService.extractRole(jwt);
+            verified = verifiedTokenCache.verify(jwt);
         } catch (ExpiredJwtException e) {
             writeError(response, HttpStatus.UNAUTHORIZED, "Token expired");
             return;
         } catch (SignatureException e) {
             writeError(response, HttpStatus.UNAUTHORIZED, "Invalid token signature");
             return;
+        } catch (UsernameNotFoundException e) {
+            writeError(response, HttpStatus.UNAUTHORIZED, "Token validation failed");
+            return;
         } catch (Exception e) {
             writeError(response, HttpStatus.UNAUTHORIZED, "Invalid token");
             return;
         }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-
-            if (jwtService.isValidToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null,
-                                List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        if (verified.email() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(verified.principal(), null,
+                            List.of(new SimpleGrantedAuthority("ROLE_" + verified.role().name())));
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }  else {
             // 401 JSON response on failed validation
             writeError(response, HttpStatus.UNAUTHORIZED, "Token validation failed");
@@ -22,7 +22,6 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -37,12 +36,13 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
     private final JwtService jwtService;
     private final UserRepository userRepository;
     private final ChatService chatService;
+    private final WebSocketSessionRegistry sessionRegistry;
 
     private static final Pattern AUCTION_ID_PATTERN = Pattern.compile("/topic/auction/([^/]+)/chat");
     private static final String ANONYMOUS_KEY = "GUEST_USER";
 
-    // Store session ID to authentication mapping
-    private final Map<String, Authentication> sessionAuthMap = new HashMap<>();
+    // id of the authenticated user, kept in the session attributes so subscribing does not look the user up again
+    static final String USER_ID_ATTRIBUTE = "auctix.userId";
 
 
     @Override
@@ -53,6 +53,11 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
             return message;
         }
 
+        // heartbeats carry no command, they only keep the session from being evicted as idle
+        if (accessor.getSessionId() != null) {
+            sessionRegistry.touch(accessor.getSessionId());
+        }
+
         // === Allow SockJS handshake/info requests to pass through ===
         if (accessor.getCommand() == null) {
             return message;
@@ -60,7 +65,7 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
         // === End block ===
 
         String sessionId = accessor.getSessionId();
-        log.info("Processing message type: " + accessor.getCommand() + " for session: " + sessionId);
+        log.fine("Processing message type: " + accessor.getCommand() + " for session: " + sessionId);
 /*
 @Component
 public class JwtChannelInterceptor implements ChannelInterceptor {
@@ -88,41 +93,53 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
 
                 String authHeader = accessor.getFirstNativeHeader("Authorization");
 
-                Authentication auth = null;
+                User user = null;
                 if (authHeader != null && authHeader.startsWith("Bearer ")) {
                     String token = authHeader.substring(7).trim();
 
                     if (token != null && !token.isEmpty()) {
-                        auth = authenticateUser(token);
+                        user = authenticateUser(token);
                     }
                 }
 
-                if (auth == null) {
+                Authentication auth;
+                if (user != null) {
+                    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRoleEnum().name()));
+                    auth = new UsernamePasswordAuthenticationToken(user.getEmail(), null, authorities);
+                    log.info("WebSocket authentication successful for user: " + user.getEmail());
+                } else {
                     // anonymous authentication for guest/non-logged in readonly users
                     auth = createAnonymousAuthentication();
                 }
 
-                // Store the authentication with the session ID
-                sessionAuthMap.put(sessionId, auth);
-                accessor.setUser(auth);
+                registerSession(accessor, auth, user != null ? user.getId() : null);
 
             } catch (Exception e) {
                 log.warning("Exception during WebSocket authentication: " + e.getMessage());
-                Authentication auth = createAnonymousAuthentication();
-                sessionAuthMap.put(sessionId, auth);
-                accessor.setUser(auth);
+                registerSession(accessor, createAnonymousAuthentication(), null);
             }
         }
 
         else if (sessionId != null) {
-            Authentication auth = sessionAuthMap.get(sessionId);
+            Authentication auth = sessionRegistry.getAuthentication(sessionId);
+            if (auth == null && accessor.getUser() instanceof Authentication sessionUser) {
+                // evicted as idle while the connection stayed open, Spring still knows the user of the session
+                auth = sessionUser;
+                sessionRegistry.register(sessionId, auth, sessionUserId(accessor));
+            }
             if (auth != null) {
                 accessor.setUser(auth);
-                log.info("Set authentication for session: " + sessionId + " user: " + auth.getName());
             }
 
             if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
-                handleSubscribe(accessor, auth);
+                UUID auctionId = sessionRegistry.subscribe(sessionId, accessor.getSubscriptionId(), accessor.getDestination());
+                if (auctionId != null) {
+                    handleSubscribe(accessor, auth);
+                }
+            }
+
+            else if (StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())) {
+                sessionRegistry.unsubscribe(sessionId, accessor.getSubscriptionId());
             }
 
             else if (StompCommand.SEND.equals(accessor.getCommand())) {
@@ -133,7 +150,8 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
             }
 
             else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
-                sessionAuthMap.remove(sessionId);
+                // also removed on the SessionDisconnectEvent, which covers connections that just drop
+                sessionRegistry.remove(sessionId);
                 log.info("Removed chat session with id: " + sessionId);
             }
         }
@@ -141,19 +159,13 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
         return message;
     }
 
-    private Authentication authenticateUser(String token) {
+    private User authenticateUser(String token) {
         try {
-            String userEmail = jwtService.extractEmail(token);
+            // verifies the signature and expiry in the same parse
+            String userEmail = jwtService.extractClaims(token).getSubject();
 
-            if (userEmail != null && jwtService.isValidToken(token)) {
-                User user = userRepository.findByEmail(userEmail);
-                if (user != null) {
-                    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRoleEnum().name()));
-
-                    Authentication authentication = new UsernamePasswordAuthenticationToken(userEmail, null, authorities);
-                    log.info("WebSocket authentication successful for user: " + userEmail);
-                    return authentication;
-                }
+            if (userEmail != null) {
+                return userRepository.findByEmail(userEmail);
             }
         } catch (Exception e) {
             log.warning("Authentication failed: " + e.getMessage());
@@ -161,6 +173,22 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
         return null;
     }
 
+    private void registerSession(StompHeaderAccessor accessor, Authentication auth, UUID userId) {
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        if (sessionAttributes != null && userId != null) {
+            sessionAttributes.put(USER_ID_ATTRIBUTE, userId);
+        }
+
+        sessionRegistry.register(accessor.getSessionId(), auth, userId);
+        accessor.setUser(auth);
+    }
+
+    private UUID sessionUserId(StompHeaderAccessor accessor) {
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        Object userId = sessionAttributes != null ? sessionAttributes.get(USER_ID_ATTRIBUTE) : null;
+        return userId instanceof UUID id ? id : null;
+    }
+
     private Authentication createAnonymousAuthentication() {
         String guestId = "guest-" + UUID.randomUUID().toString().substring(0, 8);
         List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_GUEST"));  // so it's actually not a role in the db, doesnt have to be?
@@ -178,13 +206,15 @@ public class JwtChannelInterceptor implements ChannelInterceptor {
 
             if (matcher.find()) {
                 String auctionId = matcher.group(1);
-                String userEmail = auth.getName();
+                UUID userId = sessionUserId(accessor);
+                if (userId == null) {
+                    userId = sessionRegistry.getUserId(accessor.getSessionId());
+                }
 
                 try {
-                    User user = userRepository.findByEmail(userEmail);
-                    if (user != null && auctionId != null) {
-                        log.info("Auto joining user " + userEmail + " to chat room for auction: " + auctionId);
-                        chatService.joinChatRoom(user, UUID.fromString(auctionId));
+                    if (userId != null && auctionId != null) {
+                        log.info("Auto joining user " + auth.getName() + " to chat room for auction: " + auctionId);
+                        chatService.joinChatRoom(userId, UUID.fromString(auctionId));
                     }
                 } catch (Exception e) {
                     log.warning("Error joining chat room: " + e.getMessage());
@@ -0,0 +1,201 @@
+package com.helios.auctix.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Shares the auction topics of the in-process simple broker between instances through Postgres LISTEN/NOTIFY.
+ * <p>
+ * The stand-in for an external broker when {@code auctix.websocket.broker.mode=postgres}: every message sent
+ * to an auction topic ({@code /topic/auction/**}, {@code /topic/bids/**}) on this node is published on the
+ * {@code auctix_broker} channel, and every node hands the messages published by the other nodes to its own
+ * simple broker, so subscribers see them whichever node they are connected to. It needs nothing but the
+ * database the application already uses, which makes it handy locally and in tests, but a NOTIFY payload is
+ * limited to 8000 bytes and every message costs a round trip, so production should use the relay mode.
+ * <p>
+ * The listener holds one connection of the pool for as long as the application runs.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "auctix.websocket.broker.mode", havingValue = "postgres")
+public class PostgresBrokerBridge implements ChannelInterceptor {
+
+    private static final String CHANNEL = "auctix_broker";
+    private static final Pattern BRIDGED_DESTINATIONS = Pattern.compile("^/topic/(?:auction|bids)/.+");
+    // marks messages that came from another node, so they are not published again
+    private static final String RELAYED_HEADER = "auctix-relayed";
+    // the limit of a NOTIFY payload
+    private static final int MAX_PAYLOAD_BYTES = 8000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper objectMapper;
+    private final long pollMillis;
+    private final long reconnectMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresBrokerBridge(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            // the broker channel is built from the WebSocket config, which in turn needs this interceptor
+            @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel,
+            ObjectMapper objectMapper,
+            @Value("${auctix.websocket.broker.postgres.poll-ms:500}") long pollMillis,
+            @Value("${auctix.websocket.broker.postgres.reconnect-ms:5000}") long reconnectMillis
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.brokerChannel = brokerChannel;
+        this.objectMapper = objectMapper;
+        this.pollMillis = pollMillis;
+        this.reconnectMillis = reconnectMillis;
+    }
+
+    /**
+     * Publishes the messages sent to an auction topic on this node to the other nodes.
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || destination == null
+                || !BRIDGED_DESTINATIONS.matcher(destination).matches()
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+
+        try {
+            MimeType contentType = accessor.getContentType();
+            String notification = objectMapper.writeValueAsString(new BridgedMessage(
+                    nodeId,
+                    destination,
+                    contentType != null ? contentType.toString() : null,
+                    Base64.getEncoder().encodeToString(payload)
+            ));
+
+            if (notification.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                log.warn("Message to {} is too large to bridge ({} bytes), delivered on this node only", destination, payload.length);
+                return message;
+            }
+
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CHANNEL, notification);
+        } catch (Exception e) {
+            // local subscribers still get the message
+            log.error("Failed to publish message to {} to the other nodes: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "broker-bridge-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Broker bridge {} listening on {}", nodeId, CHANNEL);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // messages published while reconnecting are lost, like on a dropped relay connection
+                log.error("Broker bridge lost its listen connection, reconnecting in {} ms: {}", reconnectMillis, e.getMessage());
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String notification) {
+        try {
+            BridgedMessage bridged = objectMapper.readValue(notification, BridgedMessage.class);
+            if (nodeId.equals(bridged.origin())) {
+                // already delivered to the local subscribers when it was sent
+                return;
+            }
+
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(bridged.destination());
+            if (bridged.contentType() != null) {
+                accessor.setContentType(MimeType.valueOf(bridged.contentType()));
+            }
+            accessor.setHeader(RELAYED_HEADER, bridged.origin());
+            accessor.setLeaveMutable(true);
+
+            byte[] payload = Base64.getDecoder().decode(bridged.payload());
+            brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Dropping malformed broker bridge notification: {}", e.getMessage());
+        }
+    }
+
+    record BridgedMessage(String origin, String destination, String contentType, String payload) {
+    }
+}
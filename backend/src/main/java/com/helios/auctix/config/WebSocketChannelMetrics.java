@@ -0,0 +1,131 @@
+package com.helios.auctix.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the load of the STOMP message channels to Micrometer, so the channel pools can be sized from data.
+ * <p>
+ * For each channel pool: {@code websocket.channel.queue.size}, {@code websocket.channel.active.threads} and
+ * {@code websocket.channel.pool.size}, tagged with the channel. For the messages: {@code websocket.messages},
+ * tagged with the direction ({@code in} for SEND frames from clients, {@code out} for messages written to them)
+ * and the destination prefix (its first two segments, e.g. {@code /topic/auction}).
+ * Also {@code websocket.sessions}, the live sessions of the {@link WebSocketSessionRegistry}.
+ */
+@Component
+public class WebSocketChannelMetrics {
+
+    // destinations come from the clients, so the number of prefix tags is capped
+    private static final int MAX_PREFIXES = 100;
+    private static final String OTHER_PREFIX = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> inbound = new ConcurrentHashMap<>();
+    private final Map<String, Counter> outbound = new ConcurrentHashMap<>();
+
+    public WebSocketChannelMetrics(ObjectProvider<MeterRegistry> meterRegistry, WebSocketSessionRegistry sessionRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable();
+
+        if (this.meterRegistry != null) {
+            Gauge.builder("websocket.sessions", sessionRegistry, WebSocketSessionRegistry::getSessionCount)
+                    .description("Live STOMP sessions")
+                    .register(this.meterRegistry);
+        }
+    }
+
+    /**
+     * Registers the gauges of a channel pool.
+     */
+    public void monitor(String channel, ThreadPoolTaskExecutor executor) {
+        if (meterRegistry == null) {
+            return;
+        }
+
+        // the underlying pool only exists once the executor is initialized, report 0 until then
+        Gauge.builder("websocket.channel.queue.size", executor,
+                        e -> e.getThreadPoolExecutor() != null ? e.getThreadPoolExecutor().getQueue().size() : 0)
+                .tag("channel", channel)
+                .description("Messages waiting for a thread of the channel")
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active.threads", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("channel", channel)
+                .description("Threads of the channel handling a message")
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("channel", channel)
+                .description("Threads of the channel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the SEND frames received from the clients. Register after the interceptors that may reject them.
+     */
+    public ChannelInterceptor inboundInterceptor() {
+        return new CountingInterceptor(SimpMessageType.MESSAGE, "in", inbound);
+    }
+
+    /**
+     * Counts the messages written to the clients.
+     */
+    public ChannelInterceptor outboundInterceptor() {
+        return new CountingInterceptor(SimpMessageType.MESSAGE, "out", outbound);
+    }
+
+    static String prefixOf(String destination) {
+        if (destination == null || !destination.startsWith("/")) {
+            return OTHER_PREFIX;
+        }
+        int first = destination.indexOf('/', 1);
+        if (first < 0) {
+            return destination;
+        }
+        int second = destination.indexOf('/', first + 1);
+        return second < 0 ? destination : destination.substring(0, second);
+    }
+
+    private class CountingInterceptor implements ChannelInterceptor {
+
+        private final SimpMessageType messageType;
+        private final String direction;
+        private final Map<String, Counter> counters;
+
+        CountingInterceptor(SimpMessageType messageType, String direction, Map<String, Counter> counters) {
+            this.messageType = messageType;
+            this.direction = direction;
+            this.counters = counters;
+        }
+
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            if (meterRegistry != null && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == messageType) {
+                counter(prefixOf(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))).increment();
+            }
+            return message;
+        }
+
+        private Counter counter(String prefix) {
+            Counter counter = counters.get(prefix);
+            if (counter != null) {
+                return counter;
+            }
+            String tag = counters.size() < MAX_PREFIXES ? prefix : OTHER_PREFIX;
+            return counters.computeIfAbsent(tag, t -> Counter.builder("websocket.messages")
+                    .tag("direction", direction)
+                    .tag("prefix", t)
+                    .description("STOMP messages by direction and destination prefix")
+                    .register(meterRegistry));
+        }
+    }
+}
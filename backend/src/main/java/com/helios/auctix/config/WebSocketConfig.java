@@ -1,26 +1,103 @@
 package com.helios.auctix.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over WebSocket setup.
+ * <p>
+ * {@code auctix.websocket.broker.mode} picks the broker the topics are served from:
+ * <ul>
+ *     <li>{@code simple} (default): the in-process simple broker, subscribers only see messages sent on their own node</li>
+ *     <li>{@code relay}: relays {@code /topic} and {@code /queue} to an external STOMP broker (ActiveMQ Artemis, RabbitMQ),
+ *     so any number of instances share the topics</li>
+ *     <li>{@code postgres}: the simple broker, with the auction topics shared between instances over Postgres
+ *     LISTEN/NOTIFY by the {@link PostgresBrokerBridge}, for local multi-instance runs and tests</li>
+ * </ul>
+ * The channel pools and transport limits come from {@link WebSocketProperties}, and their load is published
+ * by the {@link WebSocketChannelMetrics}.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtChannelInterceptor jwtChannelInterceptor;
+    private final ObjectProvider<PostgresBrokerBridge> postgresBrokerBridge;
+    private final WebSocketProperties properties;
+    private final WebSocketChannelMetrics channelMetrics;
 
-    public WebSocketConfig(JwtChannelInterceptor jwtChannelInterceptor) {
+    @Value("${auctix.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${auctix.websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${auctix.websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${auctix.websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${auctix.websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${auctix.websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${auctix.websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${auctix.websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    public WebSocketConfig(
+            JwtChannelInterceptor jwtChannelInterceptor,
+            ObjectProvider<PostgresBrokerBridge> postgresBrokerBridge,
+            WebSocketProperties properties,
+            WebSocketChannelMetrics channelMetrics
+    ) {
         this.jwtChannelInterceptor = jwtChannelInterceptor;
+        this.postgresBrokerBridge = postgresBrokerBridge;
+        this.properties = properties;
+        this.channelMetrics = channelMetrics;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        switch (brokerMode) {
+            case "relay" -> {
+                var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(relayClientLogin)
+                        .setClientPasscode(relayClientPasscode)
+                        .setSystemLogin(relaySystemLogin)
+                        .setSystemPasscode(relaySystemPasscode);
+                if (!relayVirtualHost.isBlank()) {
+                    relay.setVirtualHost(relayVirtualHost);
+                }
+            }
+            case "postgres" -> {
+                config.enableSimpleBroker("/topic", "/queue");
+                config.configureBrokerChannel().interceptors(postgresBrokerBridge.getObject());
+            }
+            case "simple" -> config.enableSimpleBroker("/topic", "/queue");
+            default -> throw new IllegalStateException("Unknown auctix.websocket.broker.mode: " + brokerMode);
+        }
         config.setApplicationDestinationPrefixes("/app");
+        config.setPreservePublishOrder(properties.isPreservePublishOrder());
+
+        if (properties.getBrokerChannel().getCorePoolSize() > 0) {
+            config.configureBrokerChannel().taskExecutor(channelExecutor("broker", properties.getBrokerChannel()));
+        }
     }
 
     @Override
@@ -42,10 +119,40 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(jwtChannelInterceptor);
+        // counted after authentication, so rejected frames are not
+        registration.interceptors(jwtChannelInterceptor, channelMetrics.inboundInterceptor());
+        registration.taskExecutor(channelExecutor("inbound", properties.getInbound()));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(channelMetrics.outboundInterceptor());
+        registration.taskExecutor(channelExecutor("outbound", properties.getOutbound()));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // a client that cannot keep up is disconnected instead of holding outbound threads and buffering without bound
+        registration.setSendTimeLimit(properties.getSendTimeLimitMs())
+                .setSendBufferSizeLimit(properties.getSendBufferSizeLimitBytes())
+                .setMessageSizeLimit(properties.getMessageSizeLimitBytes());
+    }
+
+    /**
+     * Builds the pool of a channel. It is initialized by the channel configuration, which exposes it as a bean.
+     */
+    private ThreadPoolTaskExecutor channelExecutor(String channel, WebSocketProperties.ChannelPool pool) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getCorePoolSize());
+        executor.setMaxPoolSize(Math.max(pool.getCorePoolSize(), pool.getMaxPoolSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setKeepAliveSeconds(pool.getKeepAliveSeconds());
+        executor.setThreadNamePrefix("websocket-" + channel + "-");
+        if (pool.isVirtualThreads()) {
+            executor.setThreadFactory(Thread.ofVirtual().name("websocket-" + channel + "-", 1).factory());
+        }
 
-        registration.taskExecutor()
-                .corePoolSize(4)
-                .maxPoolSize(10);
+        channelMetrics.monitor(channel, executor);
+        return executor;
     }
 }
\ No newline at end of file
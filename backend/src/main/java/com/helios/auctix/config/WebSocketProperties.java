@@ -0,0 +1,81 @@
+package com.helios.auctix.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sizing of the STOMP message channels and limits of the WebSocket transport, bound from {@code auctix.websocket.*}.
+ * <p>
+ * Example: {@code auctix.websocket.outbound.max-pool-size=32}, {@code auctix.websocket.inbound.virtual-threads=true}
+ */
+@Component
+@ConfigurationProperties(prefix = "auctix.websocket")
+@Getter
+@Setter
+public class WebSocketProperties {
+
+    /**
+     * Frames received from the clients (CONNECT, SUBSCRIBE, SEND), including the authentication interceptor.
+     */
+    private ChannelPool inbound = new ChannelPool(4, 10);
+
+    /**
+     * Frames written to the clients, one task per message and subscriber.
+     */
+    private ChannelPool outbound = new ChannelPool(4, 20);
+
+    /**
+     * Messages sent to the broker by the application (bids, chat). With a core pool size of 0 they are handed
+     * to the broker on the sending thread, which keeps the order they were sent in.
+     */
+    private ChannelPool brokerChannel = new ChannelPool(0, 0);
+
+    /**
+     * Keeps the messages to one session in the order they were published, even with several outbound threads.
+     */
+    private boolean preservePublishOrder = true;
+
+    /**
+     * How long a send to one client may take before its session is closed as too slow.
+     */
+    private int sendTimeLimitMs = 5_000;
+
+    /**
+     * How much may be buffered for one client while a send to it is in progress before its session is closed.
+     */
+    private int sendBufferSizeLimitBytes = 256 * 1024;
+
+    /**
+     * Largest incoming STOMP frame.
+     */
+    private int messageSizeLimitBytes = 64 * 1024;
+
+    @Getter
+    @Setter
+    public static class ChannelPool {
+
+        private int corePoolSize;
+        private int maxPoolSize;
+        /**
+         * Threads beyond the core pool size are only started once this many messages are waiting.
+         */
+        private int queueCapacity = Integer.MAX_VALUE;
+        private int keepAliveSeconds = 60;
+
+        /**
+         * Runs the pool on virtual threads, so a task blocked on IO does not hold a platform thread.
+         * The pool sizes still bound how many tasks run at once.
+         */
+        private boolean virtualThreads = false;
+
+        public ChannelPool() {
+        }
+
+        ChannelPool(int corePoolSize, int maxPoolSize) {
+            this.corePoolSize = corePoolSize;
+            this.maxPoolSize = maxPoolSize;
+        }
+    }
+}
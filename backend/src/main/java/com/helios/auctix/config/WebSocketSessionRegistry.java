@@ -0,0 +1,238 @@
+package com.helios.auctix.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tracks the live STOMP sessions, their authentication and the auctions they are subscribed to.
+ * <p>
+ * Written from the inbound channel threads, so everything is held in concurrent maps. A session is
+ * removed on its {@link SessionDisconnectEvent}, which Spring publishes however the connection ended
+ * (a STOMP DISCONNECT, a closed socket or a transport error), and as a fallback once nothing was received
+ * on it for {@code session-idle-timeout-ms}.
+ * <p>
+ * Every subscription to an auction topic ({@code /topic/auction/{id}}, {@code /topic/auction/{id}/chat},
+ * {@code /topic/bids/{id}}) is counted, and a session watching several topics of the same auction is
+ * one viewer of it, see {@link #getLiveSessionCount(UUID)}.
+ */
+@Slf4j
+@Component
+public class WebSocketSessionRegistry {
+
+    private static final Pattern AUCTION_TOPIC_PATTERN = Pattern.compile("^/topic/(?:auction|bids)/([0-9a-fA-F-]{36})(?:/.*)?$");
+
+    private final long idleTimeoutMillis;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> auctionViewers = new ConcurrentHashMap<>();
+
+    public WebSocketSessionRegistry(
+            @Value("${auctix.websocket.session-idle-timeout-ms:3600000}") long idleTimeoutMillis
+    ) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Registers (or replaces) the session with its authentication.
+     *
+     * @param userId id of the authenticated user, null for guests
+     */
+    public void register(String sessionId, Authentication authentication, UUID userId) {
+        Session previous = sessions.put(sessionId, new Session(authentication, userId));
+        if (previous != null) {
+            previous.clearSubscriptions(this);
+        }
+    }
+
+    /**
+     * The authentication of the session, or null if it is not registered (anymore).
+     * Counts as activity on the session.
+     */
+    public Authentication getAuthentication(String sessionId) {
+        Session session = touch(sessionId);
+        return session != null ? session.authentication : null;
+    }
+
+    public UUID getUserId(String sessionId) {
+        Session session = sessions.get(sessionId);
+        return session != null ? session.userId : null;
+    }
+
+    /**
+     * Marks the session as active, so idle eviction leaves it alone.
+     */
+    public Session touch(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            session.lastSeenAt = System.currentTimeMillis();
+        }
+        return session;
+    }
+
+    /**
+     * Records the subscription if its destination is an auction topic.
+     *
+     * @return the id of the auction, or null if the destination is not an auction topic
+     */
+    public UUID subscribe(String sessionId, String subscriptionId, String destination) {
+        UUID auctionId = auctionIdOf(destination);
+        Session session = sessions.get(sessionId);
+        if (auctionId == null || session == null || subscriptionId == null) {
+            return auctionId;
+        }
+
+        session.addSubscription(this, subscriptionId, auctionId);
+        return auctionId;
+    }
+
+    public void unsubscribe(String sessionId, String subscriptionId) {
+        Session session = sessions.get(sessionId);
+        if (session != null && subscriptionId != null) {
+            session.removeSubscription(this, subscriptionId);
+        }
+    }
+
+    public void remove(String sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session != null) {
+            session.clearSubscriptions(this);
+            log.debug("Removed WebSocket session {}", sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        remove(event.getSessionId());
+    }
+
+    @Scheduled(fixedRateString = "${auctix.websocket.session-idle-sweep-ms:60000}")
+    public void evictIdleSessions() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        int evicted = 0;
+
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().lastSeenAt < idleSince && sessions.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().clearSubscriptions(this);
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            log.info("Evicted {} idle WebSocket sessions, {} remain", evicted, sessions.size());
+        }
+    }
+
+    /**
+     * Number of live sessions subscribed to at least one topic of the auction.
+     */
+    public int getLiveSessionCount(UUID auctionId) {
+        AtomicInteger viewers = auctionViewers.get(auctionId);
+        return viewers != null ? viewers.get() : 0;
+    }
+
+    /**
+     * Live session counts of every auction that has at least one viewer.
+     */
+    public Map<UUID, Integer> getLiveSessionCounts() {
+        Map<UUID, Integer> counts = new HashMap<>();
+        auctionViewers.forEach((auctionId, viewers) -> {
+            int count = viewers.get();
+            if (count > 0) {
+                counts.put(auctionId, count);
+            }
+        });
+        return counts;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    static UUID auctionIdOf(String destination) {
+        if (destination == null) {
+            return null;
+        }
+        Matcher matcher = AUCTION_TOPIC_PATTERN.matcher(destination);
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(matcher.group(1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void viewerJoined(UUID auctionId) {
+        // counted inside compute, so it cannot race the removal of the counter in viewerLeft
+        auctionViewers.compute(auctionId, (id, viewers) -> {
+            AtomicInteger counter = viewers != null ? viewers : new AtomicInteger();
+            counter.incrementAndGet();
+            return counter;
+        });
+    }
+
+    private void viewerLeft(UUID auctionId) {
+        // drop the counter with its last viewer, so ended auctions do not pile up
+        auctionViewers.computeIfPresent(auctionId, (id, viewers) -> viewers.decrementAndGet() <= 0 ? null : viewers);
+    }
+
+    public static final class Session {
+
+        private final Authentication authentication;
+        private final UUID userId;
+        private volatile long lastSeenAt = System.currentTimeMillis();
+
+        // subscription id to auction id, and how many of the subscriptions watch each auction
+        private final Map<String, UUID> subscriptions = new HashMap<>();
+        private final Map<UUID, Integer> subscriptionsPerAuction = new HashMap<>();
+
+        private Session(Authentication authentication, UUID userId) {
+            this.authentication = authentication;
+            this.userId = userId;
+        }
+
+        private synchronized void addSubscription(WebSocketSessionRegistry registry, String subscriptionId, UUID auctionId) {
+            UUID previous = subscriptions.put(subscriptionId, auctionId);
+            if (previous != null) {
+                release(registry, previous);
+            }
+            if (subscriptionsPerAuction.merge(auctionId, 1, Integer::sum) == 1) {
+                registry.viewerJoined(auctionId);
+            }
+        }
+
+        private synchronized void removeSubscription(WebSocketSessionRegistry registry, String subscriptionId) {
+            UUID auctionId = subscriptions.remove(subscriptionId);
+            if (auctionId != null) {
+                release(registry, auctionId);
+            }
+        }
+
+        private synchronized void clearSubscriptions(WebSocketSessionRegistry registry) {
+            subscriptionsPerAuction.keySet().forEach(registry::viewerLeft);
+            subscriptions.clear();
+            subscriptionsPerAuction.clear();
+        }
+
+        private void release(WebSocketSessionRegistry registry, UUID auctionId) {
+            Integer remaining = subscriptionsPerAuction.computeIfPresent(auctionId, (id, count) -> count > 1 ? count - 1 : null);
+            if (remaining == null) {
+                registry.viewerLeft(auctionId);
+            }
+        }
+    }
+}
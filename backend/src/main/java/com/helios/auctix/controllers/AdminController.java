@@ -6,6 +6,7 @@ import com.helios.auctix.domain.user.User;
 import com.helios.auctix.domain.user.UserRoleEnum;
 import com.helios.auctix.dtos.AdminActionDTO;
 import com.helios.auctix.repositories.UserRepository;
+import com.helios.auctix.services.AuctionCompletionWorker;
 import com.helios.auctix.services.AuctionSchedulerService;
 import com.helios.auctix.services.user.AdminActionService;
 import com.helios.auctix.services.user.UserDetailsService;
@@ -31,6 +32,7 @@ import java.util.logging.Logger;
 public class AdminController {
 
     private final AuctionSchedulerService auctionSchedulerService;
+    private final AuctionCompletionWorker auctionCompletionWorker;
     private final UserDetailsService userDetailsService;
     private static final Logger logger = Logger.getLogger(AdminController.class.getName());
     private final UserUploadsService userUploadsService;
@@ -38,8 +40,9 @@ public class AdminController {
     private final UserRepository userRepository;
 
     @Autowired
-    public AdminController(AuctionSchedulerService auctionSchedulerService, UserDetailsService userDetailsService, UserUploadsService userUploadsService, AdminActionService adminActionService, UserRepository userRepository) {
+    public AdminController(AuctionSchedulerService auctionSchedulerService, AuctionCompletionWorker auctionCompletionWorker, UserDetailsService userDetailsService, UserUploadsService userUploadsService, AdminActionService adminActionService, UserRepository userRepository) {
         this.auctionSchedulerService = auctionSchedulerService;
+        this.auctionCompletionWorker = auctionCompletionWorker;
         this.userDetailsService = userDetailsService;
         this.userUploadsService = userUploadsService;
         this.adminActionService = adminActionService;
@@ -84,9 +87,9 @@ public class AdminController {
 
             logger.info("Admin " + currentUser.getUsername() + " is manually processing completed auctions");
 
-            auctionSchedulerService.processCompletedAuctions();
+            int queued = auctionCompletionWorker.processDueAuctions();
 
-            return ResponseEntity.ok().body("Completed auctions processed successfully");
+            return ResponseEntity.ok().body(queued + " completed auctions queued for processing");
         } catch (Exception e) {
             logger.severe("Error processing completed auctions: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
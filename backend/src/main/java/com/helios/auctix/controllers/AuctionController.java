@@ -1,14 +1,17 @@
 package com.helios.auctix.controllers;
 
-import com.azure.core.util.BinaryData;
 import com.helios.auctix.domain.auction.Auction;
+import com.helios.auctix.domain.upload.Upload;
 import com.helios.auctix.domain.user.User;
 import com.helios.auctix.dtos.*;
 import com.helios.auctix.services.AuctionService;
 import com.helios.auctix.services.BidService;
+import com.helios.auctix.services.fileUpload.FileDownloadResponder;
+import com.helios.auctix.services.fileUpload.FileIngestionService;
 import com.helios.auctix.services.fileUpload.FileUploadResponse;
 import com.helios.auctix.services.fileUpload.FileUploadService;
 import com.helios.auctix.services.fileUpload.FileUploadUseCaseEnum;
+import com.helios.auctix.services.fileUpload.ImageVariant;
 import com.helios.auctix.services.user.UserDetailsService;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +30,8 @@ import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -46,6 +51,12 @@ public class AuctionController {
     @Autowired
     private FileUploadService uploader;
 
+    @Autowired
+    private FileDownloadResponder fileDownloadResponder;
+
+    @Autowired
+    private FileIngestionService fileIngestionService;
+
     // Create a new auction with multipart/form-data
     @PostMapping("/create")
     public ResponseEntity<Auction> createAuction(
@@ -91,8 +102,11 @@ public class AuctionController {
                     .seller(seller.getSeller())
                     .build();
 
-            List<UUID> imagePaths = images.stream()
-                    .map(this::saveImage)
+            // uploaded concurrently, in order, none of them kept if one fails
+            List<UUID> imagePaths = fileIngestionService
+                    .uploadAll(images, FileUploadUseCaseEnum.AUCTION_IMAGE, null, true)
+                    .stream()
+                    .map(Upload::getId)
                     .collect(Collectors.toList());
             auction.setImagePaths(imagePaths);
 
@@ -113,55 +127,43 @@ public class AuctionController {
         }
     }
 
-    // Helper method to save an image and return its path
-    private UUID saveImage(MultipartFile image) {
-        try {
-            // Upload file
-            log.info("Trying to upload file");
-            FileUploadResponse uploadRes = uploader.uploadFile(image, FileUploadUseCaseEnum.AUCTION_IMAGE);
-
-            if (uploadRes.isSuccess()) {
-                // save file upload data
-                log.info("File upload data saved");
-
-                return uploadRes.getUpload().getId();
-
-            } else {
-                log.warning(uploadRes.getMessage());
-                throw new RuntimeException("Unsuccessful") ;
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to save image: " + e.getMessage());
-        }
-    }
-
-
     @GetMapping("/getAuctionImages")
-    public ResponseEntity<?> getAuctionImages(@RequestParam("file_uuid") UUID file_uuid) {
+    public ResponseEntity<StreamingResponseBody> getAuctionImages(
+            @RequestParam("file_uuid") UUID file_uuid,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request) {
         FileUploadResponse res;
         log.info("file get request: "+ file_uuid);
 
+        ImageVariant variant;
+        try {
+            variant = ImageVariant.fromParameter(size);
+        } catch (IllegalArgumentException e) {
+            return fileDownloadResponder.badRequest("Unknown image size: " + size);
+        }
+
         if(!uploader.isFilePublic(file_uuid)) {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             // Get file upload data
-            res = uploader.getFile(file_uuid);
+            res = uploader.getFile(file_uuid, variant);
         }
         else{
-            res = uploader.getFile(file_uuid);
+            // public files are downloaded straight from blob storage, not through this node
+            FileUploadResponse signed = uploader.getFileUrl(file_uuid, variant);
+            if (signed.isSuccess()) {
+                return fileDownloadResponder.redirect(signed, accept);
+            }
+            res = uploader.getFile(file_uuid, variant);
         }
 
         if (!res.isSuccess()) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res.getMessage());
+            return fileDownloadResponder.failed(res.getMessage());
         }
 
-        BinaryData binaryFile = res.getBinaryData();
-        String fileName = res.getUpload().getFileName();
-        String contentType = res.getUpload().getFileType().getContentType();
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(binaryFile.toBytes());
+        return fileDownloadResponder.respond(res, request, range, ifNoneMatch);
     }
 
     // Get auction by ID
@@ -226,6 +228,25 @@ public class AuctionController {
         }
     }
 
+    /**
+     * Keyset paginated version of {@link #getAllAuctions(String)}, pass the returned nextCursor to get the next page
+     */
+    @GetMapping("/list")
+    public ResponseEntity<?> getAuctionListing(
+            @RequestParam(value = "filter", defaultValue = "active") String filter,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        try {
+            CursorPageDTO<AuctionListingDTO> page = auctionService.getAuctionListing(filter, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            log.warning("Error fetching auction listing with filter " + filter + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     // Add these new endpoints to your existing AuctionController
 
     /**
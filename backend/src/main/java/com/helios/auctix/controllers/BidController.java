@@ -5,6 +5,7 @@ import com.helios.auctix.domain.user.User;
 import com.helios.auctix.dtos.BidDTO;
 import com.helios.auctix.dtos.PlaceBidRequest;
 import com.helios.auctix.services.BidService;
+import com.helios.auctix.services.bidding.BidSequencer;
 import com.helios.auctix.services.user.UserDetailsService;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -16,6 +17,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Logger;
 
 @RestController
@@ -27,6 +30,7 @@ public class BidController {
     private final BidService bidService;
     private final Logger log = Logger.getLogger(BidController.class.getName());
     private final UserDetailsService userDetailsService;
+    private final BidSequencer bidSequencer;
 
     //to get bid history
     @GetMapping("/auction/{auctionId}")
@@ -56,30 +60,44 @@ public class BidController {
         }
     }
 
-    //to place new bids
+    //to place new bids, the bid is queued on the auction's sequencer lane so the request thread is freed meanwhile
     @PostMapping("/place")
-    public ResponseEntity<?> placeBid(@RequestBody PlaceBidRequest request) {
+    public CompletableFuture<ResponseEntity<?>> placeBid(@RequestBody PlaceBidRequest request) {
+        User bidder;
         try {
             Authentication authentication = SecurityContextHolder
                     .getContext()
                     .getAuthentication();
 
-            User bidder = userDetailsService
+            bidder = userDetailsService
                     .getAuthenticatedUser(authentication);
+        } catch (Exception e) {
+            log.severe("Error placing bid: " + e.getMessage());
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to place bid: " + e.getMessage()));
+        }
+
+        return bidSequencer.submit(request, bidder)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(this::toPlaceBidErrorResponse);
+    }
 
-            BidDTO placedBid = bidService.placeBid(request, bidder);
-            return ResponseEntity.ok(placedBid);
-        } catch (IllegalArgumentException e) {
+    private ResponseEntity<?> toPlaceBidErrorResponse(Throwable throwable) {
+        Throwable e = (throwable instanceof CompletionException && throwable.getCause() != null)
+                ? throwable.getCause()
+                : throwable;
+
+        if (e instanceof IllegalArgumentException) {
             log.warning("Bad request in place bid: " + e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (IllegalStateException e) {
+        } else if (e instanceof IllegalStateException) {
             log.warning("Conflict in place bid: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
-        } catch (Exception e) {
-            log.severe("Error placing bid: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to place bid: " + e.getMessage());
         }
+
+        log.severe("Error placing bid: " + e.getMessage());
+        e.printStackTrace();
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to place bid: " + e.getMessage());
     }
 
     private BidDTO convertToDTO(Bid bid) {
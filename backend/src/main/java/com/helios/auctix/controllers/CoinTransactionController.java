@@ -1,6 +1,7 @@
 package com.helios.auctix.controllers;
 
 import com.helios.auctix.dtos.RechargeRequestDTO;
+import com.helios.auctix.dtos.CursorPageDTO;
 import com.helios.auctix.dtos.TransactionResponseDTO;
 import com.helios.auctix.dtos.WithdrawRequestDTO;
 import com.helios.auctix.services.CoinTransactionService;
@@ -147,6 +148,21 @@ public class CoinTransactionController {
         }
     }
 
+    @GetMapping("/transaction-history/page")
+    public ResponseEntity<?> getTransactionHistoryPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size) {
+        try {
+            CursorPageDTO<TransactionResponseDTO> page = transactionService.getTransactionHistoryPage(cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching transaction history: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/wallet-info")
     public ResponseEntity<?> getWalletInfo() {
         try {
@@ -1,6 +1,5 @@
 package com.helios.auctix.controllers;
 
-import com.azure.core.util.BinaryData;
 import com.helios.auctix.domain.user.User;
 import com.helios.auctix.domain.user.UserRequiredAction;
 import com.helios.auctix.domain.user.UserRoleEnum;
@@ -19,6 +18,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import jakarta.servlet.http.HttpServletRequest;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
@@ -38,6 +39,7 @@ public class UserController {
     private final FileUploadService fileUploadService;
     private final UserDetailsService userDetailsService;
     private final UserMapperImpl userMapper;
+    private final FileDownloadResponder fileDownloadResponder;
 
     @Profile("dev")
     @GetMapping("/hello")
@@ -300,10 +302,23 @@ public class UserController {
 
 
     @GetMapping("/getUserProfilePhoto")
-    public ResponseEntity<?> getUserProfilePhoto(@RequestParam("file_uuid") UUID file_uuid) throws AuthenticationException {
+    public ResponseEntity<StreamingResponseBody> getUserProfilePhoto(
+            @RequestParam("file_uuid") UUID file_uuid,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletRequest request) throws AuthenticationException {
 
         log.info("file get request: " + file_uuid);
 
+        ImageVariant variant;
+        try {
+            variant = ImageVariant.fromParameter(size);
+        } catch (IllegalArgumentException e) {
+            return fileDownloadResponder.badRequest("Unknown image size: " + size);
+        }
+
         // Authenticate user
         User currentUser = null;
         FileUploadResponse res = null;
@@ -313,24 +328,21 @@ public class UserController {
             log.info("getting File by user " + currentUser.getEmail());
 
             // Get file upload data
-            res = fileUploadService.getFile(file_uuid, currentUser.getEmail());
+            res = fileUploadService.getFile(file_uuid, currentUser.getEmail(), variant);
         } else {
-            res = fileUploadService.getFile(file_uuid);
+            // public files are downloaded straight from blob storage, not through this node
+            FileUploadResponse signed = fileUploadService.getFileUrl(file_uuid, variant);
+            if (signed.isSuccess()) {
+                return fileDownloadResponder.redirect(signed, accept);
+            }
+            res = fileUploadService.getFile(file_uuid, variant);
         }
 
         if (!res.isSuccess()) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(res.getMessage());
+            return fileDownloadResponder.failed(res.getMessage());
         }
 
-        BinaryData binaryFile = res.getBinaryData();
-        String fileName = res.getUpload().getFileName();
-        String contentType = res.getUpload().getFileType().getContentType();
-
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(binaryFile.toBytes());
+        return fileDownloadResponder.respond(res, request, range, ifNoneMatch);
     }
 
     @DeleteMapping("/deleteUserProfilePhoto")
@@ -34,6 +34,24 @@ public class Auction {
     @Column(name = "winning_bid_id")
     private UUID winningBidId;
 
+    // Bid aggregates, only written by AuctionRepository.tryPlaceHighBid so an entity save can never overwrite them
+    @Column(name = "current_high_bid", insertable = false, updatable = false)
+    private Double currentHighBid;
+
+    @Column(name = "current_high_bidder_id", insertable = false, updatable = false)
+    private UUID currentHighBidderId;
+
+    @Column(name = "current_high_bid_id", insertable = false, updatable = false)
+    private UUID currentHighBidId;
+
+    @Column(name = "bid_count", insertable = false, updatable = false)
+    private Integer bidCount;
+
+    // Bumped by every accepted bid as well, so edits made on a stale copy of the auction fail instead of silently winning
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
 
@@ -0,0 +1,38 @@
+package com.helios.auctix.domain.scheduler;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A running application instance taking part in scheduled work, see {@code SchedulerNodeRegistry}.
+ */
+@Entity
+@Table(name = "scheduler_nodes")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchedulerNode {
+
+    @Id
+    @Column(name = "node_id", nullable = false, columnDefinition = "uuid")
+    private UUID nodeId;
+
+    @Column(name = "host_name")
+    private String hostName;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private Instant heartbeatAt;
+}
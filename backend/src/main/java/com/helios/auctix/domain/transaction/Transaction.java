@@ -34,6 +34,15 @@ public class Transaction {
 
     private String description;
 
+    // signed change this transaction made to the wallet balances, never changes after insert
+    @Column(name = "amount_delta", nullable = false, updatable = false)
+    @Builder.Default
+    private BigDecimal amountDelta = BigDecimal.ZERO;
+
+    @Column(name = "freeze_delta", nullable = false, updatable = false)
+    @Builder.Default
+    private BigDecimal freezeDelta = BigDecimal.ZERO;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,47 @@
+package com.helios.auctix.domain.transaction;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Balance of a wallet replayed from its transactions, up to and including the transaction
+ * at {@code (lastTransactionDate, lastTransactionId)}.
+ */
+@Entity
+@Table(name = "wallet_balance_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletBalanceSnapshot {
+
+    @Id
+    @Column(columnDefinition = "UUID")
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false, columnDefinition = "UUID")
+    private UUID walletId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "freeze_amount", nullable = false)
+    private BigDecimal freezeAmount;
+
+    // number of transactions replayed into this snapshot since the wallet was created
+    @Column(name = "event_count", nullable = false)
+    private Long eventCount;
+
+    @Column(name = "last_transaction_date", nullable = false)
+    private LocalDateTime lastTransactionDate;
+
+    @Column(name = "last_transaction_id", nullable = false, columnDefinition = "UUID")
+    private UUID lastTransactionId;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
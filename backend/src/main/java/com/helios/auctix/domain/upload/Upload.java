@@ -47,6 +47,15 @@ public class Upload {
     @Column(name = "uploaded_at", nullable = false)
     private Timestamp uploadedAt;
 
+    // downscaled variants of an image, see ImageVariant, null when not generated (yet)
+    @JsonIgnore
+    @Column(name = "thumbnail_file_id")
+    private UUID thumbnailFileId;
+
+    @JsonIgnore
+    @Column(name = "medium_file_id")
+    private UUID mediumFileId;
+
     @Column(name = "is_public", nullable = false)
     private Boolean isPublic;
 
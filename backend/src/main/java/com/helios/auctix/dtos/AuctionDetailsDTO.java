@@ -29,4 +29,6 @@ public class AuctionDetailsDTO {
     private String startTime;
     private List<BidDTO> bidHistory;
     private BidDTO currentHighestBid;
+    // sequence of the last bid update included, later updates continue from it
+    private long bidCount;
 }
@@ -0,0 +1,29 @@
+package com.helios.auctix.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuctionListingDTO {
+    private UUID id;
+    private String title;
+    private String category;
+    private Double startingPrice;
+    private Instant startTime;
+    private Instant endTime;
+    private Boolean isPublic;
+    private List<String> images;
+    private AuctionListingSellerDTO seller;
+    private Double currentHighestBid;
+    private UUID currentHighestBidderId;
+    private int bidCount;
+}
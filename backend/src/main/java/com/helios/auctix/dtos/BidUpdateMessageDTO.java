@@ -10,7 +10,9 @@ import java.util.UUID;
 @Builder
 public class BidUpdateMessageDTO {
     private UUID auctionId;
+    // bid count of the auction after the newest bid in this message, a gap means a message was missed
+    private long sequence;
     private BidDTO newBid;
-    private List<BidDTO> bidHistory;
+    // only the bids placed since the previous message, newest first
+    private List<BidDTO> newBids;
 }
-
@@ -1,8 +1,10 @@
 package com.helios.auctix.events.notification;
 
 import com.helios.auctix.domain.notification.Notification;
+import com.helios.auctix.services.notification.BulkNotificationRejectedException;
 import com.helios.auctix.services.notification.NotificationManagerService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 
+@Slf4j
 @RequiredArgsConstructor
 @Component
 public class BulkNotificationEventListener {
@@ -31,6 +34,11 @@ public class BulkNotificationEventListener {
                 )
                 .toList();
 
-        notificationManagerService.handleBulkNotifications(notifications);
+        try {
+            notificationManagerService.handleBulkNotifications(notifications);
+        } catch (BulkNotificationRejectedException e) {
+            // nothing to resume from here, resumable fan-outs go through the outbox, see NotificationOutbox#notifyWatchers
+            log.warn("Dropped {} of {} bulk notifications '{}': {}", notifications.size() - e.getHandled(), notifications.size(), event.getTitle(), e.getMessage());
+        }
     }
 }
@@ -0,0 +1,32 @@
+package com.helios.auctix.mappers.impl;
+
+import com.helios.auctix.dtos.BidDTO;
+import com.helios.auctix.dtos.UserDTO;
+import com.helios.auctix.services.bidding.LiveBid;
+import com.helios.auctix.services.user.UserDTOCache;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class LiveBidMapperImpl {
+
+    private final UserDTOCache userDTOCache;
+
+    public BidDTO mapTo(LiveBid bid) {
+        UserDTO bidderDto = userDTOCache.get(bid.getBidderId());
+
+        return BidDTO.builder()
+                .id(bid.getId())
+                .auctionId(bid.getAuctionId())
+                .auctionTitle(bid.getAuctionTitle())
+                .bidderId(bid.getBidderId())
+                .bidderName(bid.getBidderName())
+                .bidderAvatar(bid.getBidderAvatar())
+                .amount(bid.getAmount())
+                .bidTime(bid.getBidTime())
+                .createdAt(bid.getCreatedAt())
+                .bidder(bidderDto)
+                .build();
+    }
+}
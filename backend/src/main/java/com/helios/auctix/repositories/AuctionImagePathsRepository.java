@@ -4,6 +4,7 @@ import com.helios.auctix.domain.auction.AuctionImagePath;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,4 +12,7 @@ import java.util.UUID;
 public interface AuctionImagePathsRepository extends JpaRepository<AuctionImagePath, Long> {
     List<AuctionImagePath> findById_AuctionId(UUID auctionId);
 
+    // Image ids of a whole listing page in one query
+    List<AuctionImagePath> findById_AuctionIdIn(Collection<UUID> auctionIds);
+
 }
@@ -0,0 +1,27 @@
+package com.helios.auctix.repositories;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One auction of a listing page with its seller and current high bid, read in a single row
+ * by the listing queries of {@link AuctionRepository}.
+ */
+public record AuctionListingRow(
+        UUID id,
+        String title,
+        String category,
+        Double startingPrice,
+        Instant startTime,
+        Instant endTime,
+        Boolean isPublic,
+        Double currentHighBid,
+        UUID currentHighBidderId,
+        Integer bidCount,
+        UUID sellerId,
+        String sellerUsername,
+        String sellerFirstName,
+        String sellerLastName,
+        UUID sellerProfilePhotoId
+) {
+}
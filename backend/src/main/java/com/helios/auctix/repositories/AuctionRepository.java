@@ -1,13 +1,16 @@
 package com.helios.auctix.repositories;
 
 import com.helios.auctix.domain.auction.Auction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -49,6 +52,52 @@ public interface AuctionRepository extends JpaRepository<Auction, UUID> {
     @Query("SELECT a FROM Auction a WHERE a.isPublic = true ORDER BY a.createdAt DESC")
     List<Auction> findAllPublicAuctions();
 
+    /*
+     * Keyset paginated listings. Each page is one query joining the seller, the high bid comes from the
+     * aggregates on the auction row. The cursor is the sort key and id of the last row of the previous page.
+     */
+    String LISTING_ROW_SELECT = "SELECT new com.helios.auctix.repositories.AuctionListingRow(" +
+            "a.id, a.title, a.category, a.startingPrice, a.startTime, a.endTime, a.isPublic, " +
+            "a.currentHighBid, a.currentHighBidderId, a.bidCount, " +
+            "u.id, u.username, u.firstName, u.lastName, photo.id) " +
+            "FROM Auction a JOIN a.seller s JOIN s.user u LEFT JOIN u.upload photo " +
+            "WHERE a.isPublic = true AND a.isDeleted = false ";
+
+    @Query(LISTING_ROW_SELECT +
+            "AND a.startTime <= :now AND a.endTime > :now " +
+            "AND (a.startTime < :cursorTime OR (a.startTime = :cursorTime AND a.id < :cursorId)) " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    List<AuctionListingRow> findActiveListing(@Param("now") Instant now,
+                                              @Param("cursorTime") Instant cursorTime,
+                                              @Param("cursorId") UUID cursorId,
+                                              Pageable pageable);
+
+    @Query(LISTING_ROW_SELECT +
+            "AND a.startTime > :now " +
+            "AND (a.startTime > :cursorTime OR (a.startTime = :cursorTime AND a.id > :cursorId)) " +
+            "ORDER BY a.startTime ASC, a.id ASC")
+    List<AuctionListingRow> findUpcomingListing(@Param("now") Instant now,
+                                                @Param("cursorTime") Instant cursorTime,
+                                                @Param("cursorId") UUID cursorId,
+                                                Pageable pageable);
+
+    @Query(LISTING_ROW_SELECT +
+            "AND a.endTime < :now AND a.endTime >= :endedAfter " +
+            "AND (a.endTime < :cursorTime OR (a.endTime = :cursorTime AND a.id < :cursorId)) " +
+            "ORDER BY a.endTime DESC, a.id DESC")
+    List<AuctionListingRow> findExpiredListing(@Param("now") Instant now,
+                                               @Param("endedAfter") Instant endedAfter,
+                                               @Param("cursorTime") Instant cursorTime,
+                                               @Param("cursorId") UUID cursorId,
+                                               Pageable pageable);
+
+    @Query(LISTING_ROW_SELECT +
+            "AND (a.startTime < :cursorTime OR (a.startTime = :cursorTime AND a.id < :cursorId)) " +
+            "ORDER BY a.startTime DESC, a.id DESC")
+    List<AuctionListingRow> findAllListing(@Param("cursorTime") Instant cursorTime,
+                                           @Param("cursorId") UUID cursorId,
+                                           Pageable pageable);
+
     // Find auctions by seller
     @Query("SELECT a FROM Auction a WHERE a.seller.id = :sellerId ORDER BY a.createdAt DESC")
     List<Auction> findBySellerId(@Param("sellerId") UUID sellerId);
@@ -56,4 +105,54 @@ public interface AuctionRepository extends JpaRepository<Auction, UUID> {
     List<Auction> findByStartTimeBetween(Instant from, Instant to);
 
     List<Auction> findByEndTimeBetween(Instant from, Instant to);
+
+    // Find auctions not completed yet that start or end before the given time (includes overdue ones)
+    @Query("SELECT a FROM Auction a WHERE a.completed = false AND ((a.startTime > :now AND a.startTime <= :until) OR a.endTime <= :until)")
+    List<Auction> findWithLifecycleDeadlinesBefore(@Param("now") Instant now, @Param("until") Instant until);
+
+    // Find ids of auctions that have ended and are not completed, oldest first
+    @Query(value = "SELECT id FROM auctions WHERE completed = false AND end_time <= :now ORDER BY end_time LIMIT :limit", nativeQuery = true)
+    List<UUID> findDueAuctionIds(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Claims an ended, not yet completed auction for settlement.
+     * The row stays locked until the calling transaction ends, and a row already locked by another
+     * worker (or node) is skipped instead of waited for.
+     */
+    @Query(value = "SELECT * FROM auctions WHERE id = :auctionId AND completed = false AND end_time <= :now FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Auction> claimDueAuction(@Param("auctionId") UUID auctionId, @Param("now") Instant now);
+
+    // Same condition as the claim without the lock, tells a locked due auction from one that is not due
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM auctions WHERE id = :auctionId AND completed = false AND end_time <= :now)", nativeQuery = true)
+    boolean isDueForCompletion(@Param("auctionId") UUID auctionId, @Param("now") Instant now);
+
+    /**
+     * Raises the highest bid of a running auction in a single statement.
+     * The update only matches when the auction is within its bidding window, the new amount beats
+     * the current highest bid, and that highest bid is still the one the caller is replacing, so
+     * concurrent bidders (even on different nodes) can't both win and the replaced bidder is the real one.
+     *
+     * @param expectedPreviousBidId the highest bid the caller saw, null if it saw none
+     * @return 1 if the bid became the highest bid, 0 if it was rejected
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE auctions
+            SET current_high_bid = :amount,
+                current_high_bidder_id = :bidderId,
+                current_high_bid_id = :bidId,
+                bid_count = bid_count + 1,
+                version = version + 1
+            WHERE id = :auctionId
+              AND start_time <= :now
+              AND end_time >= :now
+              AND (current_high_bid IS NULL OR current_high_bid < :amount)
+              AND current_high_bid_id IS NOT DISTINCT FROM CAST(:expectedPreviousBidId AS uuid)
+            """, nativeQuery = true)
+    int tryPlaceHighBid(@Param("auctionId") UUID auctionId,
+                        @Param("bidId") UUID bidId,
+                        @Param("bidderId") UUID bidderId,
+                        @Param("amount") Double amount,
+                        @Param("now") Instant now,
+                        @Param("expectedPreviousBidId") UUID expectedPreviousBidId);
 }
\ No newline at end of file
@@ -21,6 +21,13 @@ public interface AuctionWatchListRepository extends JpaRepository<AuctionWatchLi
     @Query("SELECT aw.user FROM AuctionWatchList aw WHERE aw.auction.id = :auctionId")
     List<User> findUsersWatchingAuction(@Param("auctionId") UUID auctionId);
 
+    // in user id order, so a fan-out can be resumed after the last watcher it reached
+    @Query("SELECT aw.user FROM AuctionWatchList aw WHERE aw.auction.id = :auctionId ORDER BY aw.user.id")
+    List<User> findUsersWatchingAuctionOrderById(@Param("auctionId") UUID auctionId);
+
+    @Query("SELECT aw.user FROM AuctionWatchList aw WHERE aw.auction.id = :auctionId AND aw.user.id > :afterUserId ORDER BY aw.user.id")
+    List<User> findUsersWatchingAuctionAfter(@Param("auctionId") UUID auctionId, @Param("afterUserId") UUID afterUserId);
+
     @Query("""
         SELECT wl FROM AuctionWatchList wl
         JOIN wl.auction a
@@ -1,6 +1,7 @@
 package com.helios.auctix.repositories;
 
 import com.helios.auctix.domain.auction.Bid;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,9 +17,16 @@ public interface BidRepository extends JpaRepository<Bid, UUID> {
     // Find the highest bid for an auction
     Optional<Bid> findTopByAuctionIdOrderByAmountDesc(UUID auctionId);
 
+    // Find the highest bid through the denormalized pointer on the auction, a primary key lookup instead of a sort
+    @Query("SELECT b FROM Bid b WHERE b.id = (SELECT a.currentHighBidId FROM Auction a WHERE a.id = :auctionId)")
+    Optional<Bid> findCurrentHighestByAuctionId(@Param("auctionId") UUID auctionId);
+
     // Find bid history for an auction, ordered by time (newest first)
     List<Bid> findByAuctionIdOrderByBidTimeDesc(UUID auctionId);
 
+    // Find only the latest bids of an auction, so we don't load the whole history to show a few
+    List<Bid> findByAuctionIdOrderByBidTimeDesc(UUID auctionId, Pageable pageable);
+
 
     // Add these methods to your existing BidRepository
 
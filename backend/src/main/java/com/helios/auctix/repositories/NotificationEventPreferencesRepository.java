@@ -3,9 +3,13 @@ package com.helios.auctix.repositories;
 import com.helios.auctix.domain.notification.preferences.NotificationEventPreference;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface NotificationEventPreferencesRepository extends CrudRepository<NotificationEventPreference, UUID> {
     Optional<NotificationEventPreference> findByUserId(UUID userId);
+
+    List<NotificationEventPreference> findByUserIdIn(Collection<UUID> userIds);
 }
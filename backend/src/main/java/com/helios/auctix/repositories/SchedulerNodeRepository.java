@@ -0,0 +1,35 @@
+package com.helios.auctix.repositories;
+
+import com.helios.auctix.domain.scheduler.SchedulerNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Heartbeats use the database clock so the lease does not depend on the clocks of the nodes agreeing.
+ */
+@Repository
+public interface SchedulerNodeRepository extends JpaRepository<SchedulerNode, UUID> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_nodes (node_id, host_name, started_at, heartbeat_at) VALUES (:nodeId, :hostName, now(), now()) " +
+            "ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = now()", nativeQuery = true)
+    void heartbeat(@Param("nodeId") UUID nodeId, @Param("hostName") String hostName);
+
+    // Ids of the nodes holding a live lease, in a stable order every node agrees on
+    @Query(value = "SELECT node_id FROM scheduler_nodes WHERE heartbeat_at > now() - (:leaseMillis * interval '1 millisecond') ORDER BY node_id", nativeQuery = true)
+    List<UUID> findLiveNodeIds(@Param("leaseMillis") long leaseMillis);
+
+    // Removes nodes that stopped heartbeating long ago, a live node never gets here
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM scheduler_nodes WHERE heartbeat_at < now() - (:expiredMillis * interval '1 millisecond')", nativeQuery = true)
+    int deleteExpired(@Param("expiredMillis") long expiredMillis);
+}
@@ -2,12 +2,73 @@ package com.helios.auctix.repositories;
 
 import com.helios.auctix.domain.transaction.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * The transactions of a wallet form its event log, ordered by {@code (transaction_date, id)}.
+ * Every query walks the {@code (wallet_id, transaction_date, id)} index, so its cost depends on
+ * the page or the number of events after a snapshot, not on the length of the history.
+ */
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
-}
+    // Newest transactions of the wallet, the first page of the history
+    @Query(value = "SELECT * FROM transactions WHERE wallet_id = :walletId " +
+            "ORDER BY transaction_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findLatestByWalletId(@Param("walletId") UUID walletId, @Param("limit") int limit);
+
+    // Transactions older than the cursor, the following pages of the history
+    @Query(value = "SELECT * FROM transactions WHERE wallet_id = :walletId AND (transaction_date, id) < (:beforeDate, :beforeId) " +
+            "ORDER BY transaction_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Transaction> findByWalletIdBefore(@Param("walletId") UUID walletId,
+                                           @Param("beforeDate") LocalDateTime beforeDate,
+                                           @Param("beforeId") UUID beforeId,
+                                           @Param("limit") int limit);
+
+    // Whole history, newest first, sorted by the database
+    @Query(value = "SELECT * FROM transactions WHERE wallet_id = :walletId ORDER BY transaction_date DESC, id DESC", nativeQuery = true)
+    List<Transaction> findAllByWalletIdNewestFirst(@Param("walletId") UUID walletId);
+
+    // Newest transaction of the wallet not later than the given time
+    @Query(value = "SELECT * FROM transactions WHERE wallet_id = :walletId AND transaction_date <= :until " +
+            "ORDER BY transaction_date DESC, id DESC LIMIT 1", nativeQuery = true)
+    Optional<Transaction> findLatestByWalletIdUntil(@Param("walletId") UUID walletId, @Param("until") LocalDateTime until);
 
+    // Sum of the deltas of the transactions after the cursor, up to and including the given time
+    @Query(value = "SELECT COALESCE(SUM(amount_delta), 0) AS \"amountDelta\", COALESCE(SUM(freeze_delta), 0) AS \"freezeDelta\", " +
+            "COUNT(*) AS \"eventCount\" FROM transactions " +
+            "WHERE wallet_id = :walletId AND (transaction_date, id) > (:afterDate, :afterId) AND transaction_date <= :until", nativeQuery = true)
+    EventTotals sumEventsAfter(@Param("walletId") UUID walletId,
+                               @Param("afterDate") LocalDateTime afterDate,
+                               @Param("afterId") UUID afterId,
+                               @Param("until") LocalDateTime until);
+
+    // Current wallet balances next to the deltas recorded after the cursor, read in one statement so they agree
+    @Query(value = "SELECT w.amount AS \"walletAmount\", w.freeze_amount AS \"walletFreezeAmount\", " +
+            "COALESCE(SUM(t.amount_delta), 0) AS \"amountDelta\", COALESCE(SUM(t.freeze_delta), 0) AS \"freezeDelta\", " +
+            "COUNT(t.id) AS \"eventCount\" FROM wallet w " +
+            "LEFT JOIN transactions t ON t.wallet_id = w.id AND (t.transaction_date, t.id) > (:afterDate, :afterId) " +
+            "WHERE w.id = :walletId GROUP BY w.amount, w.freeze_amount", nativeQuery = true)
+    Optional<WalletReplay> replayWalletAfter(@Param("walletId") UUID walletId,
+                                             @Param("afterDate") LocalDateTime afterDate,
+                                             @Param("afterId") UUID afterId);
+
+    interface EventTotals {
+        BigDecimal getAmountDelta();
+        BigDecimal getFreezeDelta();
+        Long getEventCount();
+    }
+
+    interface WalletReplay extends EventTotals {
+        BigDecimal getWalletAmount();
+        BigDecimal getWalletFreezeAmount();
+    }
+}
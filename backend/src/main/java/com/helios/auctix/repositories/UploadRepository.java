@@ -3,6 +3,10 @@ package com.helios.auctix.repositories;
 import com.helios.auctix.domain.upload.Upload;
 import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,4 +19,14 @@ public interface UploadRepository extends JpaRepository<Upload, UUID> {
     boolean findAllByFileId(UUID fileId);
 
     Integer countByFileId(UUID fileId);
+
+    Integer countByThumbnailFileId(UUID thumbnailFileId);
+
+    Integer countByMediumFileId(UUID mediumFileId);
+
+    // only the variant columns, so a concurrent change of the upload (e.g. its deletion) is not overwritten
+    @Transactional
+    @Modifying
+    @Query("UPDATE Upload u SET u.thumbnailFileId = :thumbnailFileId, u.mediumFileId = :mediumFileId WHERE u.id = :id")
+    int setVariants(@Param("id") UUID id, @Param("thumbnailFileId") UUID thumbnailFileId, @Param("mediumFileId") UUID mediumFileId);
 }
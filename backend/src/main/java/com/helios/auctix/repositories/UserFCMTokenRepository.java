@@ -2,7 +2,11 @@ package com.helios.auctix.repositories;
 
 import com.helios.auctix.domain.user.UserFCMToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,4 +15,11 @@ public interface UserFCMTokenRepository extends JpaRepository<UserFCMToken, UUID
     Optional<UserFCMToken> findByFcmToken(String fcmToken);
     List<UserFCMToken> findAllByUserIdAndIsActive(UUID userId, boolean isActive);
     void deleteByFcmToken(String fcmToken);
+
+    @Query("SELECT t.fcmToken FROM UserFCMToken t WHERE t.user.id IN :userIds AND t.isActive = true")
+    List<String> findActiveTokensByUserIdIn(@Param("userIds") Collection<UUID> userIds);
+
+    @Modifying
+    @Query("UPDATE UserFCMToken t SET t.isActive = false WHERE t.fcmToken IN :tokens AND t.isActive = true")
+    int deactivateByFcmTokenIn(@Param("tokens") Collection<String> tokens);
 }
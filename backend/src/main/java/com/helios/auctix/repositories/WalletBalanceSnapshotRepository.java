@@ -0,0 +1,14 @@
+package com.helios.auctix.repositories;
+
+import com.helios.auctix.domain.transaction.WalletBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshot, UUID> {
+
+    Optional<WalletBalanceSnapshot> findTopByWalletIdOrderByTakenAtDesc(UUID walletId);
+}
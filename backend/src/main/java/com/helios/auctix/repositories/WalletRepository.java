@@ -2,6 +2,8 @@ package com.helios.auctix.repositories;
 
 import com.helios.auctix.domain.transaction.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,5 +15,10 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
 
     List<Wallet> findAllByUserId(UUID userId);  // Add this method to get all wallets for a user
     Optional<Wallet> findByUserId(UUID userId);
+    boolean existsByUserId(UUID userId);
+
+    // Keyset walk over all wallets, used by the snapshot and verification jobs
+    @Query(value = "SELECT id FROM wallet WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdsAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
 }
 
@@ -0,0 +1,154 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.repositories.AuctionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Settles ended auctions in parallel, each one in its own transaction.
+ * <p>
+ * Auctions are queued by the {@link AuctionLifecycleEngine} at their end time and by a reconciliation
+ * sweep for whatever it missed. Up to {@code parallelism} auctions are settled at once, and every
+ * settlement claims its auction row with {@code FOR UPDATE SKIP LOCKED}, so workers (on this node or
+ * another one) never settle the same auction twice nor wait on each other.
+ * A failed settlement only rolls back that auction and is retried with exponential backoff.
+ * A due auction whose row is locked, typically by a bid committing in the closing seconds, is claimed again
+ * every {@code locked-retry-ms}.
+ */
+@Slf4j
+@Component
+public class AuctionCompletionWorker {
+
+    private final AuctionRepository auctionRepository;
+    private final AuctionSchedulerService auctionSchedulerService;
+    private final SchedulerNodeRegistry schedulerNodeRegistry;
+    private final ScheduledExecutorService workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long lockedRetryMillis;
+    private final int lockedMaxRetries;
+
+    // auctions queued or being settled, so the sweep and the lifecycle engine never queue one twice
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    public AuctionCompletionWorker(
+            AuctionRepository auctionRepository,
+            AuctionSchedulerService auctionSchedulerService,
+            SchedulerNodeRegistry schedulerNodeRegistry,
+            @Value("${auctix.auctions.completion.parallelism:4}") int parallelism,
+            @Value("${auctix.auctions.completion.batch-size:500}") int batchSize,
+            @Value("${auctix.auctions.completion.max-attempts:5}") int maxAttempts,
+            @Value("${auctix.auctions.completion.backoff-ms:1000}") long backoffMillis,
+            @Value("${auctix.auctions.completion.locked-retry-ms:250}") long lockedRetryMillis,
+            @Value("${auctix.auctions.completion.locked-max-retries:120}") int lockedMaxRetries
+    ) {
+        this.auctionRepository = auctionRepository;
+        this.auctionSchedulerService = auctionSchedulerService;
+        this.schedulerNodeRegistry = schedulerNodeRegistry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.lockedRetryMillis = lockedRetryMillis;
+        this.lockedMaxRetries = lockedMaxRetries;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newScheduledThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "auction-completion-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Reconciliation sweep for completed auctions.
+     * The lifecycle engine completes auctions at their end time, this picks up whatever it missed (e.g. restarts).
+     * Only the auctions owned by this node are queued, see {@link SchedulerNodeRegistry}.
+     *
+     * @return the number of auctions queued for settlement
+     */
+    @Scheduled(fixedRateString = "${auctix.auctions.reconcile-rate-ms:300000}")
+    public int processDueAuctions() {
+        List<UUID> dueAuctionIds = auctionRepository.findDueAuctionIds(Instant.now(), batchSize);
+
+        int queued = 0;
+        for (UUID auctionId : dueAuctionIds) {
+            if (schedulerNodeRegistry.owns(auctionId) && submit(auctionId)) {
+                queued++;
+            }
+        }
+
+        log.info("Found {} ended auctions to complete, {} owned by this node queued", dueAuctionIds.size(), queued);
+        return queued;
+    }
+
+    /**
+     * Queues the auction for settlement unless it is already queued.
+     *
+     * @return false if the auction was already queued
+     */
+    public boolean submit(UUID auctionId) {
+        if (!inFlight.add(auctionId)) {
+            return false;
+        }
+
+        workers.execute(() -> settle(auctionId, 1, 0));
+        return true;
+    }
+
+    private void settle(UUID auctionId, int attempt, int lockedRetries) {
+        try {
+            AuctionSchedulerService.Settlement settlement = auctionSchedulerService.settleDueAuction(auctionId);
+            if (settlement == AuctionSchedulerService.Settlement.LOCKED) {
+                retryLocked(auctionId, attempt, lockedRetries);
+                return;
+            }
+            if (settlement == AuctionSchedulerService.Settlement.NOT_DUE) {
+                log.debug("Auction {} is not due or was completed elsewhere, skipping", auctionId);
+            }
+            inFlight.remove(auctionId);
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                // released so the next reconciliation sweep tries again
+                inFlight.remove(auctionId);
+                log.error("Giving up completing auction {} after {} attempts", auctionId, attempt, e);
+                return;
+            }
+
+            long delayMillis = backoffMillis << (attempt - 1);
+            log.warn("Completing auction {} failed (attempt {}), retrying in {} ms: {}",
+                    auctionId, attempt, delayMillis, e.getMessage());
+            workers.schedule(() -> settle(auctionId, attempt + 1, lockedRetries), delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // the row is held by a bid placed in the closing seconds (or a worker settling it), which commits shortly,
+    // so it is claimed again soon instead of waiting for the reconciliation sweep
+    private void retryLocked(UUID auctionId, int attempt, int lockedRetries) {
+        if (lockedRetries >= lockedMaxRetries || !schedulerNodeRegistry.owns(auctionId)) {
+            inFlight.remove(auctionId);
+            log.warn("Auction {} still locked after {} retries or no longer owned, leaving it to the sweep", auctionId, lockedRetries);
+            return;
+        }
+        log.debug("Auction {} is locked, claiming it again in {} ms", auctionId, lockedRetryMillis);
+        workers.schedule(() -> settle(auctionId, attempt, lockedRetries + 1), lockedRetryMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,204 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.domain.auction.Auction;
+import com.helios.auctix.repositories.AuctionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires auction lifecycle events (start soon, started, end soon, completion) at their exact instant.
+ * <p>
+ * Deadlines falling inside the next {@code horizon} are armed as one-shot timers on a small scheduled pool.
+ * They are loaded once at startup, topped up by a reconciliation pass every {@code reconcile-rate-ms}, and
+ * re-armed by {@link AuctionService} whenever an auction is created or its times change.
+ * With several instances running, reconciliation only arms the auctions this node owns (see
+ * {@link SchedulerNodeRegistry}), and notification timers armed for an auction owned by another node
+ * are dropped when they fire, leaving it to the owner's next reconciliation.
+ * The timers call back into {@link AuctionSchedulerService} (completion goes through the
+ * {@link AuctionCompletionWorker}), which re-checks the auction and the
+ * notification log before doing anything, so a stale or duplicate timer is harmless.
+ */
+@Slf4j
+@Component
+public class AuctionLifecycleEngine {
+
+    private enum Deadline { START_SOON, STARTED, END_SOON, END }
+
+    private final AuctionRepository auctionRepository;
+    private final AuctionSchedulerService auctionSchedulerService;
+    private final AuctionCompletionWorker auctionCompletionWorker;
+    private final SchedulerNodeRegistry schedulerNodeRegistry;
+    private final Duration horizon;
+    private final Duration soonWindow = Duration.ofMinutes(AuctionSchedulerService.AUCTION_SOON_WINDOW_MINUTES);
+    private final ScheduledExecutorService timers;
+
+    private final Map<UUID, ArmedAuction> armedAuctions = new ConcurrentHashMap<>();
+
+    public AuctionLifecycleEngine(
+            AuctionRepository auctionRepository,
+            AuctionSchedulerService auctionSchedulerService,
+            AuctionCompletionWorker auctionCompletionWorker,
+            SchedulerNodeRegistry schedulerNodeRegistry,
+            @Value("${auctix.auctions.lifecycle.horizon-minutes:60}") long horizonMinutes,
+            @Value("${auctix.auctions.lifecycle.threads:2}") int threads
+    ) {
+        this.auctionRepository = auctionRepository;
+        this.auctionSchedulerService = auctionSchedulerService;
+        this.auctionCompletionWorker = auctionCompletionWorker;
+        this.schedulerNodeRegistry = schedulerNodeRegistry;
+        this.horizon = Duration.ofMinutes(horizonMinutes);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.timers = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "auction-lifecycle-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUpcomingDeadlines() {
+        reconcile();
+    }
+
+    /**
+     * Arms every deadline that falls inside the horizon and is not armed yet.
+     * Runs at the reconciliation rate, which must stay well below the horizon.
+     */
+    @Scheduled(fixedRateString = "${auctix.auctions.reconcile-rate-ms:300000}", initialDelayString = "${auctix.auctions.reconcile-rate-ms:300000}")
+    public void reconcile() {
+        Instant now = Instant.now();
+        // a start soon deadline fires soonWindow before the start, so look that much further for starts
+        Instant until = now.plus(horizon).plus(soonWindow);
+
+        List<Auction> auctions = auctionRepository.findWithLifecycleDeadlinesBefore(now, until);
+        for (Auction auction : auctions) {
+            if (schedulerNodeRegistry.owns(auction.getId())) {
+                arm(auction);
+            }
+        }
+
+        log.info("Lifecycle reconciliation checked {} auctions, {} auctions armed", auctions.size(), armedAuctions.size());
+    }
+
+    /**
+     * Arms (or re-arms, if its times changed) the deadlines of the auction that fall inside the horizon.
+     */
+    public void arm(Auction auction) {
+        UUID auctionId = auction.getId();
+
+        if (Boolean.TRUE.equals(auction.getCompleted())) {
+            disarm(auctionId);
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant horizonEnd = now.plus(horizon);
+
+        ArmedAuction current = armedAuctions.get(auctionId);
+        if (current != null && current.matches(auction) && current.coversAllDeadlines()) {
+            return;
+        }
+
+        List<ScheduledFuture<?>> scheduled = new ArrayList<>();
+
+        Instant startTime = auction.getStartTime();
+        Instant endTime = auction.getEndTime();
+
+        if (startTime.isAfter(now)) {
+            schedule(scheduled, auctionId, Deadline.START_SOON, startTime.minus(soonWindow), now, horizonEnd);
+            schedule(scheduled, auctionId, Deadline.STARTED, startTime, now, horizonEnd);
+        }
+        if (endTime.isAfter(now)) {
+            schedule(scheduled, auctionId, Deadline.END_SOON, endTime.minus(soonWindow), now, horizonEnd);
+        }
+        schedule(scheduled, auctionId, Deadline.END, endTime, now, horizonEnd);
+
+        ArmedAuction previous = armedAuctions.put(auctionId, new ArmedAuction(startTime, endTime, horizonEnd, scheduled));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void disarm(UUID auctionId) {
+        ArmedAuction previous = armedAuctions.remove(auctionId);
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void schedule(List<ScheduledFuture<?>> scheduled, UUID auctionId, Deadline deadline,
+                          Instant fireAt, Instant now, Instant horizonEnd) {
+        if (fireAt.isAfter(horizonEnd)) {
+            // picked up by a later reconciliation pass
+            return;
+        }
+
+        long delayMillis = Math.max(0, now.until(fireAt, ChronoUnit.MILLIS));
+        scheduled.add(timers.schedule(() -> fire(auctionId, deadline), delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void fire(UUID auctionId, Deadline deadline) {
+        // settling is guarded by a row lock so any node may do it, notifications are left to the owner
+        if (deadline != Deadline.END && !schedulerNodeRegistry.owns(auctionId)) {
+            return;
+        }
+
+        try {
+            switch (deadline) {
+                case START_SOON -> auctionSchedulerService.sendAuctionStartSoonNotification(auctionId);
+                case STARTED -> auctionSchedulerService.sendAuctionStartedNotification(auctionId);
+                case END_SOON -> auctionSchedulerService.sendAuctionEndSoonNotification(auctionId);
+                case END -> {
+                    auctionCompletionWorker.submit(auctionId);
+                    // keep the entry if the auction was re-armed with a later end meanwhile
+                    armedAuctions.computeIfPresent(auctionId,
+                            (id, armed) -> armed.endTime().isAfter(Instant.now()) ? armed : null);
+                }
+            }
+        } catch (Exception e) {
+            // the reconciliation sweeps retry whatever failed here
+            log.error("Lifecycle deadline {} failed for auction {}", deadline, auctionId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timers.shutdownNow();
+    }
+
+    private record ArmedAuction(Instant startTime, Instant endTime, Instant armedUntil, List<ScheduledFuture<?>> timers) {
+
+        boolean matches(Auction auction) {
+            return startTime.equals(auction.getStartTime()) && endTime.equals(auction.getEndTime());
+        }
+
+        // the end is the last deadline, if it was inside the horizon every other deadline was too
+        boolean coversAllDeadlines() {
+            return !endTime.isAfter(armedUntil);
+        }
+
+        void cancel() {
+            timers.forEach(timer -> timer.cancel(false));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.helios.auctix.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in an auction listing, the sort time and id of the last auction of a page.
+ * Handed to clients as an opaque url-safe string.
+ */
+record AuctionListingCursor(Instant sortTime, UUID auctionId) {
+
+    private static final String SEPARATOR = "|";
+
+    // sort before or after every real auction, the position of the first page
+    static final AuctionListingCursor BEFORE_ALL = new AuctionListingCursor(Instant.EPOCH, new UUID(0L, 0L));
+    static final AuctionListingCursor AFTER_ALL = new AuctionListingCursor(
+            Instant.parse("9999-12-31T23:59:59Z"), UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff"));
+
+    String encode() {
+        String raw = sortTime + SEPARATOR + auctionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode()}
+     */
+    static AuctionListingCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new AuctionListingCursor(
+                    Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -5,20 +5,23 @@ import com.helios.auctix.domain.auction.Bid;
 import com.helios.auctix.domain.notification.AuctionNotificationLog;
 import com.helios.auctix.domain.notification.NotificationCategory;
 import com.helios.auctix.domain.user.User;
-import com.helios.auctix.events.notification.NotificationEventPublisher;
 import com.helios.auctix.repositories.*;
+import com.helios.auctix.services.bidding.LiveAuctionBook;
+import com.helios.auctix.services.outbox.NotificationOutbox;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,15 +37,17 @@ public class AuctionSchedulerService {
     private final BidRepository bidRepository;
     private final BidService bidService;
     private final CoinTransactionService transactionService;
-    private final NotificationEventPublisher notificationEventPublisher;
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
-    private final WatchListNotifyService watchListNotifyService;
     private final AuctionNotificationLogRepository auctionNotificationLogRepository;
+    private final LiveAuctionBook liveAuctionBook;
+    private final NotificationOutbox notificationOutbox;
+    private final SchedulerNodeRegistry schedulerNodeRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final long reconcileRateMs;
 
-    private static final long SCHEDULE_FIXED_RATE_MS = 60_000;
-    private static final long AUCTION_SOON_WINDOW_MINUTES = 10;
-    private static final long AUCTION_START_DETECTION_WINDOW_MINUTES = 1;
+    private static final String RECONCILE_RATE_PROPERTY = "${auctix.auctions.reconcile-rate-ms:300000}";
+    static final long AUCTION_SOON_WINDOW_MINUTES = 10;
 
     private static final String TIMEZONE = "Asia/Colombo";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
@@ -83,63 +88,47 @@ public class AuctionSchedulerService {
             BidRepository bidRepository,
             BidService bidService,
             CoinTransactionService transactionService,
-            NotificationEventPublisher notificationEventPublisher,
             UserRepository userRepository,
             WalletRepository walletRepository,
-            WatchListNotifyService watchListNotifyService, AuctionNotificationLogRepository auctionNotificationLogRepository) {
+            AuctionNotificationLogRepository auctionNotificationLogRepository,
+            LiveAuctionBook liveAuctionBook,
+            NotificationOutbox notificationOutbox,
+            SchedulerNodeRegistry schedulerNodeRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value(RECONCILE_RATE_PROPERTY) long reconcileRateMs) {
         this.auctionRepository = auctionRepository;
         this.bidRepository = bidRepository;
         this.bidService = bidService;
         this.transactionService = transactionService;
-        this.notificationEventPublisher = notificationEventPublisher;
         this.userRepository = userRepository;
         this.walletRepository = walletRepository;
-        this.watchListNotifyService = watchListNotifyService;
         this.auctionNotificationLogRepository = auctionNotificationLogRepository;
+        this.liveAuctionBook = liveAuctionBook;
+        this.notificationOutbox = notificationOutbox;
+        this.schedulerNodeRegistry = schedulerNodeRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileRateMs = reconcileRateMs;
     }
 
     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
             .withZone(ZoneId.of("Asia/Colombo"));
 
-    /**
-     * Scheduled job to check for completed auctions every minute
-     */
-    @Scheduled(fixedRate = 60000) // Run every minute
-    @Transactional
-    public void processCompletedAuctions() {
-        try {
-            Instant now = Instant.now();
-            logger.info("Running scheduled job to process completed auctions at " + now);
-
-            // Find auctions that have ended but haven't been processed yet
-            List<Auction> completedAuctions = auctionRepository.findByEndTimeBeforeAndCompletedFalse(now);
-
-            logger.info("Found " + completedAuctions.size() + " completed auctions to process");
-
-            for (Auction auction : completedAuctions) {
-                try {
-                    processAuctionCompletion(auction);
-                } catch (Exception e) {
-                    logger.severe("Error processing auction completion for auction ID " + auction.getId() + ": " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-        } catch (Exception e) {
-            logger.severe("Error in scheduled auction processing: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
     @Transactional
     public void processAuctionCompletion(Auction auction) {
         UUID auctionId = auction.getId();
         logger.info("Processing completion for auction: " + auctionId);
 
-        List<User> excludedFromWatchlistNotify = new ArrayList<>();
+        // No more bids are admitted, free the live book once the completion is committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                liveAuctionBook.evict(auctionId);
+            }
+        });
 
         try {
             // Find the highest bid
-            Optional<Bid> highestBid = bidRepository.findTopByAuctionIdOrderByAmountDesc(auctionId);
+            Optional<Bid> highestBid = bidRepository.findCurrentHighestByAuctionId(auctionId);
 
             if (highestBid.isPresent()) {
                 Bid winningBid = highestBid.get();
@@ -151,79 +140,60 @@ public class AuctionSchedulerService {
 
                 // Complete the transaction - transfer from frozen funds to seller
                 try {
-                    // 1. Complete the bidder's transaction (unfreeze and deduct funds)
-                    transactionService.completeBidTransaction(
+                    // 1. Spend the bidder's frozen funds and credit the seller's wallet in one ledger batch
+                    transactionService.settleAuctionPayment(
                             winningBid.getBidderId(),
-                            auctionId,
-                            winningBid.getAmount()
-                    );
-
-                    // 2. Credit the seller's wallet
-                    transactionService.creditSellerForAuction(
                             seller.getId(),
                             auctionId,
                             winningBid.getAmount()
                     );
 
-                    // 3. Send notifications
+                    // 2. Record the notifications, the outbox relay sends them once the completion is committed
                     if (bidder != null) {
-                        try {
-                            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                                @Override
-                                public void afterCommit() {
-
-                                    // Notify bidder (winner)
-                                    String auctionTitle = auction.getTitle();
-                                    String winningAmount = winningBid.getAmount().toString();
-                                    String bidderUsername = bidder.getUsername();
-                                    String auctionUrl = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
-
-                                    String wonTitle = String.format(AUCTION_WON_TITLE_TEMPLATE, auctionTitle);
-                                    String wonMessage = String.format(AUCTION_WON_MESSAGE_TEMPLATE, auctionTitle, winningAmount);
-
-                                    notificationEventPublisher.publishNotificationEvent(
-                                            wonTitle,
-                                            wonMessage,
-                                            NotificationCategory.AUCTION_WON,
-                                            bidder,
-                                            auctionUrl
-                                    );
-
-                                    // Notify seller
-                                    String soldTitle = String.format(ITEM_SOLD_TITLE_TEMPLATE, auctionTitle);
-                                    String soldMessage = String.format(ITEM_SOLD_MESSAGE_TEMPLATE, auctionTitle, winningAmount, bidderUsername);
-
-                                    notificationEventPublisher.publishNotificationEvent(
-                                            soldTitle,
-                                            soldMessage,
-                                            NotificationCategory.ITEM_SOLD,
-                                            seller,
-                                            auctionUrl
-                                    );
-
-                                    // Prevent notifying winner again via watchlist
-                                    excludedFromWatchlistNotify.add(bidder);
-
-                                    String watcherTitle = String.format(AUCTION_COMPLETED_WITH_WINNING_BID_TITLE_TEMPLATE, auctionTitle);
-                                    String watcherMessage = String.format(AUCTION_COMPLETED_WITH_WINNING_BID_MESSAGE_TEMPLATE, auctionTitle, winningAmount);
-
-                                    watchListNotifyService.notifySubscribers(
-                                            auction,
-                                            excludedFromWatchlistNotify,
-                                            watcherTitle,
-                                            watcherMessage,
-                                            NotificationCategory.AUCTION_COMPLETED,
-                                            auctionUrl
-                                    );
-                                }
-                            });
-
-                        } catch (Exception e) {
-                            logger.warning("Failed to send buyer and seller - complete with win notification, but continuing: " + e.getMessage());
-                        }
+                        // Notify bidder (winner)
+                        String auctionTitle = auction.getTitle();
+                        String winningAmount = winningBid.getAmount().toString();
+                        String bidderUsername = bidder.getUsername();
+                        String auctionUrl = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+
+                        String wonTitle = String.format(AUCTION_WON_TITLE_TEMPLATE, auctionTitle);
+                        String wonMessage = String.format(AUCTION_WON_MESSAGE_TEMPLATE, auctionTitle, winningAmount);
+
+                        notificationOutbox.notifyUser(
+                                wonTitle,
+                                wonMessage,
+                                NotificationCategory.AUCTION_WON,
+                                bidder.getId(),
+                                auctionUrl
+                        );
+
+                        // Notify seller
+                        String soldTitle = String.format(ITEM_SOLD_TITLE_TEMPLATE, auctionTitle);
+                        String soldMessage = String.format(ITEM_SOLD_MESSAGE_TEMPLATE, auctionTitle, winningAmount, bidderUsername);
+
+                        notificationOutbox.notifyUser(
+                                soldTitle,
+                                soldMessage,
+                                NotificationCategory.ITEM_SOLD,
+                                seller.getId(),
+                                auctionUrl
+                        );
+
+                        String watcherTitle = String.format(AUCTION_COMPLETED_WITH_WINNING_BID_TITLE_TEMPLATE, auctionTitle);
+                        String watcherMessage = String.format(AUCTION_COMPLETED_WITH_WINNING_BID_MESSAGE_TEMPLATE, auctionTitle, winningAmount);
+
+                        // Prevent notifying winner again via watchlist
+                        notificationOutbox.notifyWatchers(
+                                auctionId,
+                                List.of(bidder.getId()),
+                                watcherTitle,
+                                watcherMessage,
+                                NotificationCategory.AUCTION_COMPLETED,
+                                auctionUrl
+                        );
                     }
 
-                    // 4. Mark the auction as completed
+                    // 3. Mark the auction as completed
                     auction.setCompleted(true);
                     auction.setWinningBidId(winningBid.getId());
                     auctionRepository.save(auction);
@@ -238,40 +208,28 @@ public class AuctionSchedulerService {
                 // No bids were placed
                 logger.info("No bids found for auction: " + auctionId + ". Marking as completed without a winner.");
 
-                // Notify the seller that auction ended without bids
-                try {
-                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                        @Override
-                        public void afterCommit() {
-
-                            String auctionTitle = auction.getTitle();
-                            String auctionUrl = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
-                            String messageSeller = String.format(AUCTION_ENDED_NO_BIDS_SELLER_MESSAGE_TEMPLATE, auctionTitle);
-
-                            notificationEventPublisher.publishNotificationEvent(
-                                    AUCTION_ENDED_NO_BIDS_TITLE,
-                                    messageSeller,
-                                    NotificationCategory.AUCTION_COMPLETED,
-                                    auction.getSeller().getUser(),
-                                    auctionUrl
-                            );
-
-                            // Notify the watchers
-                            String messageWatcher = String.format(AUCTION_ENDED_NO_BIDS_WATCHER_MESSAGE_TEMPLATE, auctionTitle);
-                            watchListNotifyService.notifySubscribers(
-                                    auction,
-                                    null,
-                                    AUCTION_ENDED_NO_BIDS_TITLE,
-                                    messageWatcher,
-                                    NotificationCategory.AUCTION_COMPLETED,
-                                    auctionUrl
-                            );
-                        }
-                    });
+                // Notify the seller and the watchers that the auction ended without bids, once the completion is committed
+                String auctionTitle = auction.getTitle();
+                String auctionUrl = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+                String messageSeller = String.format(AUCTION_ENDED_NO_BIDS_SELLER_MESSAGE_TEMPLATE, auctionTitle);
+
+                notificationOutbox.notifyUser(
+                        AUCTION_ENDED_NO_BIDS_TITLE,
+                        messageSeller,
+                        NotificationCategory.AUCTION_COMPLETED,
+                        auction.getSeller().getUser().getId(),
+                        auctionUrl
+                );
 
-                } catch (Exception e) {
-                    logger.warning("Failed to send notification, but continuing: " + e.getMessage());
-                }
+                String messageWatcher = String.format(AUCTION_ENDED_NO_BIDS_WATCHER_MESSAGE_TEMPLATE, auctionTitle);
+                notificationOutbox.notifyWatchers(
+                        auctionId,
+                        null,
+                        AUCTION_ENDED_NO_BIDS_TITLE,
+                        messageWatcher,
+                        NotificationCategory.AUCTION_COMPLETED,
+                        auctionUrl
+                );
 
                 // Mark auction as completed
                 auction.setCompleted(true);
@@ -285,7 +243,12 @@ public class AuctionSchedulerService {
     }
 
 
-    @Scheduled(fixedRate = SCHEDULE_FIXED_RATE_MS)
+    /**
+     * Reconciliation sweep for "ending soon" notifications.
+     * The lifecycle engine sends them at the exact instant, this only catches the ones it missed.
+     * Like every sweep, it only handles the auctions owned by this node, see {@link SchedulerNodeRegistry}.
+     */
+    @Scheduled(fixedRateString = RECONCILE_RATE_PROPERTY)
     public void sendAuctionEndSoonNotifications() {
         Instant now = Instant.now();
         Instant inXMinutes = now.plus(AUCTION_SOON_WINDOW_MINUTES, ChronoUnit.MINUTES);
@@ -293,41 +256,16 @@ public class AuctionSchedulerService {
         List<Auction> endingSoonAuctions = auctionRepository.findByEndTimeBetween(now, inXMinutes);
 
         for (Auction auction : endingSoonAuctions) {
-            UUID auctionId = auction.getId();
-
-            boolean shouldSend = auctionNotificationLogRepository
-                    .findTopByAuctionIdAndCategoryOrderBySentAtDesc(auctionId, NotificationCategory.AUCTION_END_SOON)
-                    .map(log -> log.getSentAt().isBefore(auction.getUpdatedAt()))
-                    .orElse(true);
-
-            if (shouldSend) {
-                String formattedEndTime = FORMATTER.format(auction.getEndTime());
-                String title = String.format(END_SOON_TITLE_TEMPLATE, auction.getTitle(), AUCTION_SOON_WINDOW_MINUTES);
-                String message = String.format(
-                        END_SOON_MESSAGE_TEMPLATE,
-                        auction.getTitle(),
-                        AUCTION_SOON_WINDOW_MINUTES,
-                        formattedEndTime
-                );
-                String url = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
-
-                watchListNotifyService.notifySubscribers(
-                        auction,
-                        null,
-                        title,
-                        message,
-                        NotificationCategory.AUCTION_END_SOON,
-                        url
-                );
-
-                auctionNotificationLogRepository.save(
-                        new AuctionNotificationLog(auctionId, NotificationCategory.AUCTION_END_SOON, Instant.now())
-                );
+            if (schedulerNodeRegistry.owns(auction.getId())) {
+                sendAuctionEndSoonNotification(auction);
             }
         }
     }
 
-    @Scheduled(fixedRate = SCHEDULE_FIXED_RATE_MS)
+    /**
+     * Reconciliation sweep for "starting soon" notifications, see {@link #sendAuctionEndSoonNotifications()}
+     */
+    @Scheduled(fixedRateString = RECONCILE_RATE_PROPERTY)
     public void sendAuctionStartSoonNotifications() {
         Instant now = Instant.now();
         Instant inXMinutes = now.plus(AUCTION_SOON_WINDOW_MINUTES, ChronoUnit.MINUTES);
@@ -335,81 +273,195 @@ public class AuctionSchedulerService {
         List<Auction> startingSoonAuctions = auctionRepository.findByStartTimeBetween(now, inXMinutes);
 
         for (Auction auction : startingSoonAuctions) {
-            UUID auctionId = auction.getId();
-
-            boolean shouldSend = auctionNotificationLogRepository
-                    .findTopByAuctionIdAndCategoryOrderBySentAtDesc(auctionId, NotificationCategory.AUCTION_START_SOON)
-                    .map(log -> log.getSentAt().isBefore(auction.getUpdatedAt()))
-                    .orElse(true);
-
-            if (shouldSend) {
-                String formattedStartTime = FORMATTER.format(auction.getStartTime());
-                String title = String.format(START_SOON_TITLE_TEMPLATE, auction.getTitle(), AUCTION_SOON_WINDOW_MINUTES);
-                String message = String.format(
-                        START_SOON_MESSAGE_TEMPLATE,
-                        auction.getTitle(),
-                        formattedStartTime
-                );
-                String url = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+            if (schedulerNodeRegistry.owns(auction.getId())) {
+                sendAuctionStartSoonNotification(auction);
+            }
+        }
+    }
 
-                watchListNotifyService.notifySubscribers(
-                        auction,
-                        null,
-                        title,
-                        message,
-                        NotificationCategory.AUCTION_START_SOON,
-                        url
-                );
+    /**
+     * Reconciliation sweep for "just started" notifications, see {@link #sendAuctionEndSoonNotifications()}.
+     * Looks back one sweep interval so every auction start falls in exactly one sweep window.
+     */
+    @Scheduled(fixedRateString = RECONCILE_RATE_PROPERTY)
+    public void sendAuctionStartedNotifications() {
+        Instant now = Instant.now();
+        Instant previousSweep = now.minusMillis(reconcileRateMs);
 
-                auctionNotificationLogRepository.save(
-                        new AuctionNotificationLog(auctionId, NotificationCategory.AUCTION_START_SOON, Instant.now())
-                );
+        List<Auction> justStartedAuctions = auctionRepository.findByStartTimeBetween(previousSweep, now);
+
+        for (Auction auction : justStartedAuctions) {
+            if (schedulerNodeRegistry.owns(auction.getId())) {
+                sendAuctionStartedNotification(auction);
             }
         }
     }
 
+    /**
+     * Sends the "ending soon" notification of an auction if it is still ending soon, used by the lifecycle engine
+     */
+    public void sendAuctionEndSoonNotification(UUID auctionId) {
+        Instant now = Instant.now();
+        auctionRepository.findById(auctionId)
+                .filter(auction -> isWithinSoonWindow(auction.getEndTime(), now))
+                .ifPresent(this::sendAuctionEndSoonNotification);
+    }
 
+    /**
+     * Sends the "starting soon" notification of an auction if it is still starting soon, used by the lifecycle engine
+     */
+    public void sendAuctionStartSoonNotification(UUID auctionId) {
+        Instant now = Instant.now();
+        auctionRepository.findById(auctionId)
+                .filter(auction -> isWithinSoonWindow(auction.getStartTime(), now))
+                .ifPresent(this::sendAuctionStartSoonNotification);
+    }
 
-    @Scheduled(fixedRate = SCHEDULE_FIXED_RATE_MS)
-    public void sendAuctionStartedNotifications() {
+    /**
+     * Sends the "just started" notification of an auction if it is running, used by the lifecycle engine
+     */
+    public void sendAuctionStartedNotification(UUID auctionId) {
         Instant now = Instant.now();
-        Instant oneMinuteAgo = now.minus(AUCTION_START_DETECTION_WINDOW_MINUTES, ChronoUnit.MINUTES);
+        auctionRepository.findById(auctionId)
+                .filter(auction -> !auction.getStartTime().isAfter(now) && auction.getEndTime().isAfter(now))
+                .ifPresent(this::sendAuctionStartedNotification);
+    }
 
-        List<Auction> justStartedAuctions = auctionRepository.findByStartTimeBetween(oneMinuteAgo, now);
+    private boolean isWithinSoonWindow(Instant deadline, Instant now) {
+        return deadline.isAfter(now) && !deadline.isAfter(now.plus(AUCTION_SOON_WINDOW_MINUTES, ChronoUnit.MINUTES));
+    }
 
-        for (Auction auction : justStartedAuctions) {
-            UUID auctionId = auction.getId();
+    private boolean notificationAlreadySent(Auction auction, NotificationCategory category) {
+        return auctionNotificationLogRepository
+                .findTopByAuctionIdAndCategoryOrderBySentAtDesc(auction.getId(), category)
+                .map(log -> !log.getSentAt().isBefore(auction.getUpdatedAt()))
+                .orElse(false);
+    }
 
-            boolean shouldSend = auctionNotificationLogRepository
-                    .findTopByAuctionIdAndCategoryOrderBySentAtDesc(auctionId, NotificationCategory.AUCTION_STARTED)
-                    .map(log -> log.getSentAt().isBefore(auction.getUpdatedAt()))
-                    .orElse(true);
+    private void sendAuctionEndSoonNotification(Auction auction) {
+        UUID auctionId = auction.getId();
 
-            if (shouldSend) {
-                String formattedStartTime = FORMATTER.format(auction.getStartTime());
-                String formattedEndTime = FORMATTER.format(auction.getEndTime());
+        if (notificationAlreadySent(auction, NotificationCategory.AUCTION_END_SOON)) {
+            return;
+        }
 
-                String title = String.format(STARTED_TITLE_TEMPLATE, auction.getTitle());
-                String message = String.format(STARTED_MESSAGE_TEMPLATE, auction.getTitle(), formattedStartTime, formattedEndTime);
-                String url = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+        String formattedEndTime = FORMATTER.format(auction.getEndTime());
+        String title = String.format(END_SOON_TITLE_TEMPLATE, auction.getTitle(), AUCTION_SOON_WINDOW_MINUTES);
+        String message = String.format(
+                END_SOON_MESSAGE_TEMPLATE,
+                auction.getTitle(),
+                AUCTION_SOON_WINDOW_MINUTES,
+                formattedEndTime
+        );
+        String url = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+
+        // recorded with the log entry, the outbox relay runs the fan-out and resumes it if a channel falls behind
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationOutbox.notifyWatchers(
+                    auctionId,
+                    null,
+                    title,
+                    message,
+                    NotificationCategory.AUCTION_END_SOON,
+                    url
+            );
+            auctionNotificationLogRepository.save(
+                    new AuctionNotificationLog(auctionId, NotificationCategory.AUCTION_END_SOON, Instant.now())
+            );
+        });
+    }
 
-                watchListNotifyService.notifySubscribers(
-                        auction,
-                        null,
-                        title,
-                        message,
-                        NotificationCategory.AUCTION_STARTED,
-                        url
-                );
+    private void sendAuctionStartSoonNotification(Auction auction) {
+        UUID auctionId = auction.getId();
 
-                auctionNotificationLogRepository.save(
-                        new AuctionNotificationLog(auctionId, NotificationCategory.AUCTION_STARTED, Instant.now())
-                );
-            }
+        if (notificationAlreadySent(auction, NotificationCategory.AUCTION_START_SOON)) {
+            return;
+        }
+
+        String formattedStartTime = FORMATTER.format(auction.getStartTime());
+        String title = String.format(START_SOON_TITLE_TEMPLATE, auction.getTitle(), AUCTION_SOON_WINDOW_MINUTES);
+        String message = String.format(
+                START_SOON_MESSAGE_TEMPLATE,
+                auction.getTitle(),
+                formattedStartTime
+        );
+        String url = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+
+        // recorded with the log entry, the outbox relay runs the fan-out and resumes it if a channel falls behind
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationOutbox.notifyWatchers(
+                    auctionId,
+                    null,
+                    title,
+                    message,
+                    NotificationCategory.AUCTION_START_SOON,
+                    url
+            );
+            auctionNotificationLogRepository.save(
+                    new AuctionNotificationLog(auctionId, NotificationCategory.AUCTION_START_SOON, Instant.now())
+            );
+        });
+    }
+
+    private void sendAuctionStartedNotification(Auction auction) {
+        UUID auctionId = auction.getId();
+
+        // Warm the live book now so the first bids don't have to load it
+        liveAuctionBook.warm(auction);
+
+        if (notificationAlreadySent(auction, NotificationCategory.AUCTION_STARTED)) {
+            return;
         }
+
+        String formattedStartTime = FORMATTER.format(auction.getStartTime());
+        String formattedEndTime = FORMATTER.format(auction.getEndTime());
+
+        String title = String.format(STARTED_TITLE_TEMPLATE, auction.getTitle());
+        String message = String.format(STARTED_MESSAGE_TEMPLATE, auction.getTitle(), formattedStartTime, formattedEndTime);
+        String url = String.format(AUCTION_DETAILS_PATH_TEMPLATE, auction.getId());
+
+        // recorded with the log entry, the outbox relay runs the fan-out and resumes it if a channel falls behind
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationOutbox.notifyWatchers(
+                    auctionId,
+                    null,
+                    title,
+                    message,
+                    NotificationCategory.AUCTION_STARTED,
+                    url
+            );
+            auctionNotificationLogRepository.save(
+                    new AuctionNotificationLog(auctionId, NotificationCategory.AUCTION_STARTED, Instant.now())
+            );
+        });
     }
 
 
+    /**
+     * Outcome of {@link #settleDueAuction(UUID)}.
+     */
+    public enum Settlement {
+        SETTLED,
+        // not ended yet, or already completed
+        NOT_DUE,
+        // due, but its row is locked, by a bid still committing or by a worker settling it
+        LOCKED
+    }
+
+    /**
+     * Claims the auction with a row lock and settles it in this transaction, used by the {@link AuctionCompletionWorker}.
+     */
+    @Transactional
+    public Settlement settleDueAuction(UUID auctionId) {
+        Instant now = Instant.now();
+        Optional<Auction> claimed = auctionRepository.claimDueAuction(auctionId, now);
+        if (claimed.isPresent()) {
+            processAuctionCompletion(claimed.get());
+            return Settlement.SETTLED;
+        }
+        return auctionRepository.isDueForCompletion(auctionId, now) ? Settlement.LOCKED : Settlement.NOT_DUE;
+    }
+
     /**
      * Manual trigger to process a specific auction completion (can be used for testing or admin functions)
      */
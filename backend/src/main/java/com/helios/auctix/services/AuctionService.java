@@ -5,24 +5,30 @@ import com.helios.auctix.domain.auction.AuctionImagePath;
 import com.helios.auctix.domain.chat.ChatRoom;
 import com.helios.auctix.dtos.*;
 import com.helios.auctix.mappers.impl.SellerMapperImpl;
-import com.helios.auctix.mappers.impl.UserMapperImpl;
+import com.helios.auctix.services.user.UserDTOCache;
 import com.helios.auctix.repositories.AuctionImagePathsRepository;
+import com.helios.auctix.repositories.AuctionListingRow;
 import java.util.logging.Logger;
 import com.helios.auctix.repositories.AuctionRepository;
 
 import com.helios.auctix.repositories.chat.ChatRoomRepository;
+import com.helios.auctix.services.bidding.LiveAuctionBook;
 import com.helios.auctix.services.fileUpload.FileUploadResponse;
 import com.helios.auctix.services.fileUpload.FileUploadService;
 import com.helios.auctix.services.fileUpload.FileUploadUseCaseEnum;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.UUID;
 
@@ -35,12 +41,16 @@ public class AuctionService {
     private final AuctionRepository auctionRepository; // Updated repository
     private final AuctionImagePathsRepository auctionImagePathsRepository; // <-- Add this
     private final SellerMapperImpl sellerMapper;
-    private final UserMapperImpl userMapperImpl;
+    private final UserDTOCache userDTOCache;
     private final BidService bidService;
     private final ChatRoomRepository chatRoomRepository;
+    private final LiveAuctionBook liveAuctionBook;
+    private final AuctionLifecycleEngine auctionLifecycleEngine;
     @Autowired
     private FileUploadService uploader;
     private static final Logger log = Logger.getLogger(AuctionService.class.getName());
+    private static final int MAX_LISTING_PAGE_SIZE = 100;
+
     public AuctionDetailsDTO getAuctionDetails(UUID id) {
         Auction auction = auctionRepository.findById(id).orElse(null);
         if (auction == null) return null;
@@ -51,7 +61,7 @@ public class AuctionService {
                 .map(UUID::toString)
                 .collect(Collectors.toList());
 
-       UserDTO sellerDto = userMapperImpl.mapTo(auction.getSeller().getUser());
+       UserDTO sellerDto = userDTOCache.get(auction.getSellerId());
 
         // Fetch bid history and highest bid
         List<BidDTO> bidHistory = bidService.getBidHistoryForAuction(id)
@@ -75,6 +85,7 @@ public class AuctionService {
                 .bidHistory(bidHistory)
                 .currentHighestBid(highestBid)
                 .startingPrice(auction.getStartingPrice())
+                .bidCount(auction.getBidCount() != null ? auction.getBidCount() : 0)
                 .build();
     }
 
@@ -98,6 +109,8 @@ public class AuctionService {
 
         // create a chat-room for the auction and add join the seller to the chat
         createChatRoomForAuction(savedAuction);
+
+        afterCommit(() -> auctionLifecycleEngine.arm(savedAuction));
         return savedAuction;
     }
 
@@ -159,6 +172,87 @@ public class AuctionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * A keyset paginated page of public auctions for the listing pages.
+     * Costs two queries whatever the page size: the auctions with their seller and high bid, then their image ids.
+     *
+     * @param filter active, upcoming, expired or anything else for all auctions
+     * @param cursor the {@code nextCursor} of the previous page, null for the first page
+     */
+    public CursorPageDTO<AuctionListingDTO> getAuctionListing(String filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_LISTING_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LISTING_PAGE_SIZE);
+        }
+
+        Instant now = Instant.now();
+        String listing = filter == null ? "all" : filter.toLowerCase();
+        boolean ascending = listing.equals("upcoming");
+
+        AuctionListingCursor position = cursor == null || cursor.isBlank()
+                ? (ascending ? AuctionListingCursor.BEFORE_ALL : AuctionListingCursor.AFTER_ALL)
+                : AuctionListingCursor.decode(cursor);
+
+        // one extra row tells whether there is a next page
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<AuctionListingRow> rows = switch (listing) {
+            case "active" -> auctionRepository.findActiveListing(now, position.sortTime(), position.auctionId(), page);
+            case "upcoming" -> auctionRepository.findUpcomingListing(now, position.sortTime(), position.auctionId(), page);
+            case "expired" -> auctionRepository.findExpiredListing(
+                    now, now.minus(3, ChronoUnit.DAYS), position.sortTime(), position.auctionId(), page);
+            default -> auctionRepository.findAllListing(position.sortTime(), position.auctionId(), page);
+        };
+
+        boolean hasMore = rows.size() > limit;
+        List<AuctionListingRow> pageRows = hasMore ? rows.subList(0, limit) : rows;
+
+        Map<UUID, List<String>> imageIds = auctionImagePathsRepository
+                .findById_AuctionIdIn(pageRows.stream().map(AuctionListingRow::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(
+                        AuctionImagePath::getAuctionId,
+                        Collectors.mapping(imagePath -> imagePath.getImageId().toString(), Collectors.toList())
+                ));
+
+        String nextCursor = null;
+        if (hasMore) {
+            AuctionListingRow last = pageRows.get(pageRows.size() - 1);
+            Instant sortTime = listing.equals("expired") ? last.endTime() : last.startTime();
+            nextCursor = new AuctionListingCursor(sortTime, last.id()).encode();
+        }
+
+        return CursorPageDTO.<AuctionListingDTO>builder()
+                .items(pageRows.stream()
+                        .map(row -> convertToListingDTO(row, imageIds.getOrDefault(row.id(), List.of())))
+                        .toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private AuctionListingDTO convertToListingDTO(AuctionListingRow row, List<String> imageIds) {
+        AuctionListingSellerDTO seller = AuctionListingSellerDTO.builder()
+                .id(row.sellerId())
+                .username(row.sellerUsername())
+                .firstName(row.sellerFirstName())
+                .lastName(row.sellerLastName())
+                .profilePictureId(row.sellerProfilePhotoId())
+                .build();
+
+        return AuctionListingDTO.builder()
+                .id(row.id())
+                .title(row.title())
+                .category(row.category())
+                .startingPrice(row.startingPrice())
+                .startTime(row.startTime())
+                .endTime(row.endTime())
+                .isPublic(row.isPublic())
+                .images(imageIds)
+                .seller(seller)
+                .currentHighestBid(row.currentHighBid())
+                .currentHighestBidderId(row.currentHighBidderId())
+                .bidCount(row.bidCount() != null ? row.bidCount() : 0)
+                .build();
+    }
+
     // Helper method to convert Auction entity to AuctionDetailsDTO (package private so other services can use)
     public AuctionDetailsDTO convertToDTO(Auction auction) {
         List<String> imageIds = auctionImagePathsRepository.findById_AuctionId(auction.getId())
@@ -167,10 +261,11 @@ public class AuctionService {
                 .map(UUID::toString)
                 .collect(Collectors.toList());
 
-        UserDTO sellerDto = userMapperImpl.mapTo(auction.getSeller().getUser());
+        UserDTO sellerDto = userDTOCache.get(auction.getSellerId());
 
         // For list view, we don't need full bid history, just the highest bid
-        BidDTO highestBid = bidService.getHighestBidForAuction(auction.getId())
+        BidDTO highestBid = auction.getCurrentHighBidId() == null ? null
+                : bidService.getHighestBidForAuction(auction.getId())
                 .map(bidService::convertToDTO)
                 .orElse(null);
 
@@ -186,6 +281,7 @@ public class AuctionService {
 //                .bidHistory(null) // Don't load full history for list view
                 .currentHighestBid(highestBid)
                 .startingPrice(auction.getStartingPrice())
+                .bidCount(auction.getBidCount() != null ? auction.getBidCount() : 0)
                 .build();
     }
 
@@ -317,7 +413,31 @@ public class AuctionService {
         }
 
         auction.setUpdatedAt(Instant.now());
-        return auctionRepository.save(auction);
+        Auction savedAuction = auctionRepository.save(auction);
+
+        // bidding window or starting price may have changed, let the live book reload it and re-arm the deadlines
+        afterCommit(() -> {
+            liveAuctionBook.evict(auctionId);
+            auctionLifecycleEngine.arm(savedAuction);
+        });
+        return savedAuction;
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits, right away when there is none,
+     * so the live book is not reloaded and no timer fires from changes that are still uncommitted or rolled back.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
@@ -338,6 +458,7 @@ public class AuctionService {
 
             // Here you would typically send a notification to admin
             // notificationService.notifyAdminForDeletionApproval(auction);
+            afterCommit(() -> liveAuctionBook.evict(auctionId));
 
             return "Auction deletion request submitted for admin approval. Auction has been unlisted.";
         } else {
@@ -347,6 +468,7 @@ public class AuctionService {
             auction.setDeletionStatus("DELETED");
             auction.setUpdatedAt(Instant.now());
             auctionRepository.save(auction);
+            afterCommit(() -> liveAuctionBook.evict(auctionId));
 
             return "Auction deleted successfully";
         }
@@ -479,13 +601,9 @@ public class AuctionService {
         Instant now = Instant.now();
         String status = determineAuctionStatus(auction, now);
 
-        // Get current bid count and highest bid
-        int bidCount = bidService.getBidCountForAuction(auction.getId());
-        BidDTO highestBid = bidService.getHighestBidForAuction(auction.getId())
-                .map(bidService::convertToDTO)
-                .orElse(null);
-
-        double currentBid = (highestBid != null) ? highestBid.getAmount() : auction.getStartingPrice();
+        // Get current bid count and highest bid from the aggregates kept on the auction row
+        int bidCount = auction.getBidCount() != null ? auction.getBidCount() : 0;
+        double currentBid = (auction.getCurrentHighBid() != null) ? auction.getCurrentHighBid() : auction.getStartingPrice();
 
         return SellerAuctionDTO.builder()
                 .id(auction.getId().toString())
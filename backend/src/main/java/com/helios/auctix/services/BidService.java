@@ -4,22 +4,23 @@ import com.helios.auctix.domain.auction.Auction;
 import com.helios.auctix.domain.auction.Bid;
 import com.helios.auctix.domain.notification.NotificationCategory;
 import com.helios.auctix.domain.user.User;
-import com.helios.auctix.dtos.BidUpdateMessageDTO;
-import com.helios.auctix.events.notification.NotificationEventPublisher;
-import com.helios.auctix.services.user.UserDetailsService;
+import com.helios.auctix.services.bidding.AuctionBook;
+import com.helios.auctix.services.bidding.BidBroadcaster;
+import com.helios.auctix.services.bidding.LiveAuctionBook;
+import com.helios.auctix.services.bidding.LiveBid;
+import com.helios.auctix.services.bidding.StaleAuctionBookException;
+import com.helios.auctix.services.outbox.NotificationOutbox;
+import com.helios.auctix.services.user.UserDTOCache;
 import com.helios.auctix.dtos.BidDTO;
 import com.helios.auctix.dtos.PlaceBidRequest;
 import com.helios.auctix.dtos.UserDTO;
-import com.helios.auctix.mappers.impl.UserMapperImpl;
+import com.helios.auctix.mappers.impl.LiveBidMapperImpl;
 import com.helios.auctix.repositories.AuctionRepository;
 import com.helios.auctix.repositories.BidRepository;
-import com.helios.auctix.repositories.UserRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -36,33 +37,29 @@ public class BidService {
     private final BidRepository bidRepository;
     private final AuctionRepository auctionRepository;
     private final CoinTransactionService transactionService;
-    private final UserDetailsService userDetailsService;
     private static final Logger log = Logger.getLogger(BidService.class.getName());
-    private final UserMapperImpl userMapperImpl;
-    private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final NotificationEventPublisher notificationEventPublisher;
-    private final WatchListNotifyService watchListNotifyService;
+    private final UserDTOCache userDTOCache;
+    private final NotificationOutbox notificationOutbox;
+    private final LiveAuctionBook liveAuctionBook;
+    private final LiveBidMapperImpl liveBidMapper;
+    private final BidBroadcaster bidBroadcaster;
+
+    private static final int BID_HISTORY_SIZE = 10;
 
     // Get bid history for an auction
     public List<Bid> getBidHistoryForAuction(UUID auctionId) {
-        return bidRepository.findByAuctionIdOrderByBidTimeDesc(auctionId)
-                .stream()
-                .limit(10)
-                .toList();
+        return bidRepository.findByAuctionIdOrderByBidTimeDesc(auctionId, PageRequest.of(0, BID_HISTORY_SIZE));
     }
 
     // Get the highest bid for an auction
     public Optional<Bid> getHighestBidForAuction(UUID auctionId) {
-        return bidRepository.findTopByAuctionIdOrderByAmountDesc(auctionId);
+        return bidRepository.findCurrentHighestByAuctionId(auctionId);
     }
 
     // Add this method to get bidder details
     public BidDTO convertToDTO(Bid bid) {
 
-        User bidder = userRepository.findById(bid.getBidderId()).orElse(null);
-
-        UserDTO bidderDto = userMapperImpl.mapTo(bidder);
+        UserDTO bidderDto = userDTOCache.get(bid.getBidderId());
 
 
         return BidDTO.builder()
@@ -79,13 +76,22 @@ public class BidService {
                 .build();
     }
 
-    // Method for placing a new bid
+    // Same as above but for the snapshots kept in the live auction book
+    public BidDTO convertToDTO(LiveBid bid) {
+        return liveBidMapper.mapTo(bid);
+    }
+
+    /**
+     * Places a new bid.
+     *
+     * @throws StaleAuctionBookException if another node changed the highest bid, nothing is kept then and the bid can be placed again
+     */
     @Transactional
     public BidDTO placeBid(PlaceBidRequest request, User bidder) {
 
         UUID auctionId = request.getAuctionId();
         Double amount = request.getAmount();
-        List<User> excludedFromWatchlistNotify = new ArrayList<>();
+        List<UUID> excludedFromWatchlistNotify = new ArrayList<>();
 
         UUID bidderId = bidder.getId();
         String bidderName = bidder.getFirstName() + " " + bidder.getLastName();
@@ -95,100 +101,35 @@ public class BidService {
         }
 
 
-        // Find the auction given through request
-        Auction auction = auctionRepository.findById(auctionId)
+        // Find the auction given through request, the live book only hits the DB the first time
+        AuctionBook book = liveAuctionBook.getOrLoad(auctionId)
                 .orElseThrow(() -> new IllegalArgumentException("Auction not found"));
 
         // Check if auction is active
         Instant now = Instant.now();
-        if (now.isBefore(auction.getStartTime()) || now.isAfter(auction.getEndTime())) {
+        if (!book.isActiveAt(now)) {
             throw new IllegalStateException("Auction is not active");
         }
 
-        // Set bidTime server-side
-        Instant bidTime = Instant.now(); // 🚀 Always use server time
-
         // Check if bid amount is valid
-        Optional<Bid> highestBid = getHighestBidForAuction(auctionId);
+        Optional<LiveBid> highestBid = book.getHighestBid();
         log.info("Highest bid: " + (highestBid.isPresent() ? highestBid.get().getAmount() : "none"));
 
-        // If there's a previous highest bid by this user, unfreeze it first
-        highestBid.ifPresent(bid -> {
-            if (bid.getBidderId().equals(bidderId)) {
-                log.info("User is outbidding themselves. Unfreezing previous bid of " + bid.getAmount());
-                try {
-                    transactionService.unfreezeAmount(
-                            bidderId,
-                            bid.getAmount(),
-                            "Outbidding own bid on auction " + auctionId
-                    );
-                } catch (Exception e) {
-                    log.severe("Failed to unfreeze previous bid: " + e.getMessage());
-                    throw new IllegalStateException("Failed to unfreeze previous bid: " + e.getMessage());
-                }
-            }
-        });
-
         if (highestBid.isPresent()) {
             if (amount <= highestBid.get().getAmount()) {
                 log.warning("Bid too low: " + amount + " <= " + highestBid.get().getAmount());
                 throw new IllegalArgumentException("Bid amount must be higher than current highest bid");
             }
-
-            // If a different user previously had the highest bid, unfreeze their amount
-            if (!highestBid.get().getBidderId().equals(bidderId)) {
-                log.info("Outbidding user " + highestBid.get().getBidderId() + ". Unfreezing their bid of " + highestBid.get().getAmount());
-                try {
-                    transactionService.unfreezeAmount(
-                            highestBid.get().getBidderId(),
-                            highestBid.get().getAmount(),
-                            "Outbid on auction " + auctionId
-                    );
-
-
-                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                        @Override
-                        public void afterCommit() {
-                            String title = "You've been outbid";
-                            String message = "Your bid of LKR " +
-                                    highestBid.get().getAmount()  + " on auction " +
-                                    auction.getTitle() + " was outbid by a user placing a bid of LKR" + amount + " ! " +
-                                    "Reclaim the highest bid to secure the win!" ;
-                            User userToNotify = userDetailsService.getUserById(highestBid.get().getBidderId());
-                            excludedFromWatchlistNotify.add(userToNotify);
-                            notificationEventPublisher.publishNotificationEvent(
-                                    title,
-                                    message,
-                                    NotificationCategory.OUTBID,
-                                    userToNotify,
-                                    "/auctions/" + auction.getId()
-                            );
-                        }
-                    });
-
-                } catch (Exception e) {
-                    log.severe("Failed to unfreeze previous bidder's funds: " + e.getMessage());
-                    throw new IllegalStateException("Failed to unfreeze previous bidder's funds: " + e.getMessage());
-                }
-            }
         } else {
             // No bids yet, check against starting price
-            if (amount < auction.getStartingPrice()) {
-                log.warning("Bid below starting price: " + amount + " < " + auction.getStartingPrice());
+            if (amount < book.getStartingPrice()) {
+                log.warning("Bid below starting price: " + amount + " < " + book.getStartingPrice());
                 throw new IllegalArgumentException("Bid amount must be at least the starting price");
             }
         }
 
-        // Freeze the bid amount in the user's wallet
-        try {
-            log.info("Freezing " + amount + " for bid");
-            transactionService.freezeAmount(amount, auctionId);
-        } catch (Exception e) {
-            log.severe("Failed to freeze funds: " + e.getMessage());
-            throw new IllegalStateException("Failed to freeze funds: " + e.getMessage());
-        }
-
-        // Create and save the bid
+        // Create and save the bid, a reference is enough for the foreign key so no need to load the auction
+        Auction auction = auctionRepository.getReferenceById(auctionId);
         Bid bid = Bid.builder()
                 .auction(auction)
                 .bidderId(bidderId)
@@ -198,53 +139,88 @@ public class BidService {
                 .bidTime(now)
                 .build();
 
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-                String title = "New bid placed on auction " + auction.getTitle() ;
-                String message = "A bidder has placed a bid of " + bid.getAmount() + " on the auction " + auction.getTitle()  + "check it out on AuctiX" ;
-
-                // notify seller
-                notificationEventPublisher.publishNotificationEvent(
-                        title,
-                        message,
-                        NotificationCategory.NEW_BID_RECEIVED_SELLER,
-                        auction.getSeller().getUser(),
-                        "/auctions/" + auction.getId()
-                );
-
-                // notify watchlist users
-                excludedFromWatchlistNotify.add(bidder);
-
-                
-                watchListNotifyService.notifySubscribers(
-                        auction,
-                        excludedFromWatchlistNotify,
-                        title,
-                        message,
-                        NotificationCategory.NEW_BID_RECEIVED_WATCHER,
-                        "/auctions/" + auction.getId()
-                );
-
-            }
-        });
-
         Bid savedBid = bidRepository.save(bid);
 
-        BidDTO bidDTO = convertToDTO(savedBid);
-        List<BidDTO> history = getBidHistoryForAuction(auctionId).stream()
-                .map(this::convertToDTO)
-                .toList();
+        // The book decides for this node, the conditional update is the final word when other nodes take bids too.
+        // It only replaces the highest bid this node knows of, so the funds released below are the real previous bidder's
+        LiveBid previous = highestBid.orElse(null);
+        int placed = auctionRepository.tryPlaceHighBid(auctionId, savedBid.getId(), bidderId, amount, now,
+                previous != null ? previous.getId() : null);
+        if (placed == 0) {
+            log.warning("Bid rejected by conditional update, highest bid changed concurrently on auction " + auctionId);
+            liveAuctionBook.evict(auctionId);
+            throw new StaleAuctionBookException(auctionId);
+        }
 
-        BidUpdateMessageDTO message = BidUpdateMessageDTO.builder()
-                .auctionId(auctionId)
-                .newBid(bidDTO)
-                .bidHistory(history)
-                .build();
+        // If a different user previously had the highest bid, let them know once their funds are released
+        if (previous != null && !previous.getBidderId().equals(bidderId)) {
+            String title = "You've been outbid";
+            String message = "Your bid of LKR " +
+                    previous.getAmount()  + " on auction " +
+                    book.getTitle() + " was outbid by a user placing a bid of LKR" + amount + " ! " +
+                    "Reclaim the highest bid to secure the win!" ;
+            excludedFromWatchlistNotify.add(previous.getBidderId());
+            notificationOutbox.notifyUser(
+                    title,
+                    message,
+                    NotificationCategory.OUTBID,
+                    previous.getBidderId(),
+                    "/auctions/" + auctionId
+            );
+        }
 
-        // Send to WebSocket topic
-        messagingTemplate.convertAndSend("/topic/auction/" + auctionId, message);
+        // Release the previous highest bid (the bidder's own one too) and freeze this one in a single ledger batch
+        try {
+            String releaseReason = previous != null && previous.getBidderId().equals(bidderId)
+                    ? "Outbidding own bid on auction " + auctionId
+                    : "Outbid on auction " + auctionId;
+
+            transactionService.moveBidHold(
+                    previous != null ? previous.getBidderId() : null,
+                    previous != null ? previous.getAmount() : null,
+                    releaseReason,
+                    bidderId,
+                    amount,
+                    auctionId
+            );
+        } catch (Exception e) {
+            log.severe("Failed to freeze funds: " + e.getMessage());
+            throw new IllegalStateException("Failed to freeze funds: " + e.getMessage());
+        }
 
+        // delivered by the outbox relay once this commits
+        String title = "New bid placed on auction " + book.getTitle() ;
+        String message = "A bidder has placed a bid of " + bid.getAmount() + " on the auction " + book.getTitle()  + "check it out on AuctiX" ;
+
+        // notify seller
+        notificationOutbox.notifyUser(
+                title,
+                message,
+                NotificationCategory.NEW_BID_RECEIVED_SELLER,
+                book.getSellerId(),
+                "/auctions/" + auctionId
+        );
+
+        // notify watchlist users
+        excludedFromWatchlistNotify.add(bidderId);
+
+        notificationOutbox.notifyWatchers(
+                auctionId,
+                excludedFromWatchlistNotify,
+                title,
+                message,
+                NotificationCategory.NEW_BID_RECEIVED_WATCHER,
+                "/auctions/" + auctionId
+        );
+
+        // read the count before the book records this bid, lanes place one bid of an auction at a time
+        long sequence = book.getBidCount() + 1;
+        LiveBid liveBid = liveAuctionBook.recordAfterCommit(savedBid, book);
+
+        // subscribers get the bid from the broadcaster after commit, off this thread
+        bidBroadcaster.publishAfterCommit(liveBid, sequence);
+
+        BidDTO bidDTO = convertToDTO(liveBid);
 
         return bidDTO;
 
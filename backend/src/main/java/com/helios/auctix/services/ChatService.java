@@ -38,6 +38,11 @@ public class ChatService {
 
     @Transactional
     public boolean joinChatRoom (User user, UUID auctionId) {
+        return joinChatRoom(user.getId(), auctionId);
+    }
+
+    @Transactional
+    public boolean joinChatRoom (UUID userId, UUID auctionId) {
 
         Optional<ChatRoom> chatRoomOpt = this.chatRoomRepository.findChatRoomByAuctionId(auctionId);
         ChatRoom chatRoom;
@@ -50,9 +55,9 @@ public class ChatService {
         }
         // Directly insert the user into the chat room participants table. No need to check if user is present in the table
         // "ON CONFLICT DO NOTHING" in the query means if the user is already in the chat room, the insert is ignored.
-        chatRoomRepository.addUserToChatRoom(chatRoom.getId(), user.getId());
+        chatRoomRepository.addUserToChatRoom(chatRoom.getId(), userId);
 
-        log.info("User" + user.getId() + " entered the chat room" + chatRoom.getId());
+        log.info("User" + userId + " entered the chat room" + chatRoom.getId());
 
         return true;
     }
@@ -4,29 +4,33 @@ import com.helios.auctix.domain.notification.NotificationCategory;
 import com.helios.auctix.domain.transaction.Transaction;
 import com.helios.auctix.domain.transaction.Wallet;
 import com.helios.auctix.domain.user.User;
+import com.helios.auctix.dtos.CursorPageDTO;
 import com.helios.auctix.dtos.TransactionResponseDTO;
-import com.helios.auctix.events.notification.NotificationEventPublisher;
 import com.helios.auctix.repositories.TransactionRepository;
 import com.helios.auctix.repositories.UserRepository;
 import com.helios.auctix.repositories.WalletRepository;
+import com.helios.auctix.services.outbox.NotificationOutbox;
 import com.helios.auctix.services.user.UserDetailsService;
+import com.helios.auctix.services.wallet.LedgerEntry;
+import com.helios.auctix.services.wallet.LedgerPosting;
+import com.helios.auctix.services.wallet.TransactionCursor;
+import com.helios.auctix.services.wallet.WalletLedger;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.support.TransactionSynchronization;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import java.util.logging.Logger;
 
+@Slf4j
 @Service
 public class CoinTransactionService {
 
@@ -34,8 +38,10 @@ public class CoinTransactionService {
     private final WalletRepository walletRepository;
     private final UserRepository userRepository;
     private final UserDetailsService userDetailsService;
-    private final NotificationEventPublisher notificationEventPublisher;
-    private static final Logger log = Logger.getLogger(CoinTransactionService.class.getName());
+    private final NotificationOutbox notificationOutbox;
+    private final WalletLedger walletLedger;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     @Autowired
     public CoinTransactionService(
@@ -43,12 +49,14 @@ public class CoinTransactionService {
             WalletRepository walletRepository,
             UserRepository userRepository,
             UserDetailsService userDetailsService,
-            NotificationEventPublisher notificationEventPublisher) {
+            NotificationOutbox notificationOutbox,
+            WalletLedger walletLedger) {
         this.transactionRepository = transactionRepository;
         this.walletRepository = walletRepository;
         this.userRepository = userRepository;
         this.userDetailsService = userDetailsService;
-        this.notificationEventPublisher = notificationEventPublisher;
+        this.notificationOutbox = notificationOutbox;
+        this.walletLedger = walletLedger;
     }
 
     @Transactional
@@ -90,7 +98,7 @@ public class CoinTransactionService {
                     .build();
         } catch (Exception e) {
             // Log the error for debugging
-            log.severe("Error creating wallet: " + e.getMessage());
+            log.error("Error creating wallet: {}", e.getMessage());
             e.printStackTrace();
             // Rethrow the exception
             throw e;
@@ -106,54 +114,21 @@ public class CoinTransactionService {
             throw new IllegalArgumentException("Recharge amount must be greater than zero");
         }
 
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found, please create one first"));
-
-        // Add funds to wallet
-        wallet.setAmount(wallet.getAmount().add(amount));
-        wallet.setUpdatedAt(LocalDateTime.now());
-        wallet = walletRepository.save(wallet);
-
-        // Create transaction record
-        Transaction transaction = Transaction.builder()
-                .id(UUID.randomUUID())
-                .wallet(wallet)
-                .transactionDate(LocalDateTime.now())
-                .status("CREDITED")
-                .amount(amount)
-                .description("Wallet recharge")
-                .build();
-
-        transaction = transactionRepository.save(transaction);
-
-
-        Transaction finalTransaction = transaction;
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-                String title = "Wallet Recharged Successfully!";
-                String message = "Your wallet was successfully credited with " + finalTransaction.getAmount() +
-                        " at " + finalTransaction.getTransactionDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
-                        + ". Description: " + finalTransaction.getDescription();
-                notificationEventPublisher.publishNotificationEvent(
-                        title,
-                        message,
-                        NotificationCategory.WALLET_RECHARGE_SUCCESS,
-                        currentUser,
-                        null
-                );
-            }
-        });
-
-        return TransactionResponseDTO.builder()
-                .id(transaction.getId())
-                .walletId(wallet.getId())
-                .userId(wallet.getUserId())
-                .amount(transaction.getAmount())
-                .status(transaction.getStatus())
-                .description(transaction.getDescription())
-                .transactionDate(transaction.getTransactionDate())
-                .build();
+        LedgerPosting posting = walletLedger.post(LedgerEntry.credit(userId, amount, "Wallet recharge"));
+
+        String title = "Wallet Recharged Successfully!";
+        String message = "Your wallet was successfully credited with " + posting.transactionAmount() +
+                " at " + posting.transactionDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
+                + ". Description: " + posting.description();
+        notificationOutbox.notifyUser(
+                title,
+                message,
+                NotificationCategory.WALLET_RECHARGE_SUCCESS,
+                userId,
+                null
+        );
+
+        return mapToDTO(posting, false);
     }
 
     @Transactional
@@ -165,111 +140,65 @@ public class CoinTransactionService {
             throw new IllegalArgumentException("Withdrawal amount must be greater than zero");
         }
 
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found, please create one first"));
-
-        // Check if user has sufficient funds
-        if (wallet.getAmount().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds for withdrawal");
-        }
-
-        // Deduct funds from wallet
-        wallet.setAmount(wallet.getAmount().subtract(amount));
-        wallet.setUpdatedAt(LocalDateTime.now());
-        wallet = walletRepository.save(wallet);
-
         // Create description with bank details
         String description = "Funds withdrawal to " + bankName + " account ending with " +
                 (accountNumber != null ? accountNumber.substring(Math.max(0, accountNumber.length() - 4)) : "");
 
-        // Create transaction record
-        Transaction transaction = Transaction.builder()
-                .id(UUID.randomUUID())
-                .wallet(wallet)
-                .transactionDate(LocalDateTime.now())
-                .status("DEBITED")
-                .amount(amount)
-                .description(description)
-                .build();
-
-        transaction = transactionRepository.save(transaction);
-
-        Transaction finalTransaction = transaction;
-        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-                String title = "Wallet withdrawal successful!";
-                String message = "Your wallet was successfully debited with " + finalTransaction.getAmount() +
-                        " at " + finalTransaction.getTransactionDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
-                        + ". Description: " + finalTransaction.getDescription();
-                notificationEventPublisher.publishNotificationEvent(
-                        title,
-                        message,
-                        NotificationCategory.WALLET_WITHDRAWAL_SUCCESS,
-                        currentUser,
-                        null
-                );
-            }
-        });
-
-        return TransactionResponseDTO.builder()
-                .id(transaction.getId())
-                .walletId(wallet.getId())
-                .userId(wallet.getUserId())
-                .amount(transaction.getAmount())
-                .status(transaction.getStatus())
-                .description(transaction.getDescription())
-                .transactionDate(transaction.getTransactionDate())
-                .build();
+        // Only deducted if the wallet holds enough funds
+        LedgerPosting posting = walletLedger.post(LedgerEntry.debit(userId, amount, description));
+
+        String title = "Wallet withdrawal successful!";
+        String message = "Your wallet was successfully debited with " + posting.transactionAmount() +
+                " at " + posting.transactionDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"))
+                + ". Description: " + posting.description();
+        notificationOutbox.notifyUser(
+                title,
+                message,
+                NotificationCategory.WALLET_WITHDRAWAL_SUCCESS,
+                userId,
+                null
+        );
+
+        return mapToDTO(posting, false);
     }
 
     @Transactional
     public TransactionResponseDTO freezeAmount(double freezeAmount, UUID auctionId) {
         User currentUser = getCurrentUser();
-        UUID userId = currentUser.getId();
-
-        log.info("Freezing " + freezeAmount + " for user " + userId + " on auction " + auctionId);
+        return freezeAmount(currentUser.getId(), freezeAmount, auctionId);
+    }
 
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for user ID: " + userId));
+    /**
+     * Freezes amount for a specific user - used by the bid sequencer which runs off the request thread,
+     * so the security context of the bidder is not available there
+     */
+    @Transactional
+    public TransactionResponseDTO freezeAmount(UUID userId, double freezeAmount, UUID auctionId) {
+        log.info("Freezing {} for user {} on auction {}", freezeAmount, userId, auctionId);
 
-        BigDecimal freezeValue = BigDecimal.valueOf(freezeAmount);
+        LedgerPosting posting = walletLedger.post(freezeEntry(userId, freezeAmount, auctionId));
+        return mapToDTO(posting, true);
+    }
 
-        if (wallet.getAmount().compareTo(freezeValue) < 0) {
-            log.warning("Insufficient balance: " + wallet.getAmount() + " < " + freezeValue);
-            throw new IllegalArgumentException("Insufficient wallet balance to freeze the requested amount");
+    /**
+     * Moves the bid hold of an auction in one ledger batch: releases the previous highest bid (if any)
+     * and freezes the new one, so an outbid costs one round trip instead of two read-modify-write cycles.
+     *
+     * @param previousBidderId bidder of the previous highest bid, null if there was none
+     */
+    @Transactional
+    public void moveBidHold(UUID previousBidderId, Double previousAmount, String releaseReason,
+                            UUID bidderId, double amount, UUID auctionId) {
+        List<LedgerEntry> entries = new ArrayList<>(2);
+
+        // released first, so outbidding your own bid can reuse the funds it held
+        if (previousBidderId != null) {
+            entries.add(LedgerEntry.unfreeze(previousBidderId, BigDecimal.valueOf(previousAmount),
+                    "Amount unfrozen: " + releaseReason));
         }
+        entries.add(freezeEntry(bidderId, amount, auctionId));
 
-        // Deduct from available balance and update freeze amount
-        wallet.setAmount(wallet.getAmount().subtract(freezeValue));
-        wallet.setFreezeAmount(wallet.getFreezeAmount().add(freezeValue));
-        wallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(wallet);
-
-        // Create transaction record
-        Transaction transaction = Transaction.builder()
-                .id(UUID.randomUUID())
-                .wallet(wallet)
-                .amount(freezeValue)
-                .status("FREEZED")
-                .transactionDate(LocalDateTime.now())
-                .description("Amount frozen for bid on auction " + auctionId)
-                .build();
-
-        transactionRepository.save(transaction);
-
-        log.info("Successfully froze funds. New wallet balance: " + wallet.getAmount() + ", frozen: " + wallet.getFreezeAmount());
-
-        return TransactionResponseDTO.builder()
-                .id(transaction.getId())
-                .walletId(wallet.getId())
-                .userId(wallet.getUserId())
-                .amount(transaction.getAmount())
-                .freezeAmount(wallet.getFreezeAmount())
-                .status(transaction.getStatus())
-                .description(transaction.getDescription())
-                .transactionDate(transaction.getTransactionDate())
-                .build();
+        walletLedger.post(entries);
     }
 
     /**
@@ -277,171 +206,85 @@ public class CoinTransactionService {
      */
     @Transactional
     public TransactionResponseDTO unfreezeAmount(UUID userId, double unfreezeAmount, String reason) {
-        log.info("Unfreezing " + unfreezeAmount + " for user " + userId + " reason: " + reason);
-
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for user ID: " + userId));
-
-        BigDecimal unfreezeValue = BigDecimal.valueOf(unfreezeAmount);
-
-        if (wallet.getFreezeAmount().compareTo(unfreezeValue) < 0) {
-            log.warning("Cannot unfreeze: " + wallet.getFreezeAmount() + " < " + unfreezeValue);
-            throw new IllegalArgumentException("Cannot unfreeze more than the frozen amount");
-        }
-
-        // Return funds from frozen amount to available balance
-        wallet.setFreezeAmount(wallet.getFreezeAmount().subtract(unfreezeValue));
-        wallet.setAmount(wallet.getAmount().add(unfreezeValue));
-        wallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(wallet);
+        log.info("Unfreezing {} for user {} reason: {}", unfreezeAmount, userId, reason);
 
-        // Create transaction record
-        Transaction transaction = Transaction.builder()
-                .id(UUID.randomUUID())
-                .wallet(wallet)
-                .amount(unfreezeValue)
-                .status("UNFREEZED")
-                .transactionDate(LocalDateTime.now())
-                .description("Amount unfrozen: " + reason)
-                .build();
-
-        transactionRepository.save(transaction);
-
-        log.info("Successfully unfroze funds. New wallet balance: " + wallet.getAmount() + ", frozen: " + wallet.getFreezeAmount());
-
-        return TransactionResponseDTO.builder()
-                .id(transaction.getId())
-                .walletId(wallet.getId())
-                .userId(wallet.getUserId())
-                .amount(transaction.getAmount())
-                .freezeAmount(wallet.getFreezeAmount())
-                .status(transaction.getStatus())
-                .description(transaction.getDescription())
-                .transactionDate(transaction.getTransactionDate())
-                .build();
+        LedgerPosting posting = walletLedger.post(
+                LedgerEntry.unfreeze(userId, BigDecimal.valueOf(unfreezeAmount), "Amount unfrozen: " + reason));
+        return mapToDTO(posting, true);
     }
 
     @Transactional
     public TransactionResponseDTO completeBidTransaction(UUID userId, UUID auctionId, double amount) {
-        log.info("Completing transaction for " + amount + " for user " + userId + " on auction " + auctionId);
-
-        Wallet wallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for user ID: " + userId));
+        log.info("Completing transaction for {} for user {} on auction {}", amount, userId, auctionId);
 
-        BigDecimal transactionAmount = BigDecimal.valueOf(amount);
-
-        // Verify frozen amount covers the transaction
-        if (wallet.getFreezeAmount().compareTo(transactionAmount) < 0) {
-            log.warning("Insufficient frozen funds: " + wallet.getFreezeAmount() + " < " + transactionAmount);
-            throw new IllegalArgumentException("Insufficient frozen funds to complete transaction");
-        }
-
-        // Reduce frozen amount (funds are now considered spent)
-        wallet.setFreezeAmount(wallet.getFreezeAmount().subtract(transactionAmount));
-        wallet.setUpdatedAt(LocalDateTime.now());
-        walletRepository.save(wallet);
-
-        // Create transaction record
-        Transaction transaction = Transaction.builder()
-                .id(UUID.randomUUID())
-                .wallet(wallet)
-                .amount(transactionAmount)
-                .status("COMPLETED")
-                .transactionDate(LocalDateTime.now())
-                .description("Auction completed: " + auctionId)
-                .build();
-
-        transactionRepository.save(transaction);
-
-        log.info("Successfully completed transaction. New frozen balance: " + wallet.getFreezeAmount());
-
-        return TransactionResponseDTO.builder()
-                .id(transaction.getId())
-                .walletId(wallet.getId())
-                .userId(wallet.getUserId())
-                .amount(transaction.getAmount())
-                .freezeAmount(wallet.getFreezeAmount())
-                .status(transaction.getStatus())
-                .description(transaction.getDescription())
-                .transactionDate(transaction.getTransactionDate())
-                .build();
+        LedgerPosting posting = walletLedger.post(spendFrozenEntry(userId, auctionId, amount));
+        return mapToDTO(posting, true);
     }
 
     @Transactional
     public TransactionResponseDTO creditSellerForAuction(UUID sellerId, UUID auctionId, double amount) {
-        log.info("Crediting seller " + sellerId + " with " + amount + " for auction " + auctionId);
+        log.info("Crediting seller {} with {} for auction {}", sellerId, amount, auctionId);
 
-        try {
-            // Find seller's wallet or create one if it doesn't exist
-            Optional<Wallet> existingWallet = walletRepository.findByUserId(sellerId);
-            Wallet wallet;
-
-            if (existingWallet.isPresent()) {
-                wallet = existingWallet.get();
-            } else {
-                // Create a new wallet for seller
-                log.info("Creating wallet for seller " + sellerId);
-                wallet = Wallet.builder()
-                        .id(UUID.randomUUID())
-                        .userId(sellerId)
-                        .amount(BigDecimal.ZERO)
-                        .freezeAmount(BigDecimal.ZERO)
-                        .transactionType("INITIAL")
-                        .createdAt(LocalDateTime.now())
-                        .updatedAt(LocalDateTime.now())
-                        .build();
-
-                wallet = walletRepository.save(wallet);
-            }
+        ensureWallet(sellerId);
+        LedgerPosting posting = walletLedger.post(creditSellerEntry(sellerId, auctionId, amount));
+        return mapToDTO(posting, false);
+    }
 
-            BigDecimal creditAmount = BigDecimal.valueOf(amount);
+    /**
+     * Pays out a completed auction in one ledger batch: spends the winner's frozen funds and credits the seller.
+     */
+    @Transactional
+    public void settleAuctionPayment(UUID bidderId, UUID sellerId, UUID auctionId, double amount) {
+        log.info("Settling auction {}: {} from bidder {} to seller {}", auctionId, amount, bidderId, sellerId);
+
+        ensureWallet(sellerId);
+        walletLedger.post(List.of(
+                spendFrozenEntry(bidderId, auctionId, amount),
+                creditSellerEntry(sellerId, auctionId, amount)
+        ));
+    }
 
-            // Credit the seller's wallet
-            wallet.setAmount(wallet.getAmount().add(creditAmount));
-            wallet.setUpdatedAt(LocalDateTime.now());
-            wallet = walletRepository.save(wallet);
+    private LedgerEntry freezeEntry(UUID userId, double amount, UUID auctionId) {
+        return LedgerEntry.freeze(userId, BigDecimal.valueOf(amount), "Amount frozen for bid on auction " + auctionId);
+    }
 
-            // Create transaction record
-            Transaction transaction = Transaction.builder()
-                    .id(UUID.randomUUID())
-                    .wallet(wallet)
-                    .amount(creditAmount)
-                    .status("CREDITED")
-                    .transactionDate(LocalDateTime.now())
-                    .description("Payment received for auction: " + auctionId)
-                    .build();
+    private LedgerEntry spendFrozenEntry(UUID userId, UUID auctionId, double amount) {
+        return LedgerEntry.spendFrozen(userId, BigDecimal.valueOf(amount), "Auction completed: " + auctionId);
+    }
 
-            transaction = transactionRepository.save(transaction);
+    private LedgerEntry creditSellerEntry(UUID sellerId, UUID auctionId, double amount) {
+        return LedgerEntry.credit(sellerId, BigDecimal.valueOf(amount), "Payment received for auction: " + auctionId);
+    }
 
-            log.info("Successfully credited seller. New balance: " + wallet.getAmount());
+    // Sellers may never have opened a wallet, create an empty one so the payment can be credited
+    private void ensureWallet(UUID userId) {
+        if (walletRepository.existsByUserId(userId)) {
+            return;
+        }
 
-            return TransactionResponseDTO.builder()
-                    .id(transaction.getId())
-                    .walletId(wallet.getId())
-                    .userId(wallet.getUserId())
-                    .amount(transaction.getAmount())
-                    .status(transaction.getStatus())
-                    .description(transaction.getDescription())
-                    .transactionDate(transaction.getTransactionDate())
-                    .build();
+        log.info("Creating wallet for user {}", userId);
+        Wallet wallet = Wallet.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .amount(BigDecimal.ZERO)
+                .freezeAmount(BigDecimal.ZERO)
+                .transactionType("INITIAL")
+                .build();
 
-        } catch (Exception e) {
-            log.severe("Error crediting seller wallet: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+        // flushed so the ledger's plain SQL sees it
+        walletRepository.saveAndFlush(wallet);
     }
 
     @Transactional
     public TransactionResponseDTO processTransaction(UUID transactionId) {
-        log.info("Processing transaction: " + transactionId);
+        log.info("Processing transaction: {}", transactionId);
 
         Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
 
         // Check if transaction is already processed
         if ("PROCESSED".equals(transaction.getStatus())) {
-            log.info("Transaction " + transactionId + " is already processed");
+            log.info("Transaction {} is already processed", transactionId);
             return mapToDTO(transaction);
         }
 
@@ -449,25 +292,62 @@ public class CoinTransactionService {
         transaction.setStatus("PROCESSED");
         transaction = transactionRepository.save(transaction);
 
-        log.info("Successfully processed transaction: " + transactionId);
+        log.info("Successfully processed transaction: {}", transactionId);
 
         return mapToDTO(transaction);
     }
 
     @Transactional(readOnly = true)
     public List<TransactionResponseDTO> getTransactionHistory() {
-        User currentUser = getCurrentUser();
-        UUID userId = currentUser.getId();
+        Wallet wallet = getCurrentUserWallet();
 
-        Optional<Wallet> wallet = walletRepository.findByUserId(userId);
-        if (wallet.isEmpty()) {
-            throw new RuntimeException("Wallet not found, please create one first");
+        return transactionRepository.findAllByWalletIdNewestFirst(wallet.getId()).stream()
+                .map(transaction -> mapToDTO(transaction, wallet))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A page of the current user's transactions, newest first, keyset paginated by transaction date and id
+     *
+     * @param cursor the {@code nextCursor} of the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<TransactionResponseDTO> getTransactionHistoryPage(String cursor, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
         }
 
-        return wallet.get().getTransactions().stream()
-                .sorted((a, b) -> b.getTransactionDate().compareTo(a.getTransactionDate()))
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        Wallet wallet = getCurrentUserWallet();
+
+        // one extra row tells whether there is a next page
+        List<Transaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findLatestByWalletId(wallet.getId(), size + 1);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findByWalletIdBefore(
+                    wallet.getId(), position.transactionDate(), position.transactionId(), size + 1);
+        }
+
+        boolean hasMore = transactions.size() > size;
+        List<Transaction> page = hasMore ? transactions.subList(0, size) : transactions;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Transaction last = page.get(page.size() - 1);
+            nextCursor = new TransactionCursor(last.getTransactionDate(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<TransactionResponseDTO>builder()
+                .items(page.stream().map(transaction -> mapToDTO(transaction, wallet)).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private Wallet getCurrentUserWallet() {
+        User currentUser = getCurrentUser();
+        return walletRepository.findByUserId(currentUser.getId())
+                .orElseThrow(() -> new RuntimeException("Wallet not found, please create one first"));
     }
 
     @Transactional(readOnly = true)
@@ -508,6 +388,32 @@ public class CoinTransactionService {
         }
     }
 
+    private TransactionResponseDTO mapToDTO(LedgerPosting posting, boolean includeFreezeAmount) {
+        return TransactionResponseDTO.builder()
+                .id(posting.transactionId())
+                .walletId(posting.walletId())
+                .userId(posting.userId())
+                .amount(posting.transactionAmount())
+                .freezeAmount(includeFreezeAmount ? posting.walletFreezeAmount() : null)
+                .status(posting.status())
+                .description(posting.description())
+                .transactionDate(posting.transactionDate())
+                .build();
+    }
+
+    // the wallet is passed in so mapping a page does not touch the lazy association of each row
+    private TransactionResponseDTO mapToDTO(Transaction transaction, Wallet wallet) {
+        return TransactionResponseDTO.builder()
+                .id(transaction.getId())
+                .walletId(wallet.getId())
+                .userId(wallet.getUserId())
+                .amount(transaction.getAmount())
+                .status(transaction.getStatus())
+                .description(transaction.getDescription())
+                .transactionDate(transaction.getTransactionDate())
+                .build();
+    }
+
     private TransactionResponseDTO mapToDTO(Transaction transaction) {
         if (transaction == null) {
             return null;
@@ -1,9 +1,19 @@
 package com.helios.auctix.services;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.SendFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import jakarta.mail.MessagingException;
@@ -12,24 +22,92 @@ import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-@Async
+/**
+ * Sends the platform emails.
+ * <p>
+ * {@link #sendHtmlEmail} renders the email and puts it on a bounded queue. A pool of {@code workers}
+ * threads takes up to {@code batch-size} queued emails at a time and sends them over one SMTP connection,
+ * at most {@code rate-per-second} emails per second over all workers. Emails that fail for a transient
+ * reason (the connection, not the address) are retried up to {@code max-attempts} times with a doubling backoff.
+ * <p>
+ * The templates are parsed once and kept by Thymeleaf's template cache ({@code spring.thymeleaf.cache}),
+ * each email only renders its variables into the parsed template.
+ */
+@Slf4j
 @Service
 public class EmailService {
 
+    private static final String FROM_ADDRESS = "info@auctix.com";
+
     private final JavaMailSender mailSender;
 
     private final TemplateEngine templateEngine;
 
+    private final BlockingQueue<QueuedEmail> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+
+    // rate limit, the time the next email may go out, shared by the workers
+    private final long nanosPerEmail;
+    private long nextSendAt = System.nanoTime();
+
+    private volatile boolean running = true;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
 
-    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine) {
+    public EmailService(
+            JavaMailSender mailSender,
+            TemplateEngine templateEngine,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${auctix.email.workers:2}") int workerCount,
+            @Value("${auctix.email.queue-capacity:5000}") int queueCapacity,
+            @Value("${auctix.email.batch-size:50}") int batchSize,
+            @Value("${auctix.email.rate-per-second:20}") double ratePerSecond,
+            @Value("${auctix.email.max-attempts:3}") int maxAttempts,
+            @Value("${auctix.email.initial-backoff-ms:1000}") long initialBackoffMillis
+    ) {
         this.mailSender = mailSender;
         this.templateEngine = templateEngine;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.nanosPerEmail = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.sentCounter = registry != null ? Counter.builder("email.sent").description("Emails accepted by the SMTP server").register(registry) : null;
+        this.failedCounter = registry != null ? Counter.builder("email.failed").description("Emails given up on").register(registry) : null;
+        this.batchTimer = registry != null ? Timer.builder("email.batch").description("Sending a batch of emails over one SMTP connection").register(registry) : null;
+
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (int i = 1; i <= workerCount; i++) {
+            Thread worker = new Thread(this::work, "email-sender-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
     }
 
     @Deprecated
-    @Async
     public void sendSimpleEmail(String toEmail, String subject, String body) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(toEmail);
@@ -40,7 +118,9 @@ public class EmailService {
         mailSender.send(message);
     }
 
-    @Async
+    /**
+     * Renders the template and queues the email, waiting while the queue is full.
+     */
     public void sendHtmlEmail(String toEmail, String subject, String templateName, Map<String, Object> variables) throws MessagingException {
         Context context = new Context();
         context.setVariables(variables);
@@ -51,11 +131,144 @@ public class EmailService {
         MimeMessageHelper helper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED, StandardCharsets.UTF_8.name());
 
         helper.setTo(toEmail);
-        helper.setFrom("info@auctix.com");
+        helper.setFrom(FROM_ADDRESS);
         helper.setSubject(subject);
         helper.setText(htmlContent, true);
 
-        mailSender.send(message);
+        if (!running) {
+            throw new MailSendException("Email service is shutting down, not sending to " + toEmail);
+        }
+        try {
+            queue.put(new QueuedEmail(message, toEmail, 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while queueing email to " + toEmail, e);
+        }
+    }
+
+    /**
+     * Emails waiting to be sent.
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    private void work() {
+        List<QueuedEmail> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                QueuedEmail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                awaitRate(batch.size());
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected exception while sending {} emails: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
     }
 
+    private void sendBatch(List<QueuedEmail> batch) {
+        MimeMessage[] messages = batch.stream().map(QueuedEmail::message).toArray(MimeMessage[]::new);
+        long start = System.nanoTime();
+        try {
+            // JavaMailSender sends all the messages of one call over a single Transport
+            mailSender.send(messages);
+            count(sentCounter, batch.size());
+        } catch (MailSendException e) {
+            // the messages missing from the failed ones went through
+            Map<Object, Exception> failed = e.getFailedMessages();
+            count(sentCounter, batch.size() - failed.size());
+            for (QueuedEmail email : batch) {
+                Exception cause = failed.get(email.message());
+                if (cause != null) {
+                    retryOrGiveUp(email, cause);
+                }
+            }
+        } catch (MailAuthenticationException e) {
+            // the same credentials will fail again, no point retrying
+            log.error("SMTP authentication failed, dropping {} emails: {}", batch.size(), e.getMessage());
+            count(failedCounter, batch.size());
+        } catch (MailException e) {
+            batch.forEach(email -> retryOrGiveUp(email, e));
+        } finally {
+            if (batchTimer != null) {
+                batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void retryOrGiveUp(QueuedEmail email, Exception cause) {
+        // a rejected address will be rejected again
+        boolean transientFailure = !(cause instanceof SendFailedException);
+        if (!transientFailure || email.attempt() >= maxAttempts || !running) {
+            log.error("Failed to send email to {} after {} attempts: {}", email.toEmail(), email.attempt(), cause.getMessage());
+            count(failedCounter, 1);
+            return;
+        }
+
+        long backoff = initialBackoffMillis << (email.attempt() - 1);
+        log.warn("Failed to send email to {}, retrying in {} ms: {}", email.toEmail(), backoff, cause.getMessage());
+        retryScheduler.schedule(() -> {
+            try {
+                queue.put(new QueuedEmail(email.message(), email.toEmail(), email.attempt() + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, backoff, TimeUnit.MILLISECONDS);
+    }
+
+    // waits until the rate limit allows sending the given number of emails
+    private void awaitRate(int emails) throws InterruptedException {
+        if (nanosPerEmail == 0) {
+            return;
+        }
+        long sendAt;
+        synchronized (this) {
+            long now = System.nanoTime();
+            sendAt = Math.max(nextSendAt, now);
+            nextSendAt = sendAt + nanosPerEmail * emails;
+        }
+        long wait = sendAt - System.nanoTime();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private static void count(Counter counter, int amount) {
+        if (counter != null && amount > 0) {
+            counter.increment(amount);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // the workers finish what is queued before they stop
+        running = false;
+        // retries still waiting for their backoff are given up
+        retryScheduler.shutdownNow();
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("{} emails still queued at shutdown", queue.size());
+        }
+    }
+
+    private record QueuedEmail(MimeMessage message, String toEmail, int attempt) {
+    }
 }
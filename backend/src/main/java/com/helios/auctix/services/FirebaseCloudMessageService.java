@@ -9,13 +9,26 @@ import lombok.extern.java.Log;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 @Log
 public class FirebaseCloudMessageService {
 
+    // the most tokens FCM accepts in one multicast message
+    public static final int MAX_MULTICAST_TOKENS = 500;
+
+    // error codes meaning the token will never work again
+    private static final Set<MessagingErrorCode> DEAD_TOKEN_ERRORS = Set.of(
+            MessagingErrorCode.UNREGISTERED,
+            MessagingErrorCode.SENDER_ID_MISMATCH
+    );
+
     private final UserFCMTokenRepository tokenRepository;
 
     public FirebaseCloudMessageService(UserFCMTokenRepository tokenRepository) {
@@ -59,6 +72,77 @@ public class FirebaseCloudMessageService {
         }
     }
 
+    /**
+     * Sends the same notification to up to {@link #MAX_MULTICAST_TOKENS} tokens with one multicast call.
+     *
+     * @return the tokens FCM reported as no longer registered, to be deactivated
+     */
+    public List<String> sendMulticast(List<String> tokens, String title, String body, String fullUrl) {
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        if (tokens.size() > MAX_MULTICAST_TOKENS) {
+            throw new IllegalArgumentException("At most " + MAX_MULTICAST_TOKENS + " tokens per multicast, got " + tokens.size());
+        }
+
+        MulticastMessage.Builder messageBuilder = MulticastMessage.builder()
+                .addAllTokens(tokens)
+                .setNotification(Notification.builder()
+                        .setTitle(title)
+                        .setBody(body)
+                        .build());
+
+        if (fullUrl != null && !fullUrl.isBlank()) {
+            messageBuilder.putData("url", fullUrl);
+        }
+
+        BatchResponse batchResponse;
+        try {
+            batchResponse = FirebaseMessaging.getInstance().sendEachForMulticast(messageBuilder.build());
+        } catch (FirebaseMessagingException e) {
+            log.severe("Error sending FCM multicast to " + tokens.size() + " tokens: " + e.getMessage());
+            return List.of();
+        } catch (Exception e) {
+            log.severe("Error sending FCM multicast: " + e.getMessage());
+            return List.of();
+        }
+
+        // responses are in the order of the tokens
+        List<String> deadTokens = new ArrayList<>();
+        List<SendResponse> responses = batchResponse.getResponses();
+        for (int i = 0; i < responses.size(); i++) {
+            SendResponse response = responses.get(i);
+            if (response.isSuccessful()) {
+                continue;
+            }
+            FirebaseMessagingException e = response.getException();
+            if (e != null && DEAD_TOKEN_ERRORS.contains(e.getMessagingErrorCode())) {
+                deadTokens.add(tokens.get(i));
+            } else {
+                log.warning("Error sending FCM message: " + (e != null ? e.getMessage() : "unknown error"));
+            }
+        }
+
+        log.info("FCM multicast sent " + batchResponse.getSuccessCount() + " of " + tokens.size()
+                + " messages, " + deadTokens.size() + " tokens unregistered");
+        return deadTokens;
+    }
+
+    /**
+     * Marks the tokens inactive in one statement, so they are no longer sent to.
+     */
+    @Transactional
+    public int deactivateTokens(Collection<String> tokens) {
+        if (tokens.isEmpty()) {
+            return 0;
+        }
+        return tokenRepository.deactivateByFcmTokenIn(tokens);
+    }
+
+    public List<String> getActiveFCMTokensForUsers(Collection<UUID> userIds) {
+        return tokenRepository.findActiveTokensByUserIdIn(userIds);
+    }
+
     /**
      * Registering the Firebase Cloud Messaging device tokens to the users.
      * The user can log in from multiple devices.
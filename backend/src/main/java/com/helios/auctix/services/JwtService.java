@@ -3,6 +3,7 @@ package com.helios.auctix.services;
 import com.helios.auctix.domain.user.UserRoleEnum;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -23,6 +24,10 @@ public class JwtService {
 
     private String base64EncodedSecretKey = "";
 
+    // both are immutable and thread safe, so they are derived once instead of for every token
+    private final SecretKey key;
+    private final JwtParser parser;
+
     public JwtService() {
         try {
 //            SecretKey key = Jwts.SIG.HS256.key().build();
@@ -34,6 +39,11 @@ public class JwtService {
             log.error("Error while generating secret key{}", e.getMessage());
             throw new RuntimeException();
         }
+
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64EncodedSecretKey));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
     }
 
     public String generateToken(String email, UserRoleEnum role) {
@@ -43,18 +53,13 @@ public class JwtService {
                 .claim("role", role)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 6)) // 6 hours
-                .signWith(getKey())  // Algorithm will be automatically selected based on the key type
+                .signWith(key)  // Algorithm will be automatically selected based on the key type
                                     // https://github.com/jwtk/jjwt?tab=readme-ov-file#signing-key
 
                 .compact();
 
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(base64EncodedSecretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -63,18 +68,26 @@ public class JwtService {
         return UserRoleEnum.valueOf(extractClaim(token, claims -> claims.get("role", String.class)));
     }
 
+    public UserRoleEnum extractRole(Claims claims) {
+        return UserRoleEnum.valueOf(claims.get("role", String.class));
+    }
+
     private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
         final Claims claims = extractClaims(token);
         return claimResolver.apply(claims);
     }
 
-    private Claims extractClaims(String token) {
+    /**
+     * Verifies the signature and expiry of the token and returns its claims.
+     *
+     * @throws ExpiredJwtException if the token has expired
+     * @throws SignatureException if the signature does not match
+     */
+    public Claims extractClaims(String token) {
         Claims claims;
 
         try {
-            claims = Jwts.parser()
-                    .verifyWith(getKey())
-                    .build()
+            claims = parser
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (SignatureException e) {
@@ -0,0 +1,151 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.repositories.SchedulerNodeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shards scheduled auction work across the running instances of the application.
+ * <p>
+ * Every instance holds a lease in the {@code scheduler_nodes} table, renewed by a heartbeat every
+ * {@code heartbeat-ms} on a thread of its own, so a busy scheduler can't starve it.
+ * An instance whose heartbeat is older than {@code lease-ms} is dead.
+ * The live instances, ordered by node id, split auctions between them by auction id hash, so
+ * each scheduled job only handles the auctions {@link #owns(UUID) owned} by this instance and
+ * adding instances spreads the work instead of repeating it.
+ * <p>
+ * Ownership is only a work split. Views of the membership can briefly differ while a node joins or
+ * dies, so anything that must not happen twice (settling an auction) is still guarded in the database.
+ * A node whose last successful renewal is older than the lease owns nothing, the others may have taken over its share.
+ */
+@Slf4j
+@Component
+public class SchedulerNodeRegistry {
+
+    private final SchedulerNodeRepository schedulerNodeRepository;
+    private final UUID nodeId = UUID.randomUUID();
+    private final String hostName;
+    private final long leaseMillis;
+    private final long heartbeatMillis;
+    private final ScheduledExecutorService heartbeats;
+
+    // index of this node among the live nodes, the number of live nodes and when the lease was renewed, replaced together
+    private volatile Shard shard;
+
+    public SchedulerNodeRegistry(
+            SchedulerNodeRepository schedulerNodeRepository,
+            @Value("${auctix.scheduler.lease-ms:30000}") long leaseMillis,
+            @Value("${auctix.scheduler.heartbeat-ms:10000}") long heartbeatMillis
+    ) {
+        this.schedulerNodeRepository = schedulerNodeRepository;
+        this.leaseMillis = leaseMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.hostName = resolveHostName();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduler-node-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        heartbeats.scheduleAtFixedRate(this::heartbeat, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Renews the lease of this node and refreshes the live membership.
+     */
+    public void heartbeat() {
+        // taken before the write, so the lease as seen locally never outlives the one in the database
+        long renewedAt = System.nanoTime();
+        try {
+            schedulerNodeRepository.heartbeat(nodeId, hostName);
+            List<UUID> liveNodeIds = schedulerNodeRepository.findLiveNodeIds(leaseMillis);
+
+            int index = liveNodeIds.indexOf(nodeId);
+            if (index < 0) {
+                // our own row is always live right after the heartbeat, unless the write failed silently
+                log.warn("Scheduler node {} is missing from the live nodes, skipping scheduled work", nodeId);
+                shard = null;
+                return;
+            }
+
+            Shard previous = shard;
+            shard = new Shard(index, liveNodeIds.size(), renewedAt);
+            if (previous == null || previous.nodeCount() != liveNodeIds.size() || previous.index() != index) {
+                log.info("Scheduler node {} is {} of {} live nodes", nodeId, index + 1, liveNodeIds.size());
+            }
+        } catch (Exception e) {
+            // without a renewed lease another node may take over our share, so stop claiming it
+            shard = null;
+            log.error("Scheduler node {} failed to renew its lease", nodeId, e);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${auctix.scheduler.lease-ms:30000}")
+    public void removeExpiredNodes() {
+        int removed = schedulerNodeRepository.deleteExpired(leaseMillis * 10);
+        if (removed > 0) {
+            log.info("Removed {} expired scheduler nodes", removed);
+        }
+    }
+
+    /**
+     * Whether this node is responsible for the scheduled work of the auction.
+     * Joins the cluster first if this node has not sent a heartbeat yet, and owns nothing while its lease is expired.
+     */
+    public boolean owns(UUID auctionId) {
+        Shard current = shard;
+        if (current == null) {
+            heartbeat();
+            current = shard;
+        }
+        if (current == null) {
+            return false;
+        }
+        if (System.nanoTime() - current.renewedAt() >= TimeUnit.MILLISECONDS.toNanos(leaseMillis)) {
+            // the other nodes already count us as dead and split our share between them
+            log.warn("Scheduler node {} has not renewed its lease for over {} ms, not claiming work", nodeId, leaseMillis);
+            return false;
+        }
+        return Math.floorMod(auctionId.hashCode(), current.nodeCount()) == current.index();
+    }
+
+    public UUID getNodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void leave() {
+        heartbeats.shutdownNow();
+        // let the other nodes take over our share at their next heartbeat instead of after the lease expires
+        try {
+            schedulerNodeRepository.deleteById(nodeId);
+        } catch (Exception e) {
+            log.warn("Scheduler node {} could not release its lease: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private record Shard(int index, int nodeCount, long renewedAt) {
+    }
+}
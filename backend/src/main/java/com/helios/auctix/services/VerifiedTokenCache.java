@@ -0,0 +1,149 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.domain.user.UserRoleEnum;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the tokens that already passed verification, keyed by the SHA-256 hash of the token.
+ * <p>
+ * The first request with a token verifies its signature, parses its claims and loads the principal,
+ * every later request with the same token is a map lookup for at most {@code ttl-ms}, or until the token expires.
+ * Only the hash is kept, so a heap dump does not leak usable tokens.
+ * The cache holds at most {@code max-size} tokens, dropping the least recently used one first,
+ * and expired tokens are purged every {@code purge-rate-ms}.
+ * <p>
+ * The principal is loaded again after {@code ttl-ms}, so a user that was deleted or changed while holding
+ * a token is noticed within that time, and right away by this node when {@link #evict(String)} is called.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final int maxSize;
+    private final long ttlMs;
+
+    // access ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, VerifiedToken> tokens;
+
+    public VerifiedTokenCache(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            @Value("${auctix.security.token-cache.max-size:50000}") int maxSize,
+            @Value("${auctix.security.token-cache.ttl-ms:60000}") long ttlMs
+    ) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.maxSize = maxSize;
+        this.ttlMs = ttlMs;
+        this.tokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > VerifiedTokenCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the verified claims and principal of the token, verifying it on the first use.
+     *
+     * @throws ExpiredJwtException if the token has expired
+     * @throws SignatureException if the signature does not match
+     * @throws UsernameNotFoundException if the subject of the token is not a user
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+
+        synchronized (tokens) {
+            VerifiedToken cached = tokens.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                return cached;
+            }
+            if (cached != null) {
+                tokens.remove(key);
+            }
+        }
+
+        // parsing again reports the expiry of a token that just ran out
+        Claims claims = jwtService.extractClaims(token);
+        String email = claims.getSubject();
+        if (email == null) {
+            throw new UsernameNotFoundException("Token has no subject");
+        }
+        UserRoleEnum role = jwtService.extractRole(claims);
+        UserDetails principal = userDetailsService.loadUserByUsername(email);
+
+        if (!email.equals(principal.getUsername())) {
+            throw new UsernameNotFoundException("Token subject does not match user: " + email);
+        }
+
+        // well before the token expires, the token stays valid but the user behind it may not
+        long expiresAt = Math.min(claims.getExpiration().getTime(), now + ttlMs);
+        VerifiedToken verified = new VerifiedToken(email, role, principal, expiresAt);
+        synchronized (tokens) {
+            tokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Forgets every token of the user, the next request with one of them loads the principal again.
+     * Only affects this node, the other nodes notice within {@code ttl-ms}.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        synchronized (tokens) {
+            tokens.values().removeIf(verified -> email.equals(verified.email()));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${auctix.security.token-cache.purge-rate-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int removed;
+        synchronized (tokens) {
+            int before = tokens.size();
+            tokens.values().removeIf(verified -> verified.expiresAt() <= now);
+            removed = before - tokens.size();
+        }
+        if (removed > 0) {
+            log.debug("Purged {} expired tokens from the verified token cache", removed);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has to ship SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param expiresAt when the entry is dropped from the cache, not the expiry of the token
+     */
+    public record VerifiedToken(String email, UserRoleEnum role, UserDetails principal, long expiresAt) {
+    }
+}
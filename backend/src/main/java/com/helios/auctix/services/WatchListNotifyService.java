@@ -1,17 +1,22 @@
 package com.helios.auctix.services;
 
 import com.helios.auctix.domain.auction.Auction;
+import com.helios.auctix.domain.notification.Notification;
 import com.helios.auctix.domain.notification.NotificationCategory;
 import com.helios.auctix.domain.user.User;
 import com.helios.auctix.events.notification.BulkNotificationPublisher;
 import com.helios.auctix.repositories.AuctionWatchListRepository;
+import com.helios.auctix.services.notification.BulkNotificationRejectedException;
+import com.helios.auctix.services.notification.NotificationManagerService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,10 +24,16 @@ import java.util.stream.Collectors;
 public class WatchListNotifyService {
     private final AuctionWatchListRepository watchRepo;
     private final BulkNotificationPublisher bulkNotificationPublisher;
+    private final NotificationManagerService notificationManagerService;
 
-    public WatchListNotifyService(AuctionWatchListRepository watchRepo, BulkNotificationPublisher bulkNotificationPublisher) {
+    public WatchListNotifyService(
+            AuctionWatchListRepository watchRepo,
+            BulkNotificationPublisher bulkNotificationPublisher,
+            NotificationManagerService notificationManagerService
+    ) {
         this.watchRepo = watchRepo;
         this.bulkNotificationPublisher = bulkNotificationPublisher;
+        this.notificationManagerService = notificationManagerService;
     }
 
     /**
@@ -58,27 +69,80 @@ public class WatchListNotifyService {
         List<User> users = watchRepo.findUsersWatchingAuction(auction.getId());
 
         if (excludeUsers != null && !excludeUsers.isEmpty()) {
-            Set<UUID> excludeIds = excludeUsers.stream()
-                    .map(User::getId)
-                    .collect(Collectors.toSet());
+            Set<UUID> excludeIds = excludeUsers.stream().map(User::getId).collect(Collectors.toSet());
 
             users = users.stream()
                     .filter(u -> !excludeIds.contains(u.getId()))
                     .toList();
         }
 
-
         if (users.isEmpty()) {
             log.info("No users to notify for auction: " + auction.getId());
             return;
         }
 
-        log.info("Notifying users watching auction " + auction.getId() + ": " + users.stream()
-                .map(User::getUsername)
-                .toList());
+        log.info("Notifying {} users watching auction {}", users.size(), auction.getId());
 
         bulkNotificationPublisher.publish(users, title, message, category, partialUrl);
     }
 
+    /**
+     * Same as {@link #notifySubscribers(Auction, List, String, String, NotificationCategory, String)}, by ids,
+     * for the outbox relay, which resumes a fan-out a notification channel rejected halfway.
+     * <p>
+     * The watchers are notified in the order of their user ids, in the calling thread, and the ones up to
+     * {@code resumeAfterUserId} are skipped as an earlier attempt already notified them.
+     *
+     * @param resumeAfterUserId nullable, the last watcher an earlier attempt notified
+     * @param progress called with the last watcher notified so far, after every chunk and before a rejection is thrown
+     * @throws BulkNotificationRejectedException if a channel rejected part of the watchers
+     */
+    public void notifySubscribers(
+            UUID auctionId,
+            @Nullable Collection<UUID> excludeUserIds,
+            String title,
+            String message,
+            NotificationCategory category,
+            @Nullable String partialUrl,
+            @Nullable UUID resumeAfterUserId,
+            Consumer<UUID> progress
+    ) {
+        List<User> users = resumeAfterUserId == null
+                ? watchRepo.findUsersWatchingAuctionOrderById(auctionId)
+                : watchRepo.findUsersWatchingAuctionAfter(auctionId, resumeAfterUserId);
+
+        if (excludeUserIds != null && !excludeUserIds.isEmpty()) {
+            Set<UUID> excludeIds = Set.copyOf(excludeUserIds);
 
+            users = users.stream()
+                    .filter(u -> !excludeIds.contains(u.getId()))
+                    .toList();
+        }
+
+        if (users.isEmpty()) {
+            log.info("No users to notify for auction: " + auctionId);
+            return;
+        }
+
+        log.info("Notifying {} users watching auction {}{}", users.size(), auctionId,
+                resumeAfterUserId != null ? ", resumed after user " + resumeAfterUserId : "");
+
+        List<Notification> notifications = users.stream()
+                .map(user -> Notification.builder()
+                        .user(user)
+                        .title(title)
+                        .content(message)
+                        .notificationCategory(category)
+                        .partialUrl(partialUrl)
+                        .build()
+                )
+                .toList();
+
+        List<User> recipients = users;
+        notificationManagerService.handleBulkNotifications(notifications, handled -> {
+            if (handled > 0) {
+                progress.accept(recipients.get(handled - 1).getId());
+            }
+        });
+    }
 }
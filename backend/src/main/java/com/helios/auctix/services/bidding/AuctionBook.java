@@ -0,0 +1,96 @@
+package com.helios.auctix.services.bidding;
+
+import com.helios.auctix.domain.auction.Auction;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-memory state of a single live auction: the bidding window, the current highest bid,
+ * the bid count and a bounded ring of the most recent bids (newest first).
+ * <p>
+ * Auction fields are captured once when the book is warmed. Anything that changes them
+ * (auction update, deletion, completion) must evict the book from {@link LiveAuctionBook}.
+ */
+public class AuctionBook {
+
+    @Getter
+    private final UUID auctionId;
+    @Getter
+    private final String title;
+    @Getter
+    private final UUID sellerId;
+    @Getter
+    private final Double startingPrice;
+    @Getter
+    private final Instant startTime;
+    @Getter
+    private final Instant endTime;
+
+    private final int recentCapacity;
+    private final Deque<LiveBid> recentBids;
+    private LiveBid highestBid;
+    private long bidCount;
+
+    AuctionBook(Auction auction, Optional<LiveBid> highestBid, List<LiveBid> recentBids, long bidCount, int recentCapacity) {
+        this.auctionId = auction.getId();
+        this.title = auction.getTitle();
+        this.sellerId = auction.getSellerId();
+        this.startingPrice = auction.getStartingPrice();
+        this.startTime = auction.getStartTime();
+        this.endTime = auction.getEndTime();
+        this.recentCapacity = recentCapacity;
+        this.recentBids = new ArrayDeque<>(recentCapacity);
+        this.highestBid = highestBid.orElse(null);
+        this.bidCount = bidCount;
+
+        // recentBids comes newest first, keep at most recentCapacity of them
+        for (LiveBid bid : recentBids) {
+            if (this.recentBids.size() >= recentCapacity) {
+                break;
+            }
+            this.recentBids.addLast(bid);
+        }
+    }
+
+    public boolean isActiveAt(Instant instant) {
+        return !instant.isBefore(startTime) && !instant.isAfter(endTime);
+    }
+
+    public synchronized Optional<LiveBid> getHighestBid() {
+        return Optional.ofNullable(highestBid);
+    }
+
+    public synchronized long getBidCount() {
+        return bidCount;
+    }
+
+    /**
+     * @return a copy of the recent bids, newest first
+     */
+    public synchronized List<LiveBid> getRecentBids() {
+        return new ArrayList<>(recentBids);
+    }
+
+    /**
+     * Applies a committed bid to the book.
+     * The highest bid only moves up, so a late or replayed commit can never lower it.
+     */
+    synchronized void record(LiveBid bid) {
+        if (highestBid == null || bid.getAmount() > highestBid.getAmount()) {
+            highestBid = bid;
+        }
+        bidCount++;
+
+        if (recentBids.size() >= recentCapacity) {
+            recentBids.removeLast();
+        }
+        recentBids.addFirst(bid);
+    }
+}
@@ -0,0 +1,166 @@
+package com.helios.auctix.services.bidding;
+
+import com.helios.auctix.dtos.BidDTO;
+import com.helios.auctix.dtos.BidUpdateMessageDTO;
+import com.helios.auctix.mappers.impl.LiveBidMapperImpl;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes accepted bids to {@code /topic/auction/{auctionId}} off the bidding thread.
+ * <p>
+ * Bids are queued after their transaction commits. The first bid of a burst schedules a flush of
+ * its auction {@code coalesce-ms} later, and every bid arriving until then goes out in the same frame.
+ * A frame only carries the new bids (newest first) and the sequence number of the newest one, which
+ * is the auction's bid count, so clients can merge it into the history they already have and
+ * notice when they missed a frame.
+ */
+@Slf4j
+@Component
+public class BidBroadcaster {
+
+    private static final String AUCTION_TOPIC_TEMPLATE = "/topic/auction/%s";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final LiveBidMapperImpl liveBidMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ScheduledExecutorService scheduler;
+    private final long coalesceMillis;
+
+    private final Map<UUID, PendingFrame> pendingFrames = new ConcurrentHashMap<>();
+
+    public BidBroadcaster(
+            SimpMessagingTemplate messagingTemplate,
+            LiveBidMapperImpl liveBidMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${auctix.bids.broadcast.coalesce-ms:100}") long coalesceMillis,
+            @Value("${auctix.bids.broadcast.threads:2}") int threads
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.liveBidMapper = liveBidMapper;
+        this.coalesceMillis = coalesceMillis;
+
+        // bidder details are lazy associations, so map them inside a read-only transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bid-broadcast-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues the bid for broadcast once the surrounding transaction commits, rolled back bids are never sent.
+     *
+     * @param sequence the auction's bid count including this bid
+     */
+    public void publishAfterCommit(LiveBid bid, long sequence) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(bid, sequence);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(bid, sequence);
+            }
+        });
+    }
+
+    private void enqueue(LiveBid bid, long sequence) {
+        UUID auctionId = bid.getAuctionId();
+
+        while (true) {
+            PendingFrame frame = pendingFrames.computeIfAbsent(auctionId, id -> new PendingFrame());
+            boolean scheduleFlush;
+
+            synchronized (frame) {
+                if (frame.closed) {
+                    // flushed and removed between computeIfAbsent and here, start a new frame
+                    continue;
+                }
+                frame.bids.add(bid);
+                frame.sequence = Math.max(frame.sequence, sequence);
+                scheduleFlush = !frame.flushScheduled;
+                frame.flushScheduled = true;
+            }
+
+            if (scheduleFlush) {
+                scheduler.schedule(() -> flush(auctionId, frame), coalesceMillis, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+    }
+
+    private void flush(UUID auctionId, PendingFrame frame) {
+        List<LiveBid> bids;
+        long sequence;
+
+        synchronized (frame) {
+            bids = new ArrayList<>(frame.bids);
+            sequence = frame.sequence;
+            frame.closed = true;
+            pendingFrames.remove(auctionId, frame);
+        }
+
+        if (bids.isEmpty()) {
+            return;
+        }
+
+        try {
+            Collections.reverse(bids);
+            List<BidDTO> newBids = readOnlyTransaction.execute(status -> bids.stream()
+                    .map(liveBidMapper::mapTo)
+                    .toList());
+
+            BidUpdateMessageDTO message = BidUpdateMessageDTO.builder()
+                    .auctionId(auctionId)
+                    .sequence(sequence)
+                    .newBid(newBids.get(0))
+                    .newBids(newBids)
+                    .build();
+
+            messagingTemplate.convertAndSend(String.format(AUCTION_TOPIC_TEMPLATE, auctionId), message);
+
+            if (bids.size() > 1) {
+                log.debug("Coalesced {} bids into one frame for auction {}", bids.size(), auctionId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to broadcast {} bids for auction {}", bids.size(), auctionId, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private static class PendingFrame {
+        private final List<LiveBid> bids = new ArrayList<>();
+        private long sequence;
+        private boolean flushScheduled;
+        private boolean closed;
+    }
+}
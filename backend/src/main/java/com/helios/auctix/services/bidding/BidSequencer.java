@@ -0,0 +1,134 @@
+package com.helios.auctix.services.bidding;
+
+import com.helios.auctix.domain.user.User;
+import com.helios.auctix.dtos.BidDTO;
+import com.helios.auctix.dtos.PlaceBidRequest;
+import com.helios.auctix.services.BidService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serializes bid admission per auction without a database lock.
+ * <p>
+ * Auctions are hashed to a fixed number of lanes. Each lane is a single-threaded executor with a
+ * bounded queue, so all bids of one auction are placed (and committed) strictly one after another,
+ * while bids on different auctions run in parallel on the other lanes.
+ * Because a lane commits a bid before it picks the next one, the {@link LiveAuctionBook} it reads
+ * from is always up to date for this node's own bids. Bids other nodes took are caught by the conditional
+ * update in {@link BidService#placeBid(PlaceBidRequest, User)}, the bid is then placed again on a freshly loaded book.
+ */
+@Slf4j
+@Component
+public class BidSequencer {
+
+    // a bid that lost to another node is placed again this many times at most, then refused like a full lane
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final BidService bidService;
+    private final ExecutorService[] lanes;
+
+    public BidSequencer(
+            BidService bidService,
+            @Value("${auctix.bids.sequencer.lanes:0}") int laneCount,
+            @Value("${auctix.bids.sequencer.queue-capacity:1000}") int queueCapacity,
+            @Value("${auctix.bids.sequencer.virtual-threads:false}") boolean virtualThreads
+    ) {
+        this.bidService = bidService;
+
+        // 0 means one lane per core
+        int resolvedLaneCount = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ExecutorService[resolvedLaneCount];
+        for (int i = 0; i < resolvedLaneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(
+                    1, 1,
+                    0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity),
+                    laneThreadFactory(i, virtualThreads)
+            );
+        }
+
+        log.info("Bid sequencer started with {} lanes, queue capacity {} per lane, virtual threads: {}",
+                resolvedLaneCount, queueCapacity, virtualThreads);
+    }
+
+    /**
+     * Queues the bid on the lane that owns the auction.
+     * The returned future completes with the placed bid, or exceptionally with the same
+     * exceptions {@link BidService#placeBid(PlaceBidRequest, User)} throws.
+     * If the lane is full the future fails with an {@link IllegalStateException}.
+     */
+    public CompletableFuture<BidDTO> submit(PlaceBidRequest request, User bidder) {
+        ExecutorService lane = laneFor(request.getAuctionId());
+
+        try {
+            return CompletableFuture.supplyAsync(() -> place(request, bidder), lane);
+        } catch (RejectedExecutionException e) {
+            log.warn("Bid lane is full, rejecting bid on auction {}", request.getAuctionId());
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Too many bids are being placed on this auction right now, please try again"));
+        }
+    }
+
+    // each attempt is its own transaction, a retry reads the auction the other node changed and decides again
+    private BidDTO place(PlaceBidRequest request, User bidder) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return bidService.placeBid(request, bidder);
+            } catch (StaleAuctionBookException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.warn("Bid on auction {} lost to other nodes {} times, rejecting it", request.getAuctionId(), attempt);
+                    throw new IllegalStateException("Too many bids are being placed on this auction right now, please try again");
+                }
+                log.info("Placing bid on auction {} again: {}", request.getAuctionId(), e.getMessage());
+            }
+        }
+    }
+
+    private ExecutorService laneFor(UUID auctionId) {
+        return lanes[Math.floorMod(auctionId.hashCode(), lanes.length)];
+    }
+
+    private static ThreadFactory laneThreadFactory(int laneIndex, boolean virtualThreads) {
+        String name = "bid-lane-" + laneIndex;
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(name).factory();
+        }
+
+        AtomicInteger restarts = new AtomicInteger();
+        return runnable -> {
+            // a lane only ever has one thread, the counter just keeps names unique if it gets replaced
+            Thread thread = new Thread(runnable, name + "-" + restarts.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
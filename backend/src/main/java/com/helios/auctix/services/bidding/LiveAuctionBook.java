@@ -0,0 +1,129 @@
+package com.helios.auctix.services.bidding;
+
+import com.helios.auctix.domain.auction.Auction;
+import com.helios.auctix.domain.auction.Bid;
+import com.helios.auctix.repositories.AuctionRepository;
+import com.helios.auctix.repositories.BidRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds an {@link AuctionBook} per live auction so bid admission can be decided without
+ * querying the bids table on every request.
+ * <p>
+ * A book is warmed from the database once (when the auction starts, or lazily on the first bid)
+ * and is then kept up to date by {@link #recordAfterCommit(Bid, AuctionBook)}, which only applies
+ * a bid after its transaction has committed. Books are evicted whenever the auction itself
+ * changes, so the next access re-reads it.
+ */
+@Slf4j
+@Component
+public class LiveAuctionBook {
+
+    private final AuctionRepository auctionRepository;
+    private final BidRepository bidRepository;
+    private final int recentCapacity;
+
+    private final Map<UUID, AuctionBook> books = new ConcurrentHashMap<>();
+
+    public LiveAuctionBook(
+            AuctionRepository auctionRepository,
+            BidRepository bidRepository,
+            @Value("${auctix.bids.recent-history-size:10}") int recentCapacity
+    ) {
+        this.auctionRepository = auctionRepository;
+        this.bidRepository = bidRepository;
+        this.recentCapacity = recentCapacity;
+    }
+
+    /**
+     * Returns the book of the auction, loading it from the database if it is not in memory yet.
+     *
+     * @return the book, or empty if the auction does not exist
+     */
+    public Optional<AuctionBook> getOrLoad(UUID auctionId) {
+        AuctionBook book = books.get(auctionId);
+        if (book != null) {
+            return Optional.of(book);
+        }
+
+        return auctionRepository.findById(auctionId).map(this::warm);
+    }
+
+    /**
+     * Loads the book of an already fetched auction and publishes it.
+     * If another thread warmed the same auction first, that book wins.
+     */
+    public AuctionBook warm(Auction auction) {
+        UUID auctionId = auction.getId();
+
+        Optional<LiveBid> highestBid = bidRepository.findCurrentHighestByAuctionId(auctionId)
+                .map(bid -> LiveBid.from(bid, auctionId, auction.getTitle()));
+
+        List<LiveBid> recentBids = bidRepository
+                .findByAuctionIdOrderByBidTimeDesc(auctionId, PageRequest.of(0, recentCapacity))
+                .stream()
+                .map(bid -> LiveBid.from(bid, auctionId, auction.getTitle()))
+                .toList();
+
+        long bidCount = auction.getBidCount() != null ? auction.getBidCount() : 0;
+
+        AuctionBook loaded = new AuctionBook(auction, highestBid, recentBids, bidCount, recentCapacity);
+        AuctionBook existing = books.putIfAbsent(auctionId, loaded);
+
+        if (existing == null) {
+            log.info("Warmed live auction book for auction {} with {} bids", auctionId, bidCount);
+            return loaded;
+        }
+        return existing;
+    }
+
+    /**
+     * Applies the bid to the book once the surrounding transaction commits.
+     * When there is no transaction the bid is applied straight away.
+     *
+     * @return the snapshot that is (or will be) recorded
+     */
+    public LiveBid recordAfterCommit(Bid bid, AuctionBook book) {
+        LiveBid liveBid = LiveBid.from(bid, book.getAuctionId(), book.getTitle());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            book.record(liveBid);
+            return liveBid;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (books.get(book.getAuctionId()) == book) {
+                    book.record(liveBid);
+                } else {
+                    // the book was evicted or re-warmed while we were committing, and a re-warm may
+                    // have read the bids table before this commit, so drop it and load again next time
+                    evict(book.getAuctionId());
+                }
+            }
+        });
+        return liveBid;
+    }
+
+    public void evict(UUID auctionId) {
+        if (books.remove(auctionId) != null) {
+            log.info("Evicted live auction book for auction {}", auctionId);
+        }
+    }
+
+    public int size() {
+        return books.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.helios.auctix.services.bidding;
+
+import com.helios.auctix.domain.auction.Bid;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a committed {@link Bid} held by the {@link LiveAuctionBook}.
+ * <p>
+ * We keep a detached copy instead of the entity so the book can be read from any thread
+ * without touching the lazy {@code auction} association of the bid.
+ */
+@Value
+@Builder
+public class LiveBid {
+    UUID id;
+    UUID auctionId;
+    String auctionTitle;
+    UUID bidderId;
+    String bidderName;
+    String bidderAvatar;
+    Double amount;
+    Instant bidTime;
+    Instant createdAt;
+
+    public static LiveBid from(Bid bid, UUID auctionId, String auctionTitle) {
+        return LiveBid.builder()
+                .id(bid.getId())
+                .auctionId(auctionId)
+                .auctionTitle(auctionTitle)
+                .bidderId(bid.getBidderId())
+                .bidderName(bid.getBidderName())
+                .bidderAvatar(bid.getBidderAvatar())
+                .amount(bid.getAmount())
+                .bidTime(bid.getBidTime())
+                .createdAt(bid.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.helios.auctix.services.bidding;
+
+import java.util.UUID;
+
+/**
+ * Thrown when the conditional update of a bid finds a different highest bid than the {@link AuctionBook}
+ * of this node, i.e. another node took a bid on the auction. The book is evicted by then, so the bid can
+ * be placed again in a new transaction against the current state, see {@link BidSequencer}.
+ */
+public class StaleAuctionBookException extends RuntimeException {
+
+    public StaleAuctionBookException(UUID auctionId) {
+        super("Highest bid of auction " + auctionId + " changed on another node");
+    }
+}
@@ -0,0 +1,104 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.azure.core.util.Context;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobContainerClientBuilder;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
+import com.azure.storage.common.StorageSharedKeyCredential;
+import com.helios.auctix.config.AzureStorageConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.util.UUID;
+
+/**
+ * The one blob container client of the application.
+ * <p>
+ * Clients are thread safe and hold the HTTP connection pool, so building one per request throws the pooled
+ * connections away every time. It is built on first use rather than at startup, so the application still starts
+ * without blob storage configured, and the container is created (if missing) once, not on every upload.
+ * Works the same against Azurite, see the {@code azurite} service of the docker compose file.
+ */
+@Slf4j
+@Component
+public class BlobContainerProvider {
+
+    // blobs are streamed up in blocks of this size, smaller ones go in a single request
+    private static final long UPLOAD_BLOCK_SIZE = 4L * 1024 * 1024;
+
+    private final AzureStorageConfig azureStorageConfig;
+
+    private volatile BlobContainerClient containerClient;
+
+    public BlobContainerProvider(AzureStorageConfig azureStorageConfig) {
+        this.azureStorageConfig = azureStorageConfig;
+    }
+
+    /**
+     * @throws IllegalArgumentException if blob storage is not configured
+     */
+    public BlobContainerClient get() throws URISyntaxException {
+        BlobContainerClient client = containerClient;
+        if (client != null) {
+            return client;
+        }
+
+        synchronized (this) {
+            if (containerClient == null) {
+                if (azureStorageConfig.getAccountName() == null || azureStorageConfig.getAccountKey() == null || azureStorageConfig.getContainerName() == null) {
+                    throw new IllegalArgumentException("Blob account configurations not found");
+                }
+
+                BlobContainerClient created = new BlobContainerClientBuilder()
+                        .endpoint(azureStorageConfig.getStorageContainerURI().toString())
+                        .credential(new StorageSharedKeyCredential(azureStorageConfig.getAccountName(), azureStorageConfig.getAccountKey()))
+                        .buildClient();
+
+                created.createIfNotExists();
+                log.info("Blob container client ready for {}", created.getBlobContainerUrl());
+                containerClient = created;
+            }
+            return containerClient;
+        }
+    }
+
+    /**
+     * Streams the content to the blob named by its content derived id, in blocks, unless the blob is already there.
+     *
+     * @return false if the blob already existed, the content is not read then
+     */
+    public boolean uploadIfAbsent(UUID blobId, InputStream content) throws URISyntaxException {
+        BlobClient blobClient = get().getBlobClient(blobId.toString());
+
+        // the blob name is derived from the content, an existing blob already holds these exact bytes
+        if (blobClient.exists()) {
+            log.info("Blob already in Azure Blob Storage, skipping the upload: {}", blobClient.getBlobUrl());
+            return false;
+        }
+
+        BlobParallelUploadOptions options = new BlobParallelUploadOptions(content)
+                .setParallelTransferOptions(new ParallelTransferOptions()
+                        .setBlockSizeLong(UPLOAD_BLOCK_SIZE)
+                        .setMaxSingleUploadSizeLong(UPLOAD_BLOCK_SIZE))
+                // create only, same name means same content
+                .setRequestConditions(new BlobRequestConditions().setIfNoneMatch("*"));
+        try {
+            blobClient.uploadWithResponse(options, null, Context.NONE);
+            log.info("Blob uploaded to Azure Blob Storage: {}", blobClient.getBlobUrl());
+            return true;
+        } catch (BlobStorageException e) {
+            if (e.getErrorCode() != BlobErrorCode.BLOB_ALREADY_EXISTS) {
+                throw e;
+            }
+            log.info("Blob uploaded concurrently by another request: {}", blobClient.getBlobUrl());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.azure.storage.blob.BlobClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Local disk copies of the blobs, so a file is downloaded from blob storage once and then served from disk.
+ * <p>
+ * Keyed by the {@code fileId}, which is derived from the content hash, so a cached copy never goes stale.
+ * Holds at most {@code max-bytes}, least recently served files are deleted first. A blob is streamed
+ * straight to a file, never into the heap, and concurrent requests for the same missing blob share one download.
+ * The files already in the directory are picked up again at startup.
+ */
+@Slf4j
+@Component
+public class BlobDiskCache {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final Path directory;
+    private final long maxBytes;
+
+    // file sizes by file id, in access order
+    private final LinkedHashMap<UUID, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Map<UUID, CompletableFuture<Path>> downloading = new ConcurrentHashMap<>();
+
+    public BlobDiskCache(
+            @Value("${auctix.uploads.disk-cache.dir:${java.io.tmpdir}/auctix-blob-cache}") String directory,
+            @Value("${auctix.uploads.disk-cache.max-bytes:1073741824}") long maxBytes
+    ) throws IOException {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(this.directory);
+        loadExisting();
+    }
+
+    /**
+     * Opens the cached copy of the blob for reading, downloading it first if it is not on disk yet.
+     * The caller closes the channel.
+     *
+     * @throws com.azure.storage.blob.models.BlobStorageException if the download fails, e.g. the blob does not exist
+     */
+    public FileChannel open(UUID fileId, BlobClient blobClient) throws IOException {
+        try {
+            return FileChannel.open(get(fileId, blobClient), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // evicted between the lookup and the open, once open it can no longer be taken away
+            return FileChannel.open(get(fileId, blobClient), StandardOpenOption.READ);
+        }
+    }
+
+    // the cached copy of the blob, downloaded first if it is not on disk yet
+    private Path get(UUID fileId, BlobClient blobClient) throws IOException {
+        Path cached = lookup(fileId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> running = downloading.putIfAbsent(fileId, download);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            Path file = download(fileId, blobClient);
+            download.complete(file);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            download.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloading.remove(fileId, download);
+        }
+    }
+
+    private synchronized Path lookup(UUID fileId) {
+        if (entries.get(fileId) == null) {
+            return null;
+        }
+        Path file = pathOf(fileId);
+        if (Files.exists(file)) {
+            return file;
+        }
+        // removed from under us, download it again
+        totalBytes -= entries.remove(fileId);
+        return null;
+    }
+
+    private Path download(UUID fileId, BlobClient blobClient) throws IOException {
+        Path partial = directory.resolve(fileId + "." + UUID.randomUUID() + PARTIAL_SUFFIX);
+        try {
+            blobClient.downloadToFile(partial.toString(), true);
+            Path file = pathOf(fileId);
+            Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            added(fileId, Files.size(file));
+            log.debug("Cached blob {} on disk", fileId);
+            return file;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private synchronized void added(UUID fileId, long size) {
+        Long previous = entries.put(fileId, size);
+        totalBytes += size - (previous != null ? previous : 0);
+
+        // the file just added stays even if it alone is over the limit, it is the first to go next time
+        Iterator<Map.Entry<UUID, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1) {
+            Map.Entry<UUID, Long> entry = eldest.next();
+            try {
+                // a request still streaming the file keeps its open channel, the data goes once it is closed
+                Files.deleteIfExists(pathOf(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Failed to delete cached blob {}: {}", entry.getKey(), e.getMessage());
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private void loadExisting() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        }
+
+        for (Path file : files.stream().sorted(Comparator.comparingLong(BlobDiskCache::lastModified)).toList()) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(PARTIAL_SUFFIX)) {
+                // left behind by a download that was cut off
+                Files.deleteIfExists(file);
+                continue;
+            }
+            try {
+                added(UUID.fromString(name), Files.size(file));
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring unknown file {} in the blob cache directory", file);
+            }
+        }
+        log.info("Blob disk cache at {} holds {} files, {} bytes", directory, entries.size(), totalBytes);
+    }
+
+    /**
+     * Where the copy of the blob is kept, whether or not it is on disk right now.
+     */
+    public Path pathOf(UUID fileId) {
+        return directory.resolve(fileId.toString());
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path await(CompletableFuture<Path> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the blob download", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
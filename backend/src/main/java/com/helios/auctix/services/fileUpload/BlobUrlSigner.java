@@ -0,0 +1,92 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.sas.BlobSasPermission;
+import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Short lived, read only SAS URLs of single blobs, so clients download public files straight from blob storage
+ * instead of through the application.
+ * <p>
+ * The expiry is rounded to windows of {@code ttl-seconds}, so every request in a window gets the same URL and the
+ * browser cache of the blob keeps working. A URL handed out in a window stays valid for at least one more window.
+ * Signing is a local HMAC with the account key, no request to blob storage is made.
+ */
+@Slf4j
+@Component
+public class BlobUrlSigner {
+
+    // the blobs are content addressed, the bytes behind a URL never change
+    private static final String BLOB_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final URI publicEndpoint;
+
+    public BlobUrlSigner(
+            @Value("${auctix.uploads.signed-urls.enabled:true}") boolean enabled,
+            @Value("${auctix.uploads.signed-urls.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${auctix.uploads.signed-urls.public-endpoint:}") String publicEndpoint
+    ) {
+        this.enabled = enabled;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.publicEndpoint = publicEndpoint.isBlank() ? null : URI.create(publicEndpoint);
+    }
+
+    /**
+     * A signed URL of the blob.
+     *
+     * @param url the URL to download the blob from
+     * @param cacheableUntil until when the same URL is handed out, a redirect to it may be cached until then
+     */
+    public record SignedUrl(String url, Instant cacheableUntil) {
+    }
+
+    /**
+     * Whether public files are delivered with signed URLs, otherwise every file is streamed through the application.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param contentType sent by blob storage with the blob, the blobs are stored without one
+     */
+    public SignedUrl sign(BlobClient blobClient, String contentType) {
+        return sign(blobClient, contentType, Instant.now());
+    }
+
+    SignedUrl sign(BlobClient blobClient, String contentType, Instant now) {
+        long ttlSeconds = ttl.toSeconds();
+        long windowStart = now.getEpochSecond() / ttlSeconds * ttlSeconds;
+        Instant cacheableUntil = Instant.ofEpochSecond(windowStart + ttlSeconds);
+        OffsetDateTime expiry = OffsetDateTime.ofInstant(cacheableUntil.plus(ttl), ZoneOffset.UTC);
+
+        BlobServiceSasSignatureValues values = new BlobServiceSasSignatureValues(expiry, new BlobSasPermission().setReadPermission(true))
+                .setContentType(contentType)
+                .setContentDisposition("inline")
+                .setCacheControl(BLOB_CACHE_CONTROL);
+
+        String url = blobClient.getBlobUrl() + "?" + blobClient.generateSas(values);
+        return new SignedUrl(toPublicEndpoint(url), cacheableUntil);
+    }
+
+    // the application may reach blob storage on another host than the clients do, e.g. azurite in docker compose
+    String toPublicEndpoint(String url) {
+        if (publicEndpoint == null) {
+            return url;
+        }
+        URI blobUri = URI.create(url);
+        return publicEndpoint.getScheme() + "://" + publicEndpoint.getRawAuthority()
+                + blobUri.getRawPath() + "?" + blobUri.getRawQuery();
+    }
+}
@@ -0,0 +1,274 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helios.auctix.domain.upload.Upload;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes a file returned by {@link FileUploadService#getFile} to the response.
+ * <p>
+ * The file is sent from its local disk copy, never loaded into the heap. When the connector supports it
+ * (Tomcat over plain HTTP), files of at least {@value #SENDFILE_MIN_BYTES} bytes are handed to Tomcat's sendfile
+ * through the {@code org.apache.tomcat.sendfile.*} request attributes, so the kernel copies them to the socket.
+ * Otherwise, e.g. behind TLS, the file is streamed with {@link FileChannel#transferTo} into the response stream,
+ * which goes through a buffer in the heap and is not zero copy. The blob id is derived from the content hash, so it is the ETag: a matching
+ * {@code If-None-Match} gets a 304 without a body. A single {@code Range} gets a 206 with that part of the
+ * file; several ranges get the whole file, which HTTP allows.
+ * Public files are not streamed at all when signed URLs are enabled, the client is redirected to blob storage.
+ * Blob storage sends no CORS headers, so an XHR caller asks for the signed URL as JSON
+ * ({@code Accept: application/json}) and loads it as an image, which needs no CORS.
+ */
+@Slf4j
+@Component
+public class FileDownloadResponder {
+
+    private static final Duration PUBLIC_MAX_AGE = Duration.ofDays(1);
+
+    // below this a plain write is cheaper than setting up a sendfile, the size Tomcat's DefaultServlet uses
+    static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private final ObjectMapper objectMapper;
+    private final BlobDiskCache blobDiskCache;
+
+    public FileDownloadResponder(ObjectMapper objectMapper, BlobDiskCache blobDiskCache) {
+        this.objectMapper = objectMapper;
+        this.blobDiskCache = blobDiskCache;
+    }
+
+    /**
+     * @param file a successful {@link FileUploadResponse} with an open channel, closed by this method or once the body is written
+     */
+    public ResponseEntity<StreamingResponseBody> respond(FileUploadResponse file, HttpServletRequest request,
+                                                         @Nullable String rangeHeader, @Nullable String ifNoneMatch) {
+        FileChannel channel = file.getFileChannel();
+        Upload upload = file.getUpload();
+        String etag = "\"" + file.getBlobId() + "\"";
+
+        // a private file may be revoked, so it is always checked again, the ETag still saves the body
+        CacheControl cacheControl = Boolean.TRUE.equals(upload.getIsPublic())
+                ? CacheControl.maxAge(PUBLIC_MAX_AGE).cachePublic()
+                : CacheControl.noCache().cachePrivate();
+
+        long length;
+        try {
+            length = channel.size();
+        } catch (IOException e) {
+            close(channel);
+            log.warn("Failed to read the size of file {}: {}", file.getBlobId(), e.getMessage());
+            return failed("File download failed");
+        }
+
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            close(channel);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+
+        if (rangeHeader != null && length > 0) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    close(channel);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                            .build();
+                }
+                if (start >= length) {
+                    close(channel);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                            .build();
+                }
+                status = HttpStatus.PARTIAL_CONTENT;
+            }
+        }
+
+        long position = start;
+        long count = Math.max(0, end - start + 1);
+
+        boolean sendfile = useSendfile(request, file, count);
+        StreamingResponseBody body = sendfile ? null : outputStream -> {
+            try (channel) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long sent = 0;
+                while (sent < count) {
+                    long written = channel.transferTo(position + sent, count - sent, target);
+                    if (written <= 0) {
+                        break;
+                    }
+                    sent += written;
+                }
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(MediaType.parseMediaType(file.getContentType()))
+                .contentLength(count)
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + upload.getFileName() + "\"");
+
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        if (sendfile) {
+            // Tomcat opens the file by name once the headers are written
+            close(channel);
+            request.setAttribute(SENDFILE_FILENAME_ATTR, blobDiskCache.pathOf(file.getBlobId()).toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, position);
+            request.setAttribute(SENDFILE_END_ATTR, position + count);
+        }
+
+        return response.body(body);
+    }
+
+    /*
+     * The cached copy is evicted least recently served first and was just served, so it is still there when
+     * Tomcat opens it unless the cache turns over completely in between.
+     */
+    private boolean useSendfile(HttpServletRequest request, FileUploadResponse file, long count) {
+        return count >= SENDFILE_MIN_BYTES
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))
+                && Files.isRegularFile(blobDiskCache.pathOf(file.getBlobId()));
+    }
+
+    /**
+     * Redirects to the signed URL of a {@link FileUploadService#getFileUrl} response, the client downloads the file
+     * from blob storage. The redirect is cached for as long as the same URL is handed out.
+     * <p>
+     * A caller that only accepts {@code application/json} gets the URL in a JSON body instead, since an XHR
+     * would follow the redirect to blob storage and be blocked by CORS.
+     */
+    public ResponseEntity<StreamingResponseBody> redirect(FileUploadResponse file, @Nullable String accept) {
+        BlobUrlSigner.SignedUrl signedUrl = file.getSignedUrl();
+        long maxAge = Math.max(0, Duration.between(Instant.now(), signedUrl.cacheableUntil()).toSeconds());
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic();
+
+        if (acceptsOnlyJson(accept)) {
+            byte[] body;
+            try {
+                body = objectMapper.writeValueAsBytes(new SignedUrlBody(signedUrl.url(), signedUrl.cacheableUntil()));
+            } catch (JsonProcessingException e) {
+                return failed("File download failed");
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .contentLength(body.length)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(outputStream -> outputStream.write(body));
+        }
+
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(signedUrl.url()))
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * The error response of a failed {@link FileUploadResponse}, as the plain text message.
+     */
+    public ResponseEntity<StreamingResponseBody> failed(String message) {
+        return plainText(HttpStatus.INTERNAL_SERVER_ERROR, message);
+    }
+
+    /**
+     * The error response of an invalid request parameter, e.g. an unknown image size.
+     */
+    public ResponseEntity<StreamingResponseBody> badRequest(String message) {
+        return plainText(HttpStatus.BAD_REQUEST, message);
+    }
+
+    private static ResponseEntity<StreamingResponseBody> plainText(HttpStatus status, String message) {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .contentLength(body.length)
+                .body(outputStream -> outputStream.write(body));
+    }
+
+    // browsers send image/* or */* for images and navigations, only a caller asking for JSON explicitly gets it
+    private static boolean acceptsOnlyJson(@Nullable String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return !mediaTypes.isEmpty() && mediaTypes.stream().allMatch(MediaType.APPLICATION_JSON::equalsTypeAndSubtype);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record SignedUrlBody(String url, Instant expiresAt) {
+    }
+
+    private static void close(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close file channel: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.helios.auctix.domain.upload.Upload;
+import com.helios.auctix.repositories.UploadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Uploads the files of one request (auction images, verification documents) concurrently, so the request
+ * waits for the slowest blob round trip instead of the sum of them.
+ * <p>
+ * Each file gets a virtual thread, at most {@code max-concurrency} of them upload at the same time per request.
+ * All or nothing: on the first failure no further uploads are started, the ones in flight are waited for,
+ * and the uploads that did succeed are discarded before the failure is thrown.
+ */
+@Slf4j
+@Service
+public class FileIngestionService {
+
+    private final FileUploadService fileUploadService;
+    private final UploadRepository uploadRepository;
+    private final int maxConcurrency;
+
+    public FileIngestionService(
+            FileUploadService fileUploadService,
+            UploadRepository uploadRepository,
+            @Value("${auctix.uploads.parallel.max-concurrency:4}") int maxConcurrency
+    ) {
+        this.fileUploadService = fileUploadService;
+        this.uploadRepository = uploadRepository;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Uploads all the files, see {@link FileUploadService#uploadFile(MultipartFile, FileUploadUseCaseEnum, UUID, boolean)}.
+     *
+     * @return the uploads, in the order of the files
+     * @throws IllegalStateException if any of the files failed to upload, none of them are kept then
+     */
+    public List<Upload> uploadAll(List<MultipartFile> files, FileUploadUseCaseEnum category, UUID ownerUserId, boolean isPublic) {
+        if (files.isEmpty()) {
+            return List.of();
+        }
+
+        // filled by the uploads themselves, so the ones that finish after a failure are still cleaned up
+        Upload[] uploads = new Upload[files.size()];
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicBoolean failed = new AtomicBoolean();
+        Throwable failure = null;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<Upload> completion = new ExecutorCompletionService<>(executor);
+            List<Future<Upload>> futures = new ArrayList<>(files.size());
+
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                MultipartFile file = files.get(i);
+                futures.add(completion.submit(() -> {
+                    permits.acquire();
+                    try {
+                        if (failed.get()) {
+                            return null;
+                        }
+                        uploads[index] = upload(file, category, ownerUserId, isPublic);
+                        return uploads[index];
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < files.size() && failure == null; i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                    failed.set(true);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = e;
+                    failed.set(true);
+                }
+            }
+
+            if (failure != null) {
+                // the ones still waiting for a permit, running uploads are not interrupted halfway
+                futures.forEach(future -> future.cancel(false));
+            }
+        } // waits for the uploads in flight
+
+        if (failure == null) {
+            return Arrays.asList(uploads);
+        }
+
+        discard(Arrays.stream(uploads).filter(Objects::nonNull).toList());
+        throw new IllegalStateException("File upload failed: " + failure.getMessage(), failure);
+    }
+
+    private Upload upload(MultipartFile file, FileUploadUseCaseEnum category, UUID ownerUserId, boolean isPublic) {
+        FileUploadResponse res = fileUploadService.uploadFile(file, category, ownerUserId, isPublic);
+        if (!res.isSuccess()) {
+            throw new IllegalStateException(file.getOriginalFilename() + ": " + res.getMessage());
+        }
+        return res.getUpload();
+    }
+
+    // blobs are shared by uploads of the same content, so they are left to the deletion sweep which checks that
+    private void discard(List<Upload> uploads) {
+        if (uploads.isEmpty()) {
+            return;
+        }
+        log.info("Discarding {} uploads of a failed batch", uploads.size());
+        uploads.forEach(upload -> upload.setIsDeleted(true));
+        uploadRepository.saveAll(uploads);
+    }
+}
@@ -2,9 +2,6 @@ package com.helios.auctix.services.fileUpload;
 
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
-import com.azure.storage.blob.BlobContainerClientBuilder;
-import com.azure.storage.common.StorageSharedKeyCredential;
-import com.helios.auctix.config.AzureStorageConfig;
 import com.helios.auctix.domain.upload.Upload;
 import com.helios.auctix.repositories.UploadRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,8 +9,8 @@ import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 import java.util.logging.Logger;
 
 @Service
@@ -21,7 +18,7 @@ import java.util.logging.Logger;
 public class FileUploadDeleteService {
 
     private final UploadRepository uploadRepository;
-    private final AzureStorageConfig azureStorageConfig;
+    private final BlobContainerProvider blobContainerProvider;
     private static final Logger log = Logger.getLogger(FileUploadDeleteService.class.getName());
 
     /**
@@ -39,12 +36,7 @@ public class FileUploadDeleteService {
             try {
                 log.info("Deleting file: " + file.getFileId());
                 // Delete the file from Azure Blob Storage
-                URI StorageContainer = azureStorageConfig.getStorageContainerURI();
-
-                BlobContainerClient containerClient = new BlobContainerClientBuilder()
-                        .endpoint(StorageContainer.toString())
-                        .credential(new StorageSharedKeyCredential(azureStorageConfig.getAccountName(), azureStorageConfig.getAccountKey()))
-                        .buildClient();
+                BlobContainerClient containerClient = blobContainerProvider.get();
 
                 // check whether the file is used as another upload
                 Integer count = uploadRepository.countByFileId(file.getFileId());
@@ -60,6 +52,14 @@ public class FileUploadDeleteService {
                     }
                 }
 
+                // the generated image sizes, shared the same way by uploads of the same image
+                if (file.getThumbnailFileId() != null && uploadRepository.countByThumbnailFileId(file.getThumbnailFileId()) <= 1) {
+                    deleteVariantBlob(containerClient, file.getThumbnailFileId());
+                }
+                if (file.getMediumFileId() != null && uploadRepository.countByMediumFileId(file.getMediumFileId()) <= 1) {
+                    deleteVariantBlob(containerClient, file.getMediumFileId());
+                }
+
                 // Remove the file record from the database
                 uploadRepository.delete(file);
                 log.info("File record deleted from database: " + file.getId());
@@ -71,5 +71,17 @@ public class FileUploadDeleteService {
         log.info("Scheduled task to delete marked files completed");
     }
 
+    private void deleteVariantBlob(BlobContainerClient containerClient, UUID variantFileId) {
+        // a variant blob may also be the original of another upload, e.g. an uploaded thumbnail
+        if (uploadRepository.countByFileId(variantFileId) > 0) {
+            log.warning("Image variant is also an uploaded file, not deleting: " + variantFileId);
+            return;
+        }
+        BlobClient blobClient = containerClient.getBlobClient(variantFileId.toString());
+        if (blobClient.deleteIfExists()) {
+            log.info("Image variant deleted from Azure Blob Storage: " + variantFileId);
+        }
+    }
+
 
 }
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.UUID;
 
 @Data
 public class FileUploadResponse {
@@ -13,6 +15,13 @@ public class FileUploadResponse {
     private String message;
     private Upload upload;
     private BinaryData binaryData;
+    // the file opened for reading, whoever sends it closes it
+    private FileChannel fileChannel;
+    // the blob behind the channel, the original or one of the image sizes
+    private UUID blobId;
+    private String contentType;
+    // set instead of the channel when the file is downloaded straight from blob storage
+    private BlobUrlSigner.SignedUrl signedUrl;
 
     public FileUploadResponse(boolean success, String message, Upload upload) {
         this.success = success;
@@ -33,6 +42,22 @@ public class FileUploadResponse {
         this.upload = fileInfo;
     }
 
+    public FileUploadResponse(boolean success, String message, FileChannel fileChannel, UUID blobId, String contentType, Upload fileInfo) {
+        this.success = success;
+        this.message = message;
+        this.fileChannel = fileChannel;
+        this.blobId = blobId;
+        this.contentType = contentType;
+        this.upload = fileInfo;
+    }
+
+    public FileUploadResponse(boolean success, String message, BlobUrlSigner.SignedUrl signedUrl, Upload fileInfo) {
+        this.success = success;
+        this.message = message;
+        this.signedUrl = signedUrl;
+        this.upload = fileInfo;
+    }
+
     public FileUploadResponse(boolean success, String message) {
         this.success = success;
         this.message = message;
@@ -1,7 +1,8 @@
 package com.helios.auctix.services.fileUpload;
 
-import com.azure.core.util.BinaryData;
 import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.models.BlobErrorCode;
+import com.azure.storage.blob.models.BlobStorageException;
 import com.helios.auctix.config.AzureStorageConfig;
 import com.helios.auctix.domain.upload.FileTypeEnum;
 import com.helios.auctix.domain.upload.Upload;
@@ -26,8 +27,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.multipart.MultipartFile;
 import com.azure.storage.blob.BlobContainerClient;
-import com.azure.storage.blob.BlobContainerClientBuilder;
-import com.azure.storage.common.StorageSharedKeyCredential;
 import org.springframework.web.util.InvalidUrlException;
 
 
@@ -38,9 +37,11 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
@@ -55,6 +56,10 @@ public class FileUploadService {
     private final UploadRepository uploadRepository;
     private final UserRepository userRepository;
     private final AzureStorageConfig azureStorageConfig;
+    private final BlobDiskCache blobDiskCache;
+    private final BlobContainerProvider blobContainerProvider;
+    private final ImageDerivativeService imageDerivativeService;
+    private final BlobUrlSigner blobUrlSigner;
 
     private static Logger log = Logger.getLogger(FileUploadService.class.getName());
 
@@ -104,9 +109,13 @@ public class FileUploadService {
             FileTypeEnum filetype = getFileType(file.getContentType());
             log.info("File type: "+filetype);
 
+            // the blob is named by the hash, so the file is hashed first and read a second time by the upload,
+            // which is skipped when the blob is already there. Both reads stream, the file is never held in the heap as a whole
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] fileBytes = file.getBytes();
-            byte[] digestMsg = digest.digest(fileBytes);
+            try (InputStream digestStream = new DigestInputStream(file.getInputStream(), digest)) {
+                digestStream.transferTo(OutputStream.nullOutputStream());
+            }
+            byte[] digestMsg = digest.digest();
             String sha256 = byteArrayToHex(digestMsg);
             log.info("File sha-256: "+sha256);
 
@@ -116,23 +125,10 @@ public class FileUploadService {
             //TODO: Rate limit mechanism
 
             log.info("File Uploading to Azure Blob Storage");
-            URI StorageContainer = azureStorageConfig.getStorageContainerURI();
-
-            BlobContainerClient containerClient = new BlobContainerClientBuilder()
-                    .endpoint(StorageContainer.toString())
-                    .credential(new StorageSharedKeyCredential(azureStorageConfig.getAccountName(), azureStorageConfig.getAccountKey() ))
-                    .buildClient();
-
-            containerClient.createIfNotExists();
-
-            BlobClient blobClient = containerClient.getBlobClient(fileId.toString());
-
             try (InputStream inputStream = file.getInputStream()) {
-                blobClient.upload(inputStream, filesize, true);
-                log.info("File uploaded to Azure Blob Storage: " + blobClient.getBlobUrl());
+                blobContainerProvider.uploadIfAbsent(fileId, inputStream);
             }
 
-            log.info("File Uploaded to : "+ StorageContainer.toString());
             Upload uploadInfo = Upload.builder()
                     .fileName(originalFilename)
                     .fileSize(filesize)
@@ -146,6 +142,9 @@ public class FileUploadService {
 
             uploadRepository.save(uploadInfo);
 
+            // thumbnail and medium sizes are made in the background, the original is served until they are there
+            imageDerivativeService.scheduleVariants(uploadInfo);
+
             return new FileUploadResponse(true,"File uploaded successfully",uploadInfo) ;
         }
         catch (NoSuchAlgorithmException e) {
@@ -164,6 +163,10 @@ public class FileUploadService {
             log.warning(e.getMessage());
             return new FileUploadResponse(false,"File upload failed: " );
         }
+        catch (BlobStorageException e) {
+            log.warning(e.getMessage());
+            return new FileUploadResponse(false,"File upload failed: " );
+        }
     }
 
     /**
@@ -174,11 +177,23 @@ public class FileUploadService {
      * @return A `FileUploadResponse` indicating the success or failure of the operation.
      */
     public FileUploadResponse getFile(UUID id, String requestedUserEmail) {
+        return getFile(id, requestedUserEmail, ImageVariant.FULL);
+    }
+
+    /**
+     * Retrieves a uploaded file from Azure Blob Storage, in the requested size if it is an image.
+     *
+     * @param id The UUID of the file to be retrieved.
+     * @param requestedUserEmail The email of the user requesting the file.
+     * @param variant The size to serve, the original one is served until the variant is generated.
+     * @return A `FileUploadResponse` indicating the success or failure of the operation.
+     */
+    public FileUploadResponse getFile(UUID id, String requestedUserEmail, ImageVariant variant) {
         User user = userRepository.findByEmail(requestedUserEmail);
         if(user == null) {
             return new FileUploadResponse(false,"User not found");
         }
-        return getFile(id, user.getId());
+        return getFile(id, user.getId(), variant);
     }
 
     /**
@@ -188,17 +203,31 @@ public class FileUploadService {
      * @return A `FileUploadResponse` indicating the success or failure of the operation.
      */
     public FileUploadResponse getFile(UUID id) {
-        return getFile(id, (UUID) null);
+        return getFile(id, ImageVariant.FULL);
+    }
+
+    /**
+     * Retrieves a uploaded file from Azure Blob Storage, in the requested size if it is an image.
+     * only public files can be accessed with this method
+     *
+     * @param id The UUID of the file to be retrieved.
+     * @param variant The size to serve, the original one is served until the variant is generated.
+     * @return A `FileUploadResponse` indicating the success or failure of the operation.
+     */
+    public FileUploadResponse getFile(UUID id, ImageVariant variant) {
+        return getFile(id, (UUID) null, variant);
     }
 
     /**
      * Retrieves a uploaded file from Azure Blob Storage.both public and private can be accessed with this method
+     * The file is returned as an open channel on its local disk copy, see {@link BlobDiskCache}
      *
      * @param id The UUID of the recode to be retrieved.
      * @param requestedUserId The UUID of the user requesting the file.
+     * @param variant The size to serve.
      * @return A `FileUploadResponse` indicating the success or failure of the operation.
      */
-    private FileUploadResponse getFile(UUID id, UUID requestedUserId ){
+    private FileUploadResponse getFile(UUID id, UUID requestedUserId, ImageVariant variant){
             if(azureStorageConfig.getAccountName() == null || azureStorageConfig.getAccountKey() == null || azureStorageConfig.getContainerName() == null) {
                 throw new IllegalArgumentException("Blob account configurations not found");
             }
@@ -228,25 +257,25 @@ public class FileUploadService {
 
             log.info("Trying to get file from Azure Blob Storage");
             try {
-                URI StorageContainer = azureStorageConfig.getStorageContainerURI();
+                BlobContainerClient containerClient = blobContainerProvider.get();
 
-                BlobContainerClient containerClient = new BlobContainerClientBuilder()
-                        .endpoint(StorageContainer.toString())
-                        .credential(new StorageSharedKeyCredential(azureStorageConfig.getAccountName(), azureStorageConfig.getAccountKey()))
-                        .buildClient();
+                UUID blobId = variant.fileIdOf(uploadedFileInfo);
+                BlobClient blobClient = containerClient.getBlobClient(blobId.toString());
 
-                BlobClient blobClient = containerClient.getBlobClient(uploadedFileInfo.getFileId().toString());
-                if(!blobClient.exists()) {
-                    log.warning("File not found in blob storage: " + blobClient.getBlobUrl());
-                    return new FileUploadResponse(false,"File not found");
-                }
-                log.info("File found in Azure Blob Storage: " + blobClient.getBlobUrl());
-
-                BinaryData binaryData =  blobClient.downloadContent();
+                // served from the local disk copy, only downloaded (to disk, not the heap) when it is not there yet
+                FileChannel fileChannel = blobDiskCache.open(blobId, blobClient);
 
-                return new FileUploadResponse(true,"File found", binaryData, uploadedFileInfo);
+                return new FileUploadResponse(true,"File found", fileChannel, blobId, contentTypeOf(uploadedFileInfo, blobId), uploadedFileInfo);
 
             }
+            catch(BlobStorageException e){
+                if(e.getErrorCode() == BlobErrorCode.BLOB_NOT_FOUND) {
+                    log.warning("File not found in blob storage: " + variant.fileIdOf(uploadedFileInfo));
+                    return new FileUploadResponse(false,"File not found");
+                }
+                log.warning(e.getMessage());
+                return new FileUploadResponse(false, "File download failed: ");
+            }
             catch(URISyntaxException e){
                 log.warning(e.getMessage());
                 return new FileUploadResponse(false,"Storage container url invalied: " );
@@ -258,6 +287,47 @@ public class FileUploadService {
 
     }
 
+    /**
+     * Issues a short lived signed URL to download a public file straight from Azure Blob Storage, see {@link BlobUrlSigner}.
+     * Private files and verification documents are never signed, they are only served through {@link #getFile}.
+     *
+     * @param id The UUID of the file.
+     * @param variant The size to serve, the original one is served until the variant is generated.
+     * @return A `FileUploadResponse` with the signed url, unsuccessful when the file has to be served through the application.
+     */
+    public FileUploadResponse getFileUrl(UUID id, ImageVariant variant) {
+        if (!blobUrlSigner.isEnabled()) {
+            return new FileUploadResponse(false, "Signed urls are disabled");
+        }
+
+        Upload uploadedFileInfo = uploadRepository.findById(id).orElse(null);
+        if (uploadedFileInfo == null || uploadedFileInfo.getIsDeleted()) {
+            return new FileUploadResponse(false, "File not found");
+        }
+        if (!Boolean.TRUE.equals(uploadedFileInfo.getIsPublic())
+                || FileUploadUseCaseEnum.VERIFICATION_DOCUMENT.toString().equals(uploadedFileInfo.getCategory())) {
+            return new FileUploadResponse(false, "Private files are not signed");
+        }
+
+        try {
+            UUID blobId = variant.fileIdOf(uploadedFileInfo);
+            BlobClient blobClient = blobContainerProvider.get().getBlobClient(blobId.toString());
+            BlobUrlSigner.SignedUrl signedUrl = blobUrlSigner.sign(blobClient, contentTypeOf(uploadedFileInfo, blobId));
+            return new FileUploadResponse(true, "File url signed", signedUrl, uploadedFileInfo);
+        }
+        catch (URISyntaxException | IllegalArgumentException e) {
+            log.warning(e.getMessage());
+            return new FileUploadResponse(false, "File url signing failed: ");
+        }
+    }
+
+    // the generated image sizes are always JPEGs
+    private static String contentTypeOf(Upload upload, UUID blobId) {
+        return blobId.equals(upload.getFileId())
+                ? upload.getFileType().getContentType()
+                : ImageDerivativeService.CONTENT_TYPE;
+    }
+
     /**
      * mark the file as deleted in the database. marked files will deleted after a certain period of time
      *
@@ -0,0 +1,291 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.azure.storage.blob.BlobClient;
+import com.helios.auctix.domain.upload.FileTypeEnum;
+import com.helios.auctix.domain.upload.Upload;
+import com.helios.auctix.repositories.UploadRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the {@link ImageVariant#THUMBNAIL} and {@link ImageVariant#MEDIUM} sizes of uploaded images,
+ * so listings do not download and the browser does not decode the full size originals.
+ * <p>
+ * Runs on a small bounded pool after the upload is committed, the upload request does not wait for it.
+ * When the queue is full the upload simply has no variants and its original is served for every size.
+ * Large images are decoded with source subsampling, to no less than twice the medium size, so the full
+ * resolution raster is never allocated. They are then only ever scaled down, in halving steps, the first of which
+ * flattens alpha onto white, and the result is a JPEG.
+ * Variants are stored content addressed like the originals, so the same image uploaded twice shares them.
+ */
+@Slf4j
+@Service
+public class ImageDerivativeService {
+
+    static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final Set<FileUploadUseCaseEnum> IMAGE_CATEGORIES = EnumSet.of(
+            FileUploadUseCaseEnum.AUCTION_IMAGE,
+            FileUploadUseCaseEnum.PROFILE_PHOTO,
+            FileUploadUseCaseEnum.PROFILE_BANNER_PHOTO
+    );
+
+    // the raster formats the JDK decodes, svg and icons are served as they are
+    private static final Set<FileTypeEnum> DECODABLE_TYPES = EnumSet.of(
+            FileTypeEnum.PNG, FileTypeEnum.JPG, FileTypeEnum.JPEG, FileTypeEnum.GIF, FileTypeEnum.BMP
+    );
+
+    private final UploadRepository uploadRepository;
+    private final BlobContainerProvider blobContainerProvider;
+    private final BlobDiskCache blobDiskCache;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    public ImageDerivativeService(
+            UploadRepository uploadRepository,
+            BlobContainerProvider blobContainerProvider,
+            BlobDiskCache blobDiskCache,
+            @Value("${auctix.uploads.derivatives.workers:2}") int workers,
+            @Value("${auctix.uploads.derivatives.queue-capacity:200}") int queueCapacity,
+            @Value("${auctix.uploads.derivatives.jpeg-quality:0.85}") float jpegQuality,
+            @Value("${auctix.uploads.derivatives.max-pixels:25000000}") long maxPixels
+    ) {
+        this.uploadRepository = uploadRepository;
+        this.blobContainerProvider = blobContainerProvider;
+        this.blobDiskCache = blobDiskCache;
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    /**
+     * Queues the generation of the smaller sizes of the upload, once the surrounding transaction commits.
+     * Does nothing for uploads that are not images.
+     */
+    public void scheduleVariants(Upload upload) {
+        if (!isDerivable(upload)) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(upload);
+            return;
+        }
+
+        // the worker updates the upload row, which is not there for it before the commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(upload);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("{} image variants still queued at shutdown", executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean isDerivable(Upload upload) {
+        try {
+            return IMAGE_CATEGORIES.contains(FileUploadUseCaseEnum.valueOf(upload.getCategory()))
+                    && DECODABLE_TYPES.contains(upload.getFileType());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return false;
+        }
+    }
+
+    private void submit(Upload upload) {
+        try {
+            executor.execute(() -> generate(upload));
+        } catch (RejectedExecutionException e) {
+            log.warn("Image variant queue full, upload {} is served in its original size", upload.getId());
+        }
+    }
+
+    private void generate(Upload upload) {
+        try {
+            BufferedImage original = read(upload.getFileId());
+            if (original == null) {
+                return;
+            }
+
+            // medium first, the thumbnail is scaled from it instead of from the full size
+            BufferedImage medium = downscale(original, ImageVariant.MEDIUM.getMaxDimension());
+            BufferedImage thumbnail = downscale(medium != null ? medium : original, ImageVariant.THUMBNAIL.getMaxDimension());
+
+            // an original already within a size is served for it as it is
+            UUID mediumFileId = medium != null ? store(encode(medium)) : null;
+            UUID thumbnailFileId = thumbnail != null ? store(encode(thumbnail)) : null;
+
+            if (mediumFileId == null && thumbnailFileId == null) {
+                return;
+            }
+            uploadRepository.setVariants(upload.getId(), thumbnailFileId, mediumFileId);
+            log.info("Generated image variants of upload {}: thumbnail {}, medium {}", upload.getId(), thumbnailFileId, mediumFileId);
+        } catch (Exception e) {
+            log.warn("Failed to generate image variants of upload {}: {}", upload.getId(), e.getMessage());
+        }
+    }
+
+    // null when the format can not be decoded or the image is too large to decode, subsampled when it is much larger than needed
+    private BufferedImage read(UUID fileId) throws IOException, URISyntaxException {
+        BlobClient blobClient = blobContainerProvider.get().getBlobClient(fileId.toString());
+
+        try (FileChannel channel = blobDiskCache.open(fileId, blobClient);
+             ImageInputStream input = ImageIO.createImageInputStream(Channels.newInputStream(channel))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.info("No image decoder for file {}, no variants generated", fileId);
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // checked from the header, before the pixels are allocated
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                long pixels = (long) width * height;
+                if (pixels > maxPixels) {
+                    log.warn("Image {} has {} pixels, over the limit of {}, no variants generated", fileId, pixels, maxPixels);
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsampling(width, height);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Every n-th pixel of every n-th row, for the largest n that still leaves twice the medium size, so the
+     * halving steps after it smooth out what point sampling skipped.
+     */
+    static int subsampling(int width, int height) {
+        return Math.max(1, Math.max(width, height) / (2 * ImageVariant.MEDIUM.getMaxDimension()));
+    }
+
+    /**
+     * Scales the image to fit in a square of the given size, halving it until the last step, as a single
+     * bilinear step from far away samples only a few of the source pixels and looks jagged.
+     * The steps draw onto an opaque white image, JPEG has no alpha and transparent parts become white instead of black.
+     *
+     * @return null if the image already fits
+     */
+    static BufferedImage downscale(BufferedImage image, int maxDimension) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = (double) maxDimension / Math.max(width, height);
+        if (scale >= 1) {
+            return null;
+        }
+
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (current.getColorModel().hasAlpha()) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    // named by the content hash like the uploaded files, see FileUploadService#uploadFile
+    private UUID store(byte[] content) throws NoSuchAlgorithmException, URISyntaxException {
+        UUID blobId = UUID.nameUUIDFromBytes(MessageDigest.getInstance("SHA-256").digest(content));
+        blobContainerProvider.uploadIfAbsent(blobId, new ByteArrayInputStream(content));
+        return blobId;
+    }
+}
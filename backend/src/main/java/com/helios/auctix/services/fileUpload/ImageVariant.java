@@ -0,0 +1,52 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.helios.auctix.domain.upload.Upload;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * The sizes an image upload is served in, picked with the {@code size} parameter of the image endpoints.
+ * The downscaled ones are JPEGs that fit in a square of {@link #getMaxDimension()} pixels, see {@link ImageDerivativeService}.
+ */
+public enum ImageVariant {
+    THUMBNAIL(320),
+    MEDIUM(1024),
+    FULL(0);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * Longest side of the variant in pixels, 0 for the original.
+     */
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * The blob of this variant, the original one when the variant is not there.
+     */
+    public UUID fileIdOf(Upload upload) {
+        UUID variantFileId = switch (this) {
+            case THUMBNAIL -> upload.getThumbnailFileId();
+            case MEDIUM -> upload.getMediumFileId();
+            case FULL -> null;
+        };
+        return variantFileId != null ? variantFileId : upload.getFileId();
+    }
+
+    /**
+     * @param size the {@code size} parameter, e.g. {@code thumbnail}, null for the original
+     * @throws IllegalArgumentException for an unknown size
+     */
+    public static ImageVariant fromParameter(String size) {
+        if (size == null || size.isBlank()) {
+            return FULL;
+        }
+        return valueOf(size.trim().toUpperCase(Locale.ROOT));
+    }
+}
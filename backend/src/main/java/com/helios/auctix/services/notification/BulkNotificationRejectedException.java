@@ -0,0 +1,23 @@
+package com.helios.auctix.services.notification;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A notification channel rejected part of a bulk fan-out, because its queue stayed full or it is shutting down.
+ * <p>
+ * The first {@link #getHandled()} notifications of the list were saved and queued on every channel of their users,
+ * the rest were neither, so the fan-out can be resumed from there.
+ */
+public class BulkNotificationRejectedException extends RejectedExecutionException {
+
+    private final int handled;
+
+    public BulkNotificationRejectedException(int handled, int total, RejectedExecutionException cause) {
+        super("Handled " + handled + " of " + total + " bulk notifications: " + cause.getMessage(), cause);
+        this.handled = handled;
+    }
+
+    public int getHandled() {
+        return handled;
+    }
+}
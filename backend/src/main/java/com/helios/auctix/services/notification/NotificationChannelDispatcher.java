@@ -0,0 +1,155 @@
+package com.helios.auctix.services.notification;
+
+import com.helios.auctix.domain.notification.Notification;
+import com.helios.auctix.domain.notification.NotificationType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feeds notifications to their senders through one bounded queue and worker pool per channel.
+ * <p>
+ * A slow channel (SMTP) only fills its own queue, the others keep going. When a queue is full,
+ * {@link #dispatch} makes the producer wait for room, for at most {@code auctix.notifications.channel.offer-timeout-ms},
+ * so a large fan-out is slowed down to the pace of the channel but a stuck channel does not hold its producers forever.
+ * Producers that can retry later, like the outbox relay, check {@link #isSaturated()} before they start.
+ * <p>
+ * Per channel, {@code auctix.notifications.channel.<type>.workers} and {@code .queue-capacity}
+ * size the pool, e.g. {@code auctix.notifications.channel.email.workers=8}.
+ */
+@Slf4j
+@Component
+public class NotificationChannelDispatcher {
+
+    private static final int DEFAULT_WORKERS = 4;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final long DEFAULT_OFFER_TIMEOUT_MS = 5000;
+
+    private final Map<NotificationType, ChannelWorkers> channels = new EnumMap<>(NotificationType.class);
+
+    public NotificationChannelDispatcher(List<NotificationSender> senders, Environment environment) {
+        long offerTimeoutMs = environment.getProperty("auctix.notifications.channel.offer-timeout-ms", Long.class, DEFAULT_OFFER_TIMEOUT_MS);
+
+        for (NotificationSender sender : senders) {
+            if (sender.getNotificationType() == null) {
+                // not a delivery channel users can choose (yet)
+                continue;
+            }
+            String channel = sender.getNotificationType().name().toLowerCase(Locale.ROOT);
+            int workers = environment.getProperty("auctix.notifications.channel." + channel + ".workers", Integer.class, DEFAULT_WORKERS);
+            int queueCapacity = environment.getProperty("auctix.notifications.channel." + channel + ".queue-capacity", Integer.class, DEFAULT_QUEUE_CAPACITY);
+
+            channels.put(sender.getNotificationType(), new ChannelWorkers(sender, channel, workers, queueCapacity, offerTimeoutMs));
+        }
+    }
+
+    /**
+     * Queues the notification for the sender of the channel, waiting while the channel's queue is full.
+     *
+     * @return false if there is no sender for the channel
+     * @throws RejectedExecutionException if the queue stayed full for the offer timeout, or the dispatcher is shutting down
+     */
+    public boolean dispatch(NotificationType type, Notification notification) {
+        ChannelWorkers channel = channels.get(type);
+        if (channel == null) {
+            return false;
+        }
+
+        channel.submit(notification);
+        return true;
+    }
+
+    /**
+     * Notifications waiting in the queue of the channel.
+     */
+    public int getQueuedCount(NotificationType type) {
+        ChannelWorkers channel = channels.get(type);
+        return channel != null ? channel.executor.getQueue().size() : 0;
+    }
+
+    /**
+     * Whether the queue of any channel is full, so a new fan-out would have to wait for room.
+     */
+    public boolean isSaturated() {
+        for (ChannelWorkers channel : channels.values()) {
+            if (channel.executor.getQueue().remainingCapacity() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        channels.values().forEach(channel -> channel.executor.shutdown());
+        for (ChannelWorkers channel : channels.values()) {
+            try {
+                if (!channel.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    log.warn("{} notifications still queued for {} at shutdown", channel.executor.getQueue().size(), channel.name);
+                    channel.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class ChannelWorkers {
+
+        private final NotificationSender sender;
+        private final String name;
+        private final ThreadPoolExecutor executor;
+
+        private ChannelWorkers(NotificationSender sender, String name, int workers, int queueCapacity, long offerTimeoutMs) {
+            this.sender = sender;
+            this.name = name;
+
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(
+                    workers, workers, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "notification-" + name + "-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    // a full queue makes the producer wait for room, for a while, instead of dropping the notification right away
+                    (runnable, pool) -> {
+                        if (pool.isShutdown()) {
+                            throw new RejectedExecutionException("Notification channel " + name + " is shut down");
+                        }
+                        try {
+                            if (!pool.getQueue().offer(runnable, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                                throw new RejectedExecutionException("Notification channel " + name + " stayed full for " + offerTimeoutMs + " ms");
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting for room in notification channel " + name, e);
+                        }
+                    }
+            );
+        }
+
+        private void submit(Notification notification) {
+            executor.execute(() -> {
+                try {
+                    sender.sendNotification(notification);
+                } catch (Exception e) {
+                    log.warn("Failed to send {} notification {}: {}", name, notification.getId(), e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -4,15 +4,21 @@ import com.helios.auctix.domain.notification.Notification;
 import com.helios.auctix.domain.notification.NotificationCategory;
 import com.helios.auctix.domain.notification.NotificationType;
 import com.helios.auctix.repositories.NotificationRepository;
+import com.helios.auctix.domain.user.User;
 import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Executor;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.IntConsumer;
 
 @Log
 @Service
@@ -21,16 +27,22 @@ public class NotificationManagerService {
     private final Map<NotificationType, NotificationSender> senderMap;
     private final NotificationSettingsService notificationSettingsService;
     private final NotificationRepository notificationRepository;
-    private final Executor notificationExecutor;
+    private final NotificationChannelDispatcher channelDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkChunkSize;
 
     public NotificationManagerService(
             List<NotificationSender> senders,
             NotificationSettingsService notificationSettingsService,
             NotificationRepository notificationRepository,
-            Executor notificationExecutor
+            NotificationChannelDispatcher channelDispatcher,
+            PlatformTransactionManager transactionManager,
+            @Value("${auctix.notifications.bulk.chunk-size:500}") int bulkChunkSize
     ) {
         this.notificationSettingsService = notificationSettingsService;
-        this.notificationExecutor = notificationExecutor;
+        this.channelDispatcher = channelDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
         this.senderMap = new HashMap<>();
         this.notificationRepository = notificationRepository;
         for (NotificationSender sender : senders) {
@@ -48,21 +60,79 @@ public class NotificationManagerService {
     }
 
     /***
-     * Handles a bulk list of notifications: saves in batch, sends them in parallel
+     * Handles a bulk list of notifications as a pipeline of fixed size chunks, see {@link #handleBulkNotifications(List, IntConsumer)}.
      * @param notifications List of notifications to send
+     * @throws BulkNotificationRejectedException if a channel rejected part of them
      */
     public void handleBulkNotifications(List<Notification> notifications) {
-        List<Notification> savedNotifications = saveAllNotifications(notifications);
+        handleBulkNotifications(notifications, handled -> {
+        });
+    }
+
+    /***
+     * Handles a bulk list of notifications as a pipeline of fixed size chunks. Each chunk is
+     * saved in its own transaction (as JDBC batches of hibernate.jdbc.batch_size), the preferences of
+     * all its users are resolved at once, and its notifications are queued on the channel dispatcher,
+     * which waits for room when a channel falls behind.
+     * <p>
+     * When a channel rejects a notification, the saved notifications from that one on are deleted again and
+     * nothing more is handled, so the caller can resume the fan-out from the first unhandled notification.
+     * @param notifications List of notifications to send
+     * @param progress called with the number of leading notifications handled, after every chunk and before a rejection is thrown
+     * @throws BulkNotificationRejectedException if a channel rejected part of them
+     */
+    public void handleBulkNotifications(List<Notification> notifications, IntConsumer progress) {
+        int dispatched = 0;
 
-        for (Notification notification : savedNotifications) {
-            notificationExecutor.execute(() -> {
+        for (int from = 0; from < notifications.size(); from += bulkChunkSize) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + bulkChunkSize, notifications.size()));
+
+            List<Notification> savedNotifications = saveAllNotifications(chunk);
+            Map<NotificationCategory, Map<UUID, Set<NotificationType>>> preferences = resolvePreferences(savedNotifications);
+
+            for (int i = 0; i < savedNotifications.size(); i++) {
+                Notification notification = savedNotifications.get(i);
+                Set<NotificationType> types = preferences.get(notification.getNotificationCategory())
+                        .getOrDefault(notification.getUser().getId(), Set.of());
                 try {
-                    sendNotification(notification);
-                } catch (Exception e) {
-                    log.warning("Failed to send notification: " + notification.getId() + " " + e.getMessage());
+                    for (NotificationType type : types) {
+                        if (channelDispatcher.dispatch(type, notification)) {
+                            dispatched++;
+                        }
+                    }
+                } catch (RejectedExecutionException e) {
+                    // this one may be queued on some of its channels already, it is sent again on those when resumed
+                    deleteAllNotifications(savedNotifications.subList(i, savedNotifications.size()));
+                    int handled = from + i;
+                    log.warning("Stopped bulk notifications after " + handled + " of " + notifications.size()
+                            + " (" + dispatched + " deliveries queued): " + e.getMessage());
+                    progress.accept(handled);
+                    throw new BulkNotificationRejectedException(handled, notifications.size(), e);
                 }
-            });
+            }
+            progress.accept(from + chunk.size());
         }
+
+        log.info("Saved " + notifications.size() + " bulk notifications and queued " + dispatched + " deliveries");
+    }
+
+    /**
+     * Resolves the preferences of all recipients in bulk, per category.
+     *
+     * @return the channels enabled per category and user
+     */
+    private Map<NotificationCategory, Map<UUID, Set<NotificationType>>> resolvePreferences(List<Notification> notifications) {
+        // by id, the entity equals compares every field
+        Map<NotificationCategory, Map<UUID, User>> usersByCategory = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            usersByCategory.computeIfAbsent(notification.getNotificationCategory(), category -> new LinkedHashMap<>())
+                    .putIfAbsent(notification.getUser().getId(), notification.getUser());
+        }
+
+        Map<NotificationCategory, Map<UUID, Set<NotificationType>>> preferences = new HashMap<>();
+        usersByCategory.forEach((category, users) ->
+                preferences.put(category, notificationSettingsService.resolveNotificationPreferences(category, users.values())));
+        return preferences;
     }
 
     /**
@@ -86,9 +156,17 @@ public class NotificationManagerService {
     /**
      * Saves a batch of notifications in one transaction.
      */
-    @Transactional
     private List<Notification> saveAllNotifications(List<Notification> notifications) {
-        return notificationRepository.saveAll(notifications);
+        // a programmatic transaction, since @Transactional does not apply to calls from within the class
+        return transactionTemplate.execute(status -> {
+            List<Notification> saved = notificationRepository.saveAll(notifications);
+            notificationRepository.flush();
+            return saved;
+        });
+    }
+
+    private void deleteAllNotifications(List<Notification> notifications) {
+        transactionTemplate.executeWithoutResult(status -> notificationRepository.deleteAllInBatch(notifications));
     }
 
 
@@ -0,0 +1,86 @@
+package com.helios.auctix.services.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled notification preference masks by user id, see {@link NotificationPreferenceMask}.
+ * <p>
+ * Holds at most {@code max-size} users, least recently used out first. {@link NotificationSettingsService}
+ * invalidates a user when they save their preferences; the {@code ttl-ms} expiry covers saves made on
+ * another instance and changes to the preference defaults.
+ */
+@Component
+class NotificationPreferenceCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    // counts invalidations, a mask compiled while one happened is not stored since it may predate the save
+    private long version;
+
+    private final LinkedHashMap<UUID, Entry> masks;
+
+    NotificationPreferenceCache(
+            @Value("${auctix.notifications.preference-cache.max-size:50000}") int maxSize,
+            @Value("${auctix.notifications.preference-cache.ttl-ms:600000}") long ttlMillis
+    ) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.masks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > NotificationPreferenceCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * The cached masks of the users that have a live entry, the others are left out.
+     */
+    synchronized Map<UUID, Long> getAll(Iterable<UUID> userIds) {
+        Map<UUID, Long> found = new HashMap<>();
+        long now = System.nanoTime();
+        for (UUID userId : userIds) {
+            Entry entry = masks.get(userId);
+            if (entry == null) {
+                continue;
+            }
+            if (entry.expiresAt() - now > 0) {
+                found.put(userId, entry.mask());
+            } else {
+                masks.remove(userId);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Version to pass to {@link #putAll}, read before loading the preferences the masks are compiled from.
+     */
+    synchronized long version() {
+        return version;
+    }
+
+    synchronized void putAll(Map<UUID, Long> compiled, long loadedAtVersion) {
+        if (loadedAtVersion != version) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + ttlNanos;
+        compiled.forEach((userId, mask) -> masks.put(userId, new Entry(mask, expiresAt)));
+    }
+
+    synchronized void invalidate(UUID userId) {
+        version++;
+        masks.remove(userId);
+    }
+
+    private record Entry(long mask, long expiresAt) {
+    }
+}
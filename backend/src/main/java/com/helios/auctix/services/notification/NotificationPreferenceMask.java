@@ -0,0 +1,46 @@
+package com.helios.auctix.services.notification;
+
+import com.helios.auctix.domain.notification.NotificationCategory;
+import com.helios.auctix.domain.notification.NotificationType;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The resolved notification preferences of a user packed into one {@code long}: one bit per
+ * category and notification type, set when notifications of the category go out on that type.
+ */
+final class NotificationPreferenceMask {
+
+    private static final NotificationType[] TYPES = NotificationType.values();
+
+    static {
+        if (NotificationCategory.values().length * TYPES.length > Long.SIZE) {
+            throw new IllegalStateException("Too many notification categories and types to fit a preference mask");
+        }
+    }
+
+    private NotificationPreferenceMask() {
+    }
+
+    static long with(long mask, NotificationCategory category, Set<NotificationType> types) {
+        for (NotificationType type : types) {
+            mask |= bit(category, type);
+        }
+        return mask;
+    }
+
+    static Set<NotificationType> typesOf(long mask, NotificationCategory category) {
+        Set<NotificationType> types = EnumSet.noneOf(NotificationType.class);
+        for (NotificationType type : TYPES) {
+            if ((mask & bit(category, type)) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    private static long bit(NotificationCategory category, NotificationType type) {
+        return 1L << (category.ordinal() * TYPES.length + type.ordinal());
+    }
+}
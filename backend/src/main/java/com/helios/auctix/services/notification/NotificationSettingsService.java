@@ -32,110 +32,151 @@ public class NotificationSettingsService {
     private final NotificationPreferenceResponseDTOMapper preferencesDTOMapper;
     private final NotificationPreferenceDefaultsProperties preferenceDefaultsProperties;
     private final ObjectMapper objectMapper;
+    private final NotificationPreferenceCache preferenceCache;
 
     public NotificationSettingsService(
             NotificationGlobalPreferencesRepository notificationGlobalPreferencesRepository,
             NotificationEventPreferencesRepository notificationEventPreferencesRepository,
             NotificationPreferenceResponseDTOMapper preferencesDTOMapper,
             ObjectMapper objectMapper,
-            NotificationPreferenceDefaultsProperties preferenceDefaultsProperties) {
+            NotificationPreferenceDefaultsProperties preferenceDefaultsProperties,
+            NotificationPreferenceCache preferenceCache) {
         this.notificationGlobalPreferencesRepository = notificationGlobalPreferencesRepository;
         this.notificationEventPreferencesRepository = notificationEventPreferencesRepository;
         this.preferencesDTOMapper = preferencesDTOMapper;
         this.objectMapper = objectMapper;
         this.preferenceDefaultsProperties = preferenceDefaultsProperties;
+        this.preferenceCache = preferenceCache;
     }
 
     public Set<NotificationType> resolveNotificationPreference(NotificationCategory category, User user) {
-        Set<NotificationType> enabledNotificationTypesForEvent = new HashSet<>();
-        Set<NotificationType> globallyEnabledNotificationTypes = new HashSet<>();
+        return resolveNotificationPreferences(category, List.of(user)).get(user.getId());
+    }
 
-        // sanity check
-        if (category.isNotAllowedTo(user.getRoleEnum())) {
-            return Collections.emptySet();
+    /**
+     * Resolves the notification types of a category for many users at once.
+     * <p>
+     * The preferences of a user are compiled into a {@link NotificationPreferenceMask} covering every category,
+     * and cached until the user saves new ones. The users missing from the cache are loaded together,
+     * with one query per preference table.
+     *
+     * @return the enabled notification types by user id, every given user has an entry
+     */
+    public Map<UUID, Set<NotificationType>> resolveNotificationPreferences(NotificationCategory category, Collection<User> users) {
+        Map<UUID, Set<NotificationType>> resolved = new HashMap<>();
+
+        Map<UUID, User> allowedUsers = new LinkedHashMap<>();
+        for (User user : users) {
+            // sanity check
+            if (category.isNotAllowedTo(user.getRoleEnum())) {
+                resolved.put(user.getId(), Collections.emptySet());
+            } else {
+                allowedUsers.put(user.getId(), user);
+            }
+        }
+        if (allowedUsers.isEmpty()) {
+            return resolved;
         }
 
-        try {
+        Map<UUID, Long> masks = preferenceCache.getAll(allowedUsers.keySet());
 
-            // Check the preferences for event categories
-            Optional<NotificationEventPreference> eventPreference = notificationEventPreferencesRepository.findByUserId(user.getId());
-            if (eventPreference.isPresent()) {
-                // settings will be a string of   {"PROMO" : { "EMAIL": true, "PUSH": false }, "BID_WIN" : { "EMAIL": true, "PUSH": false } }
-                Map<NotificationCategory, Map<NotificationType, Boolean>> eventPreferenceSettings = getSettingsNotificationTypesForEventCategories(eventPreference.get().getSettings());
-
-                Map<NotificationType, Boolean> categorySettings = eventPreferenceSettings.get(category);
-                if (categorySettings != null) {
-                    for (Map.Entry<NotificationType, Boolean> entry : categorySettings.entrySet()) {
-                        if (Boolean.TRUE.equals(entry.getValue())) {
-                            enabledNotificationTypesForEvent.add(entry.getKey());
-                        }
-                    }
-                }
-            } else {
-                // fall back is default notification preferences when there is no event category settings
-                log.info( "Fallback to default preferences for category");
-                enabledNotificationTypesForEvent = preferenceDefaultsProperties.getEnabledDefaultNotificationTypesForCategory(category);
-            }
+        List<User> uncached = allowedUsers.values().stream()
+                .filter(user -> !masks.containsKey(user.getId()))
+                .toList();
+        if (!uncached.isEmpty()) {
+            Map<UUID, Long> compiled = compilePreferences(uncached);
+            masks.putAll(compiled);
+        }
 
-            // Get the global notification preferences set for the user
-            Optional<NotificationGlobalPreference> globalPreference = notificationGlobalPreferencesRepository.findByUserId(user.getId());
-            if (globalPreference.isPresent()) {
-                Map<NotificationType, Boolean> globalNotificationPreference = getSettingsGlobalNotificationPreference(globalPreference.get().getSettings());
+        for (UUID userId : allowedUsers.keySet()) {
+            resolved.put(userId, NotificationPreferenceMask.typesOf(masks.get(userId), category));
+        }
+        return resolved;
+    }
 
-                globallyEnabledNotificationTypes = globalNotificationPreference.entrySet().stream()
-                        .filter(entry -> Boolean.TRUE.equals(entry.getValue()))
-                        .map(Map.Entry::getKey) // get the NotificationType
-                        .collect(Collectors.toSet());
-            } else {
-                log.info("Fallback to default global preferences");
-                globallyEnabledNotificationTypes = preferenceDefaultsProperties.getEnabledGlobalDefaults();
-            }
+    /**
+     * Loads the preferences of the users with one query per preference table, compiles them and caches the masks.
+     */
+    private Map<UUID, Long> compilePreferences(List<User> users) {
+        long cacheVersion = preferenceCache.version();
+        List<UUID> userIds = users.stream().map(User::getId).toList();
 
-            // if a NotificationType is missing in the user's settings string we have to handle it by checking if that is enabled in the default preferences
-            for (NotificationType type : NotificationType.values()) {
+        Map<UUID, NotificationEventPreference> eventPreferences = new HashMap<>();
+        for (NotificationEventPreference preference : notificationEventPreferencesRepository.findByUserIdIn(userIds)) {
+            eventPreferences.put(preference.getUser().getId(), preference);
+        }
+        Map<UUID, NotificationGlobalPreference> globalPreferences = new HashMap<>();
+        for (NotificationGlobalPreference preference : notificationGlobalPreferencesRepository.findByUserIdIn(userIds)) {
+            globalPreferences.put(preference.getUser().getId(), preference);
+        }
 
-                // Check missing in event preferences
-                if (eventPreference.isPresent()) {
-                    Map<NotificationCategory, Map<NotificationType, Boolean>> eventPreferenceSettings = getSettingsNotificationTypesForEventCategories(eventPreference.get().getSettings());
-                    Map<NotificationType, Boolean> categorySettings = eventPreferenceSettings.get(category);
-                    if (categorySettings == null || !categorySettings.containsKey(type)) {
-                        // Missing: check default for this category and add if enabled
-                        Set<NotificationType> defaultEventTypes = preferenceDefaultsProperties.getEnabledDefaultNotificationTypesForCategory(category);
-                        if (defaultEventTypes.contains(type)) {
-                            enabledNotificationTypesForEvent.add(type);
-                        }
-                    }
-                } else {
-                    // No event preference, already fallback to default earlier
+        Map<UUID, Long> compiled = new HashMap<>();
+        for (User user : users) {
+            compiled.put(user.getId(), compilePreferences(
+                    user, eventPreferences.get(user.getId()), globalPreferences.get(user.getId())));
+        }
+
+        preferenceCache.putAll(compiled, cacheVersion);
+        return compiled;
+    }
+
+    /**
+     * Resolves the notification types of every category from the loaded preferences of a user, parsing each
+     * settings document once. A missing preference, or a notification type missing from it, falls back to the defaults.
+     */
+    private long compilePreferences(User user, NotificationEventPreference eventPreference, NotificationGlobalPreference globalPreference) {
+        Map<NotificationCategory, Map<NotificationType, Boolean>> eventPreferenceSettings;
+        Map<NotificationType, Boolean> globalNotificationPreference;
+        try {
+            // settings will be a string of   {"PROMO" : { "EMAIL": true, "PUSH": false }, "BID_WIN" : { "EMAIL": true, "PUSH": false } }
+            eventPreferenceSettings = eventPreference != null ? getSettingsNotificationTypesForEventCategories(eventPreference.getSettings()) : null;
+            globalNotificationPreference = globalPreference != null ? getSettingsGlobalNotificationPreference(globalPreference.getSettings()) : null;
+        } catch (JsonProcessingException e) {
+            log.error("Error resolving notification preferences for user {}. Falling back to defaults. Error: {}", user.getUsername(), e.getMessage());
+            long mask = 0;
+            for (NotificationCategory category : NotificationCategory.values()) {
+                mask = NotificationPreferenceMask.with(mask, category, preferenceDefaultsProperties.getEnabledDefaultNotificationTypesForCategory(category));
+            }
+            return mask;
+        }
+
+        // Get the global notification preferences set for the user, falling back to the default global preferences
+        Set<NotificationType> globallyEnabledNotificationTypes = new HashSet<>();
+        Set<NotificationType> defaultGlobalTypes = preferenceDefaultsProperties.getEnabledGlobalDefaults();
+        for (NotificationType type : NotificationType.values()) {
+            if (globalNotificationPreference != null && globalNotificationPreference.containsKey(type)) {
+                if (Boolean.TRUE.equals(globalNotificationPreference.get(type))) {
+                    globallyEnabledNotificationTypes.add(type);
                 }
+            } else if (defaultGlobalTypes.contains(type)) {
+                // Missing NotificationType: check default global preferences and add if enabled
+                globallyEnabledNotificationTypes.add(type);
+            }
+        }
+
+        long mask = 0;
+        for (NotificationCategory category : NotificationCategory.values()) {
+            Map<NotificationType, Boolean> categorySettings = eventPreferenceSettings != null ? eventPreferenceSettings.get(category) : null;
+            Set<NotificationType> defaultEventTypes = preferenceDefaultsProperties.getEnabledDefaultNotificationTypesForCategory(category);
 
-                // Check missing NotificationType in global preferences
-                if (globalPreference.isPresent()) {
-                    Map<NotificationType, Boolean> globalNotificationPreference = getSettingsGlobalNotificationPreference(globalPreference.get().getSettings());
-                    if (!globalNotificationPreference.containsKey(type)) {
-                        // Missing NotificationType: check default global preferences and add if enabled
-                        Set<NotificationType> defaultGlobalTypes = preferenceDefaultsProperties.getEnabledGlobalDefaults();
-                        if (defaultGlobalTypes.contains(type)) {
-                            globallyEnabledNotificationTypes.add(type);
-                        }
+            Set<NotificationType> enabledNotificationTypesForEvent = new HashSet<>();
+            for (NotificationType type : NotificationType.values()) {
+                if (categorySettings != null && categorySettings.containsKey(type)) {
+                    if (Boolean.TRUE.equals(categorySettings.get(type))) {
+                        enabledNotificationTypesForEvent.add(type);
                     }
-                } else {
-                    // No global preference, fallback to default global preferences already done earlier
+                } else if (defaultEventTypes.contains(type)) {
+                    // Missing: check default for this category and add if enabled
+                    enabledNotificationTypesForEvent.add(type);
                 }
             }
 
             // Filter so that global preference overrides, event preference
             // Only include notification types that are enabled both at event level and globally
-            return enabledNotificationTypesForEvent.stream()
-                    .filter(globallyEnabledNotificationTypes::contains)
-                    .collect(Collectors.toSet());
-
-
-        } catch (JsonProcessingException e) {
-            log.error("Error resolving notification preferences for user {} for category {}. Falling back to defaults. Error: {}", user.getUsername(), category, e.getMessage());
-//            e.printStackTrace();
-            return preferenceDefaultsProperties.getEnabledDefaultNotificationTypesForCategory(category);
+            enabledNotificationTypesForEvent.retainAll(globallyEnabledNotificationTypes);
+            mask = NotificationPreferenceMask.with(mask, category, enabledNotificationTypesForEvent);
         }
+        return mask;
     }
 
     /**
@@ -250,6 +291,8 @@ public class NotificationSettingsService {
                 notificationEventPreferencesRepository.save(existingEventPref);
             }
         }
+
+        preferenceCache.invalidate(user.getId());
     }
 
     /**
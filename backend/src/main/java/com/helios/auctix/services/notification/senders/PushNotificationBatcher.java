@@ -0,0 +1,185 @@
+package com.helios.auctix.services.notification.senders;
+
+import com.helios.auctix.services.FirebaseCloudMessageService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Groups push notifications with the same title, body and url across users, and sends each group
+ * as FCM multicast messages of up to {@link FirebaseCloudMessageService#MAX_MULTICAST_TOKENS} tokens.
+ * <p>
+ * A group is sent {@code linger-ms} after its first notification, or right away once it has enough
+ * users to fill a multicast. The tokens of all users of a group are loaded with one query, and the tokens
+ * FCM reports as unregistered are deactivated with one update per group.
+ * <p>
+ * Lingering groups are sent by a pool of {@code sender-threads}. At most {@code max-pending-users} users wait
+ * in groups: when they are all taken, {@link #enqueue} waits for the senders to take groups, for at most
+ * {@code auctix.notifications.channel.offer-timeout-ms}, so the push channel workers and through them the
+ * fan-out slow down to the pace of FCM. A full group is sent on the caller's thread, a channel worker.
+ */
+@Slf4j
+@Component
+public class PushNotificationBatcher {
+
+    private final FirebaseCloudMessageService firebaseCloudMessageService;
+    private final long lingerMillis;
+    private final int maxPendingUsers;
+    private final long offerTimeoutMillis;
+    // a flush is only scheduled for a new group, so at most one task per pending group waits in its queue
+    private final ScheduledExecutorService flusher;
+
+    // guarded by itself, which is also waited on for room
+    private final Map<PushPayload, Set<UUID>> pending = new HashMap<>();
+    private int pendingUsers;
+    private volatile boolean running = true;
+
+    public PushNotificationBatcher(
+            FirebaseCloudMessageService firebaseCloudMessageService,
+            @Value("${auctix.notifications.push.linger-ms:200}") long lingerMillis,
+            @Value("${auctix.notifications.push.sender-threads:4}") int senderThreads,
+            @Value("${auctix.notifications.push.max-pending-users:10000}") int maxPendingUsers,
+            @Value("${auctix.notifications.channel.offer-timeout-ms:5000}") long offerTimeoutMillis
+    ) {
+        this.firebaseCloudMessageService = firebaseCloudMessageService;
+        this.lingerMillis = lingerMillis;
+        this.maxPendingUsers = maxPendingUsers;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.flusher = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "push-batcher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a push notification to all active devices of the user, waiting while too many users are pending.
+     *
+     * @throws RejectedExecutionException if no room came up within the offer timeout, or the batcher is shutting down
+     */
+    public void enqueue(UUID userId, String title, String body, String fullUrl) {
+        PushPayload payload = new PushPayload(title, body, fullUrl);
+        Set<UUID> full = null;
+        boolean first = false;
+
+        synchronized (pending) {
+            awaitRoom();
+
+            Set<UUID> userIds = pending.get(payload);
+            if (userIds == null) {
+                userIds = new HashSet<>();
+                pending.put(payload, userIds);
+                first = true;
+            }
+            if (userIds.add(userId)) {
+                pendingUsers++;
+            }
+
+            // users usually have one or two devices, so this many users fill a multicast
+            if (userIds.size() >= FirebaseCloudMessageService.MAX_MULTICAST_TOKENS) {
+                full = take(payload);
+            }
+        }
+
+        if (full != null) {
+            // sent on the caller's thread, which slows the producer down to the pace of FCM
+            send(payload, full);
+        } else if (first) {
+            flusher.schedule(() -> flush(payload), lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // called holding the pending lock
+    private void awaitRoom() {
+        if (!running) {
+            throw new RejectedExecutionException("Push batcher is shut down");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        while (pendingUsers >= maxPendingUsers) {
+            if (!running) {
+                throw new RejectedExecutionException("Push batcher is shut down");
+            }
+            long wait = deadline - System.nanoTime();
+            if (wait <= 0) {
+                throw new RejectedExecutionException("Push batcher stayed full for " + offerTimeoutMillis + " ms");
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(pending, wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for room in the push batcher", e);
+            }
+        }
+    }
+
+    // called holding the pending lock, makes room for the waiting producers
+    private Set<UUID> take(PushPayload payload) {
+        Set<UUID> userIds = pending.remove(payload);
+        if (userIds != null) {
+            pendingUsers -= userIds.size();
+            pending.notifyAll();
+        }
+        return userIds;
+    }
+
+    private void flush(PushPayload payload) {
+        Set<UUID> userIds;
+        synchronized (pending) {
+            userIds = take(payload);
+        }
+        if (userIds != null) {
+            send(payload, userIds);
+        }
+    }
+
+    private void send(PushPayload payload, Set<UUID> userIds) {
+        try {
+            List<String> tokens = firebaseCloudMessageService.getActiveFCMTokensForUsers(userIds);
+
+            List<String> deadTokens = new ArrayList<>();
+            for (int from = 0; from < tokens.size(); from += FirebaseCloudMessageService.MAX_MULTICAST_TOKENS) {
+                List<String> batch = tokens.subList(from, Math.min(from + FirebaseCloudMessageService.MAX_MULTICAST_TOKENS, tokens.size()));
+                deadTokens.addAll(firebaseCloudMessageService.sendMulticast(batch, payload.title(), payload.body(), payload.fullUrl()));
+            }
+
+            if (!deadTokens.isEmpty()) {
+                int deactivated = firebaseCloudMessageService.deactivateTokens(deadTokens);
+                log.info("Deactivated {} unregistered FCM tokens", deactivated);
+            }
+        } catch (Exception e) {
+            log.error("Failed to send push notification '{}' to {} users: {}", payload.title(), userIds.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // send what is still waiting rather than dropping it
+        running = false;
+        flusher.shutdownNow();
+        List<PushPayload> payloads;
+        synchronized (pending) {
+            pending.notifyAll();
+            payloads = new ArrayList<>(pending.keySet());
+        }
+        payloads.forEach(this::flush);
+    }
+
+    private record PushPayload(String title, String body, String fullUrl) {
+    }
+}
@@ -3,26 +3,24 @@ package com.helios.auctix.services.notification.senders;
 import com.helios.auctix.config.AuctixProperties;
 import com.helios.auctix.domain.notification.Notification;
 import com.helios.auctix.domain.notification.NotificationType;
-import com.helios.auctix.domain.user.UserFCMToken;
-import com.helios.auctix.services.FirebaseCloudMessageService;
 import com.helios.auctix.services.notification.NotificationSender;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 @Component
 public class PushNotificationSender implements NotificationSender {
 
     /*
      * Push notifications using Firebase Cloud Messaging
      *
+     * Notifications with the same title, content and url are batched across users by the
+     * PushNotificationBatcher and sent as multicast messages.
      */
 
-    private final FirebaseCloudMessageService firebaseCloudMessageService;
+    private final PushNotificationBatcher pushNotificationBatcher;
     private final AuctixProperties auctixProperties;
 
-    public PushNotificationSender(FirebaseCloudMessageService firebaseCloudMessageService, AuctixProperties auctixProperties) {
-        this.firebaseCloudMessageService = firebaseCloudMessageService;
+    public PushNotificationSender(PushNotificationBatcher pushNotificationBatcher, AuctixProperties auctixProperties) {
+        this.pushNotificationBatcher = pushNotificationBatcher;
         this.auctixProperties = auctixProperties;
     }
 
@@ -35,21 +33,16 @@ public class PushNotificationSender implements NotificationSender {
     @Override
     public void sendNotification(Notification notification) {
 
-        List<UserFCMToken> fcmTokensForUser = firebaseCloudMessageService.getActiveFCMTokensForUser(notification.getUser());
-
         String url = notification.getPartialUrl();
         String fullUrl = auctixProperties.convertToFullUrl(url);
 
-        // Send to all 'active' tokens, if the client is unregistered or token has been expired it will throw an exception
-        // that will be handled by the FirebaseCloudMessageService and it will be removing the token from the database
-        for (UserFCMToken userFCMToken : fcmTokensForUser) {
-            firebaseCloudMessageService.sendNotification(
-                    userFCMToken.getFcmToken(),
-                    notification.getTitle(),
-                    notification.getContent(),
-                    fullUrl
-            );
-        }
+        // Sent to all 'active' tokens of the user, tokens FCM reports as unregistered are deactivated
+        pushNotificationBatcher.enqueue(
+                notification.getUser().getId(),
+                notification.getTitle(),
+                notification.getContent(),
+                fullUrl
+        );
 
         // TODO optionally we could save delivery status
     }
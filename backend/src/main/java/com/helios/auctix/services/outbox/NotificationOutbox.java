@@ -0,0 +1,106 @@
+package com.helios.auctix.services.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helios.auctix.domain.notification.NotificationCategory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Records notifications in the outbox table, in the transaction of the change they are about.
+ * <p>
+ * They are only delivered once that transaction commits, and they are delivered even if the node goes down
+ * right after the commit: the {@link OutboxRelay} picks them up from the table. The notification work
+ * (user lookups, preferences, sending) happens on the relay, not in the committing request.
+ * <p>
+ * Must run inside the caller's transaction, a rollback discards the notifications with the change.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO outbox_events (id, event_type, payload) VALUES (?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Notifies one user, see {@link com.helios.auctix.events.notification.NotificationEventPublisher}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyUser(
+            String title,
+            String message,
+            NotificationCategory category,
+            UUID userId,
+            @Nullable String partialUrl
+    ) {
+        insert(OutboxEventType.USER_NOTIFICATION, new UserNotification(title, message, category, userId, partialUrl));
+    }
+
+    /**
+     * Notifies the users watching the auction, see {@link com.helios.auctix.services.WatchListNotifyService}.
+     *
+     * @param excludeUserIds nullable users not to notify even if they watch the auction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyWatchers(
+            UUID auctionId,
+            @Nullable Collection<UUID> excludeUserIds,
+            String title,
+            String message,
+            NotificationCategory category,
+            @Nullable String partialUrl
+    ) {
+        List<UUID> excluded = excludeUserIds != null ? List.copyOf(excludeUserIds) : List.of();
+        insert(OutboxEventType.WATCHER_NOTIFICATION, new WatcherNotification(auctionId, excluded, title, message, category, partialUrl, null));
+    }
+
+    private void insert(OutboxEventType type, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize " + type + " outbox event", e);
+        }
+        jdbcTemplate.update(INSERT_EVENT_SQL, UUID.randomUUID(), type.name(), json);
+    }
+
+    record UserNotification(
+            String title,
+            String message,
+            NotificationCategory category,
+            UUID userId,
+            @Nullable String partialUrl
+    ) {
+    }
+
+    /**
+     * @param resumeAfterUserId the last watcher notified, written back by the relay as a fan-out progresses
+     */
+    record WatcherNotification(
+            UUID auctionId,
+            List<UUID> excludeUserIds,
+            String title,
+            String message,
+            NotificationCategory category,
+            @Nullable String partialUrl,
+            @Nullable UUID resumeAfterUserId
+    ) {
+        WatcherNotification resumingAfter(UUID userId) {
+            return new WatcherNotification(auctionId, excludeUserIds, title, message, category, partialUrl, userId);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.helios.auctix.services.outbox;
+
+/**
+ * The kinds of events in the outbox table, stored by name.
+ */
+enum OutboxEventType {
+    USER_NOTIFICATION,
+    WATCHER_NOTIFICATION
+}
@@ -0,0 +1,284 @@
+package com.helios.auctix.services.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.helios.auctix.domain.user.User;
+import com.helios.auctix.events.notification.NotificationEventPublisher;
+import com.helios.auctix.repositories.UserRepository;
+import com.helios.auctix.services.WatchListNotifyService;
+import com.helios.auctix.services.notification.NotificationChannelDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the events of the outbox table written by {@link NotificationOutbox} into the notification pipeline.
+ * <p>
+ * Every {@code poll-delay-ms}, claims up to {@code batch-size} due events with {@code FOR UPDATE SKIP LOCKED},
+ * so the relays of several nodes share the table without waiting on each other, and keeps claiming while
+ * it gets full batches. A claim pushes {@code available_at} out by {@code lease-ms}: if the node dies before
+ * it is done, the events become due again and another relay delivers them, so delivery is at least once.
+ * The lease is renewed while a batch takes long, and every update of a claimed event is fenced by its
+ * {@code claim_id}, so a relay that lost its lease stops instead of checkpointing or deleting the event again.
+ * <p>
+ * Delivered events are deleted. A failed event is retried with a doubling backoff, and after
+ * {@code max-attempts} it is marked failed and left in the table with its last error.
+ * <p>
+ * A watcher fan-out runs on the relay's scheduler thread, a chunk at a time, and writes the last watcher it reached
+ * back into the payload after every chunk. When a notification channel stays full it stops there, and the event is
+ * retried after {@code back-pressure-delay-ms}, resuming after that watcher. Back pressure does not use up
+ * an attempt, the event is only given up on for real failures.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String CLAIM_SQL =
+            "UPDATE outbox_events SET available_at = now() + ? * INTERVAL '1 millisecond', attempts = attempts + 1, claim_id = ? " +
+            "WHERE id IN (SELECT id FROM outbox_events WHERE failed_at IS NULL AND available_at <= now() " +
+            "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, event_type, payload, attempts, created_at";
+
+    private static final String RENEW_SQL =
+            "UPDATE outbox_events SET available_at = now() + ? * INTERVAL '1 millisecond' WHERE claim_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ? AND claim_id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE outbox_events SET available_at = now() + ? * INTERVAL '1 millisecond', last_error = ? WHERE id = ? AND claim_id = ?";
+
+    private static final String BACK_PRESSURE_SQL =
+            "UPDATE outbox_events SET available_at = now() + ? * INTERVAL '1 millisecond', attempts = attempts - 1, last_error = ? " +
+            "WHERE id = ? AND claim_id = ?";
+
+    private static final String CHECKPOINT_SQL = "UPDATE outbox_events SET payload = ?::jsonb WHERE id = ? AND claim_id = ?";
+
+    private static final String FAIL_SQL = "UPDATE outbox_events SET failed_at = now(), last_error = ? WHERE id = ? AND claim_id = ?";
+
+    private static final long MAX_BACKOFF_MS = 300_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final NotificationEventPublisher notificationEventPublisher;
+    private final WatchListNotifyService watchListNotifyService;
+    private final NotificationChannelDispatcher channelDispatcher;
+    private final int batchSize;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long backPressureDelayMillis;
+
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            UserRepository userRepository,
+            NotificationEventPublisher notificationEventPublisher,
+            WatchListNotifyService watchListNotifyService,
+            NotificationChannelDispatcher channelDispatcher,
+            @Value("${auctix.outbox.batch-size:100}") int batchSize,
+            @Value("${auctix.outbox.lease-ms:60000}") long leaseMillis,
+            @Value("${auctix.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${auctix.outbox.initial-backoff-ms:1000}") long initialBackoffMillis,
+            @Value("${auctix.outbox.back-pressure-delay-ms:5000}") long backPressureDelayMillis
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.notificationEventPublisher = notificationEventPublisher;
+        this.watchListNotifyService = watchListNotifyService;
+        this.channelDispatcher = channelDispatcher;
+        this.batchSize = batchSize;
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.backPressureDelayMillis = backPressureDelayMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${auctix.outbox.poll-delay-ms:250}")
+    public void drain() {
+        List<ClaimedEvent> batch;
+        do {
+            Claim claim = new Claim();
+            // the claim commits on its own, the events are then delivered outside of any transaction like the after commit callbacks were
+            batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new ClaimedEvent(
+                    rs.getObject("id", UUID.class),
+                    rs.getString("event_type"),
+                    rs.getString("payload"),
+                    rs.getInt("attempts"),
+                    rs.getTimestamp("created_at"),
+                    claim
+            ), leaseMillis, claim.id, batchSize);
+
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void deliver(List<ClaimedEvent> batch) {
+        // RETURNING does not keep the order of the subquery
+        batch.sort(Comparator.comparing(ClaimedEvent::createdAt));
+
+        Map<UUID, User> users = loadNotifiedUsers(batch);
+
+        List<ClaimedEvent> delivered = new ArrayList<>();
+        for (ClaimedEvent event : batch) {
+            // an earlier fan-out of the batch may have taken a while
+            event.claim().renewIfHalfGone();
+            try {
+                dispatch(event, users);
+                delivered.add(event);
+            } catch (ClaimLostException e) {
+                log.warn(e.getMessage());
+            } catch (Exception e) {
+                failed(event, e);
+            }
+        }
+
+        if (!delivered.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, delivered, delivered.size(), (ps, event) -> {
+                ps.setObject(1, event.id());
+                ps.setObject(2, event.claim().id);
+            });
+        }
+    }
+
+    // the users of all user notifications in the batch, in one query
+    private Map<UUID, User> loadNotifiedUsers(List<ClaimedEvent> batch) {
+        Set<UUID> userIds = new HashSet<>();
+        for (ClaimedEvent event : batch) {
+            if (OutboxEventType.USER_NOTIFICATION.name().equals(event.type())) {
+                try {
+                    userIds.add(objectMapper.readValue(event.payload(), NotificationOutbox.UserNotification.class).userId());
+                } catch (Exception e) {
+                    // reported when the event is dispatched
+                }
+            }
+        }
+
+        Map<UUID, User> users = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userRepository.findAllById(userIds).forEach(user -> users.put(user.getId(), user));
+        }
+        return users;
+    }
+
+    private void dispatch(ClaimedEvent event, Map<UUID, User> users) throws Exception {
+        switch (OutboxEventType.valueOf(event.type())) {
+            case USER_NOTIFICATION -> {
+                NotificationOutbox.UserNotification notification =
+                        objectMapper.readValue(event.payload(), NotificationOutbox.UserNotification.class);
+                User user = users.get(notification.userId());
+                if (user == null) {
+                    log.warn("User {} of outbox event {} no longer exists, dropping it", notification.userId(), event.id());
+                    return;
+                }
+                notificationEventPublisher.publishNotificationEvent(
+                        notification.title(),
+                        notification.message(),
+                        notification.category(),
+                        user,
+                        notification.partialUrl()
+                );
+            }
+            case WATCHER_NOTIFICATION -> {
+                if (channelDispatcher.isSaturated()) {
+                    throw new RejectedExecutionException("Notification channels are full");
+                }
+                NotificationOutbox.WatcherNotification notification =
+                        objectMapper.readValue(event.payload(), NotificationOutbox.WatcherNotification.class);
+                watchListNotifyService.notifySubscribers(
+                        notification.auctionId(),
+                        notification.excludeUserIds(),
+                        notification.title(),
+                        notification.message(),
+                        notification.category(),
+                        notification.partialUrl(),
+                        notification.resumeAfterUserId(),
+                        lastUserId -> checkpoint(event, notification.resumingAfter(lastUserId))
+                );
+            }
+        }
+    }
+
+    // the watchers up to here are notified, a retry starts after them
+    private void checkpoint(ClaimedEvent event, NotificationOutbox.WatcherNotification progress) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(progress);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the progress of outbox event " + event.id(), e);
+        }
+        if (jdbcTemplate.update(CHECKPOINT_SQL, payload, event.id(), event.claim().id) == 0) {
+            // the lease ran out and another relay claimed the event, it carries on from the previous checkpoint
+            throw new ClaimLostException(event);
+        }
+        // a fan-out can take longer than the lease, keep the whole batch claimed while it runs
+        event.claim().renew();
+    }
+
+    private void failed(ClaimedEvent event, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (e instanceof RejectedExecutionException) {
+            // a full or stopping notification channel, not a failure of the event
+            log.info("Notification channels are busy, retrying outbox event {} ({}) in {} ms: {}", event.id(), event.type(), backPressureDelayMillis, error);
+            jdbcTemplate.update(BACK_PRESSURE_SQL, backPressureDelayMillis, error, event.id(), event.claim().id);
+            return;
+        }
+
+        if (event.attempts() >= maxAttempts) {
+            log.error("Giving up on outbox event {} ({}) after {} attempts: {}", event.id(), event.type(), event.attempts(), error);
+            jdbcTemplate.update(FAIL_SQL, error, event.id(), event.claim().id);
+            return;
+        }
+
+        long backoff = Math.min(initialBackoffMillis << (event.attempts() - 1), MAX_BACKOFF_MS);
+        log.warn("Failed to deliver outbox event {} ({}), retrying in {} ms: {}", event.id(), event.type(), backoff, error);
+        jdbcTemplate.update(RETRY_SQL, backoff, error, event.id(), event.claim().id);
+    }
+
+    /**
+     * One claim of a batch of events, its id fences the updates of the events.
+     */
+    private final class Claim {
+
+        private final UUID id = UUID.randomUUID();
+        private long renewedAt = System.nanoTime();
+
+        void renewIfHalfGone() {
+            if (System.nanoTime() - renewedAt > TimeUnit.MILLISECONDS.toNanos(leaseMillis) / 2) {
+                renew();
+            }
+        }
+
+        void renew() {
+            jdbcTemplate.update(RENEW_SQL, leaseMillis, id);
+            renewedAt = System.nanoTime();
+        }
+    }
+
+    private static final class ClaimLostException extends RuntimeException {
+
+        private ClaimLostException(ClaimedEvent event) {
+            super("Lost the claim of outbox event " + event.id() + " (" + event.type() + ") to another relay, stopped delivering it");
+        }
+    }
+
+    private record ClaimedEvent(UUID id, String type, String payload, int attempts, Timestamp createdAt, Claim claim) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.helios.auctix.services.user;
 
+import com.helios.auctix.domain.upload.Upload;
 import com.helios.auctix.domain.user.*;
 import com.helios.auctix.dtos.VerificationRequestDTO;
 import com.helios.auctix.dtos.VerificationStatusDTO;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Slf4j
@@ -23,7 +25,7 @@ public class SellerService {
 
     private final SellerRepository sellerRepository;
     private final SellerVerificationRequestRepository sellerVerificationRequestRepository;
-    private final FileUploadService fileUploadService;
+    private final FileIngestionService fileIngestionService;
     private final VerificationStatusMapperImpl verificationStatusMapperImpl;
 
     public SellerVerificationStatusEnum submitSellerVerifications(User user, MultipartFile[] files) {
@@ -49,19 +51,16 @@ public class SellerService {
             }
         }
 
-        // upload files
-        List<SellerVerificationRequest> submitedReqs = new ArrayList<>();
-        for (MultipartFile file : files) {
-            FileUploadResponse res = fileUploadService.uploadFile(file, FileUploadUseCaseEnum.VERIFICATION_DOCUMENT, seller.getId(), false);
-            if(!res.isSuccess()){
-                throw new RuntimeException("Upload failed");
-            }
+        // upload files, concurrently and all or nothing
+        List<Upload> documents = fileIngestionService.uploadAll(Arrays.asList(files), FileUploadUseCaseEnum.VERIFICATION_DOCUMENT, seller.getId(), false);
 
+        List<SellerVerificationRequest> submitedReqs = new ArrayList<>();
+        for (Upload document : documents) {
             SellerVerificationRequest sellerVerificationRequest = SellerVerificationRequest.builder()
                     .seller(seller)
                     .description("no review notes")
                     .verificationStatus(SellerVerificationStatusEnum.PENDING)
-                    .document(res.getUpload())
+                    .document(document)
                     .build();
 
             submitedReqs.add(sellerVerificationRequest);
@@ -0,0 +1,233 @@
+package com.helios.auctix.services.user;
+
+import com.helios.auctix.domain.user.User;
+import com.helios.auctix.dtos.AdminDTO;
+import com.helios.auctix.dtos.BidderDTO;
+import com.helios.auctix.dtos.SellerDTO;
+import com.helios.auctix.dtos.UploadDTO;
+import com.helios.auctix.dtos.UserAddressDTO;
+import com.helios.auctix.dtos.UserDTO;
+import com.helios.auctix.dtos.UserRoleDTO;
+import com.helios.auctix.mappers.impl.UserMapperImpl;
+import com.helios.auctix.repositories.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the {@link UserDTO} of a user by user id, so listing pages stop walking the lazy associations
+ * of the same sellers and bidders on every row.
+ * <p>
+ * Entries expire {@code ttl-ms} after they were mapped and the least recently used entry is evicted
+ * once the cache holds {@code max-size} users. Code that changes anything a {@link UserDTO} shows must
+ * call {@link #invalidate(UUID)}, the TTL only bounds how stale a missed invalidation can get.
+ * <p>
+ * Every caller gets its own copy of the cached DTO, so changing it does not leak into the cache.
+ * Hits, misses, evictions and size are published as {@code cache.*} meters tagged {@code cache=userDto}.
+ */
+@Slf4j
+@Component
+public class UserDTOCache {
+
+    private static final String CACHE_NAME = "userDto";
+
+    private final UserRepository userRepository;
+    private final UserMapperImpl userMapper;
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // bumped by every invalidation, a value mapped while it changed may be stale and is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // access ordered, so the eldest entry is the least recently used one
+    private final LinkedHashMap<UUID, CachedUser> entries;
+
+    public UserDTOCache(
+            UserRepository userRepository,
+            UserMapperImpl userMapper,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${auctix.users.dto-cache.ttl-ms:300000}") long ttlMillis,
+            @Value("${auctix.users.dto-cache.max-size:10000}") int maxSize
+    ) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CachedUser> eldest) {
+                if (size() > UserDTOCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        meterRegistry.ifAvailable(this::registerMetrics);
+    }
+
+    /**
+     * The DTO of the user with the given id, mapped from the database on a miss.
+     *
+     * @return the DTO, or null if there is no such user
+     */
+    public UserDTO get(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+
+        UserDTO cached = lookup(userId);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long invalidationsBefore = invalidations.get();
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        return store(userId, userMapper.mapTo(user), invalidationsBefore);
+    }
+
+    /**
+     * The DTO of an already loaded user, mapped from the entity on a miss.
+     */
+    public UserDTO get(User user) {
+        if (user == null) {
+            return null;
+        }
+
+        UserDTO cached = lookup(user.getId());
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long invalidationsBefore = invalidations.get();
+        return store(user.getId(), userMapper.mapTo(user), invalidationsBefore);
+    }
+
+    /**
+     * Drops the cached DTO of the user, now and again once the surrounding transaction commits,
+     * so a read racing the commit cannot put the old state back.
+     */
+    public void invalidate(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+
+        remove(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    private UserDTO lookup(UUID userId) {
+        synchronized (entries) {
+            CachedUser cached = entries.get(userId);
+            if (cached != null && cached.expiresAt() - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return cached.dto();
+            }
+            if (cached != null) {
+                entries.remove(userId);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // the mapped DTO is cached, the caller gets a copy like on a hit
+    private UserDTO store(UUID userId, UserDTO dto, long invalidationsBefore) {
+        synchronized (entries) {
+            if (invalidations.get() == invalidationsBefore) {
+                entries.put(userId, new CachedUser(dto, System.nanoTime() + ttlNanos));
+            }
+        }
+        return copyOf(dto);
+    }
+
+    // a deep copy, the nested DTOs are mutable too
+    private static UserDTO copyOf(UserDTO dto) {
+        UserRoleDTO userRole = dto.getUserRole();
+        UploadDTO picture = dto.getProfilePicture();
+        AdminDTO admin = dto.getAdmin();
+        BidderDTO bidder = dto.getBidder();
+        SellerDTO seller = dto.getSeller();
+        UserAddressDTO address = dto.getUserAddress();
+
+        return new UserDTO(
+                dto.getId(),
+                dto.getUsername(),
+                dto.getEmail(),
+                dto.getFirstName(),
+                dto.getLastName(),
+                userRole != null ? new UserRoleDTO(userRole.getUserRole()) : null,
+                picture != null ? new UploadDTO(picture.getFileName(), picture.getFileType(), picture.getId(),
+                        picture.getIsPublic(), picture.getFileSize(), picture.getFileHash256(), picture.getCategory()) : null,
+                admin != null ? new AdminDTO(admin.getAdminId(), admin.getIsActive()) : null,
+                bidder != null ? new BidderDTO(bidder.getId(), bidder.getName(), bidder.getAvatar(), bidder.getIsActive()) : null,
+                seller != null ? new SellerDTO(seller.getSellerId(), seller.getIsVerified(), seller.getIsActive(), seller.getBannerId()) : null,
+                address != null ? new UserAddressDTO(address.getId(), address.getAddressNumber(), address.getAddressLine1(),
+                        address.getAddressLine2(), address.getCity(), address.getState(), address.getPostalCode(), address.getCountry()) : null
+        );
+    }
+
+    private void remove(UUID userId) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(userId);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void registerMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, AtomicLong::get)
+                .tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("User DTO cache hits")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, AtomicLong::get)
+                .tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("User DTO cache misses")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, AtomicLong::get)
+                .tag("cache", CACHE_NAME)
+                .description("User DTO cache entries evicted for size or expiry")
+                .register(registry);
+        Gauge.builder("cache.size", this, UserDTOCache::size)
+                .tag("cache", CACHE_NAME)
+                .description("User DTO cache entries")
+                .register(registry);
+    }
+
+    private record CachedUser(UserDTO dto, long expiresAt) {
+    }
+}
@@ -10,6 +10,7 @@ import com.helios.auctix.repositories.UserAddressRepository;
 import com.helios.auctix.repositories.UserRepository;
 import com.helios.auctix.repositories.UserRequiredActionRepository;
 import com.helios.auctix.repositories.UserRoleRepository;
+import com.helios.auctix.services.VerifiedTokenCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tomcat.websocket.AuthenticationException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,6 +42,10 @@ public class UserDetailsService {
     private UserMapperImpl userMapperImpl;
     @Autowired
     private UserRoleRepository userRoleRepository;
+    @Autowired
+    private UserDTOCache userDTOCache;
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
 
     /**
      * Retrieves a user by {@link Authentication}.
@@ -204,6 +209,8 @@ public UserServiceResponse updateUserProfile(User user, ProfileUpdateDataDTO pro
     }
     userAddressRepository.save(address);
     userRepository.save(user);
+    userDTOCache.invalidate(user.getId());
+    verifiedTokenCache.evict(user.getEmail());
     log.info("Updated user profile");
 
     this.resolveUserRequiredAction(user, UserRequiredActionEnum.COMPLETE_PROFILE);
@@ -5,6 +5,7 @@ import com.helios.auctix.config.SupperAdminConfig;
 import com.helios.auctix.domain.user.*;
 import com.helios.auctix.repositories.*;
 import com.helios.auctix.services.JwtService;
+import com.helios.auctix.services.VerifiedTokenCache;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
@@ -32,6 +33,7 @@ public class UserRegisterService {
     private final SupperAdminConfig supperAdminConfig;
     private final PasswordEncoder encoder;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
 
 
     /**
@@ -204,6 +206,7 @@ public class UserRegisterService {
                         // The account is previous supper admin account
                         log.info("username or email already exists. deleting previous super admin");
                         userRepository.delete(userWithEmail);
+                        verifiedTokenCache.evict(userWithEmail.getEmail());
                     }
                     else{
                         // normal account use one of username or email
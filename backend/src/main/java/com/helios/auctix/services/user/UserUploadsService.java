@@ -24,6 +24,7 @@ public class UserUploadsService {
     private final UserRepository userRepository;
     private final FileUploadService fileUploadService;
     private final SellerRepository sellerRepository;
+    private final UserDTOCache userDTOCache;
 
     Logger log = Logger.getLogger(UserRegisterService.class.getName());
 
@@ -78,6 +79,7 @@ public class UserUploadsService {
             log.info("UserProfilePhotoUpdate successful onUploads");
             user.setUpload(upload);
             userRepository.save(user);
+            userDTOCache.invalidate(user.getId());
             log.info("UserProfilePhotoUpdate successful onUser");
 
             return new UserServiceResponse(true, "Upload saved",user);
@@ -123,6 +125,7 @@ public class UserUploadsService {
         user.setUpload(null);
 
         userRepository.save(user);
+        userDTOCache.invalidate(user.getId());
 
         if(!res.isSuccess()){
             return new UserServiceResponse(false, res.getMessage());
@@ -142,6 +145,7 @@ public class UserUploadsService {
         }
         seller.setBannerId(upload.getId());
         sellerRepository.save(seller);
+        userDTOCache.invalidate(seller.getId());
     }
 
     public UserServiceResponse UserBannerPhotoDelete(UUID userId) {
@@ -162,6 +166,7 @@ public class UserUploadsService {
         // Set the banner ID to null
         seller.setBannerId(null);
         sellerRepository.save(seller);
+        userDTOCache.invalidate(seller.getId());
 
         return new UserServiceResponse(true, "Banner photo deleted", seller.getUser());
     }
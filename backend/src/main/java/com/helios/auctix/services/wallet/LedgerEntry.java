@@ -0,0 +1,60 @@
+package com.helios.auctix.services.wallet;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One wallet movement: the change to the available and frozen balance of a user's wallet,
+ * and the {@code Transaction} row that records it.
+ * <p>
+ * An entry is rejected by the {@link WalletLedger} if it would take either balance below zero.
+ *
+ * @param amountDelta       change of the available balance
+ * @param freezeDelta       change of the frozen balance
+ * @param transactionAmount amount shown on the transaction row, always positive
+ * @param rejectionMessage  message of the exception thrown when the balance does not cover the entry
+ */
+public record LedgerEntry(
+        UUID userId,
+        BigDecimal amountDelta,
+        BigDecimal freezeDelta,
+        String status,
+        BigDecimal transactionAmount,
+        String description,
+        String rejectionMessage
+) {
+
+    public static LedgerEntry credit(UUID userId, BigDecimal amount, String description) {
+        return new LedgerEntry(userId, amount, BigDecimal.ZERO, "CREDITED", amount, description, null);
+    }
+
+    public static LedgerEntry debit(UUID userId, BigDecimal amount, String description) {
+        return new LedgerEntry(userId, amount.negate(), BigDecimal.ZERO, "DEBITED", amount, description,
+                "Insufficient funds for withdrawal");
+    }
+
+    public static LedgerEntry freeze(UUID userId, BigDecimal amount, String description) {
+        return new LedgerEntry(userId, amount.negate(), amount, "FREEZED", amount, description,
+                "Insufficient wallet balance to freeze the requested amount");
+    }
+
+    public static LedgerEntry unfreeze(UUID userId, BigDecimal amount, String description) {
+        return new LedgerEntry(userId, amount, amount.negate(), "UNFREEZED", amount, description,
+                "Cannot unfreeze more than the frozen amount");
+    }
+
+    // frozen funds leave the wallet, e.g. the winning bid of a completed auction
+    public static LedgerEntry spendFrozen(UUID userId, BigDecimal amount, String description) {
+        return new LedgerEntry(userId, BigDecimal.ZERO, amount.negate(), "COMPLETED", amount, description,
+                "Insufficient frozen funds to complete transaction");
+    }
+
+    // the lowest balances the wallet must hold for the entry to apply
+    BigDecimal requiredAmount() {
+        return amountDelta.signum() < 0 ? amountDelta.negate() : BigDecimal.ZERO;
+    }
+
+    BigDecimal requiredFreezeAmount() {
+        return freezeDelta.signum() < 0 ? freezeDelta.negate() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,21 @@
+package com.helios.auctix.services.wallet;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A {@link LedgerEntry} as it was applied, with the recorded transaction and the wallet balances right after it.
+ */
+public record LedgerPosting(
+        UUID transactionId,
+        UUID walletId,
+        UUID userId,
+        String status,
+        BigDecimal transactionAmount,
+        String description,
+        LocalDateTime transactionDate,
+        BigDecimal walletAmount,
+        BigDecimal walletFreezeAmount
+) {
+}
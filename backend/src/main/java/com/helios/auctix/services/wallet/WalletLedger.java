@@ -0,0 +1,180 @@
+package com.helios.auctix.services.wallet;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Applies wallet movements straight in the database instead of loading, changing and saving the wallet entity.
+ * <p>
+ * Every balance change is a conditional {@code UPDATE ... SET amount = amount + ?} that only matches when the
+ * wallet still covers it, so concurrent movements on the same wallet can neither be lost nor overdraw it.
+ * All entries of a posting go out as one JDBC batch of updates followed by one batch of transaction inserts,
+ * which is two round trips however many wallets are involved (an outbid touches two).
+ * Each transaction row carries the signed deltas it applied, which makes the transactions table the
+ * append-only event log the {@link WalletSnapshotService} replays.
+ * <p>
+ * Must run inside the caller's transaction: when one entry is rejected the exception rolls back
+ * the entries that were already applied.
+ * <p>
+ * The wallet rows are updated, and so locked, in the order of their user ids whatever the order of the entries,
+ * so two postings on the same wallets (A outbids B on one auction while B outbids A on another) can not deadlock.
+ */
+@Slf4j
+@Component
+public class WalletLedger {
+
+    private static final String UPDATE_WALLET_SQL =
+            "UPDATE wallet SET amount = amount + ?, freeze_amount = freeze_amount + ?, updated_at = ? " +
+            "WHERE user_id = ? AND amount >= ? AND freeze_amount >= ?";
+
+    private static final String[] UPDATED_WALLET_COLUMNS = {"id", "amount", "freeze_amount"};
+
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transactions (id, wallet_id, transaction_date, status, amount, description, created_at, amount_delta, freeze_delta) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WalletLedger(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public LedgerPosting post(LedgerEntry entry) {
+        return post(List.of(entry)).get(0);
+    }
+
+    /**
+     * Applies the entries and records a transaction for each of them.
+     *
+     * @return the postings, in the order of the entries
+     * @throws IllegalArgumentException if a wallet is missing or does not cover its entry
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<LedgerPosting> post(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        // lock order, the indexes of the entries sorted by user id, stable for two entries of one wallet
+        List<Integer> lockOrder = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            lockOrder.add(i);
+        }
+        lockOrder.sort(Comparator.comparing(i -> entries.get(i).userId()));
+
+        GeneratedKeyHolder updatedWallets = new GeneratedKeyHolder();
+        int[] updateCounts = jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(UPDATE_WALLET_SQL, UPDATED_WALLET_COLUMNS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        LedgerEntry entry = entries.get(lockOrder.get(i));
+                        ps.setBigDecimal(1, entry.amountDelta());
+                        ps.setBigDecimal(2, entry.freezeDelta());
+                        ps.setTimestamp(3, timestamp);
+                        ps.setObject(4, entry.userId());
+                        ps.setBigDecimal(5, entry.requiredAmount());
+                        ps.setBigDecimal(6, entry.requiredFreezeAmount());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return entries.size();
+                    }
+                },
+                updatedWallets
+        );
+
+        for (int i = 0; i < updateCounts.length; i++) {
+            LedgerEntry entry = entries.get(lockOrder.get(i));
+            if (updateCounts[i] == 0) {
+                throw rejection(entry);
+            }
+            if (updateCounts[i] > 1) {
+                throw new IllegalStateException("More than one wallet found for user ID: " + entry.userId());
+            }
+        }
+
+        // one returned row per update, since every update matched exactly one wallet, back in the order of the entries
+        List<Map<String, Object>> returnedRows = updatedWallets.getKeyList();
+        List<Map<String, Object>> walletRows = new ArrayList<>(returnedRows);
+        for (int i = 0; i < lockOrder.size(); i++) {
+            walletRows.set(lockOrder.get(i), returnedRows.get(i));
+        }
+
+        List<LedgerPosting> postings = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            LedgerEntry entry = entries.get(i);
+            Map<String, Object> walletRow = walletRows.get(i);
+
+            postings.add(new LedgerPosting(
+                    UUID.randomUUID(),
+                    (UUID) walletRow.get("id"),
+                    entry.userId(),
+                    entry.status(),
+                    entry.transactionAmount(),
+                    entry.description(),
+                    now,
+                    (BigDecimal) walletRow.get("amount"),
+                    (BigDecimal) walletRow.get("freeze_amount")
+            ));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                LedgerPosting posting = postings.get(i);
+                LedgerEntry entry = entries.get(i);
+                ps.setObject(1, posting.transactionId());
+                ps.setObject(2, posting.walletId());
+                ps.setTimestamp(3, timestamp);
+                ps.setString(4, posting.status());
+                ps.setBigDecimal(5, posting.transactionAmount());
+                ps.setString(6, posting.description());
+                ps.setTimestamp(7, timestamp);
+                ps.setBigDecimal(8, entry.amountDelta());
+                ps.setBigDecimal(9, entry.freezeDelta());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return postings.size();
+            }
+        });
+
+        log.debug("Posted {} wallet ledger entries", postings.size());
+        return postings;
+    }
+
+    private IllegalArgumentException rejection(LedgerEntry entry) {
+        // only reached on the failure path, so the extra lookup does not cost the happy path anything
+        Integer wallets = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM wallet WHERE user_id = ?", Integer.class, entry.userId());
+
+        if (wallets == null || wallets == 0) {
+            return new IllegalArgumentException("Wallet not found for user ID: " + entry.userId());
+        }
+
+        log.warn("Wallet of user {} does not cover {} of {}", entry.userId(), entry.status(), entry.transactionAmount());
+        return new IllegalArgumentException(entry.rejectionMessage());
+    }
+}
@@ -0,0 +1,189 @@
+package com.helios.auctix.services.wallet;
+
+import com.helios.auctix.domain.transaction.Transaction;
+import com.helios.auctix.domain.transaction.WalletBalanceSnapshot;
+import com.helios.auctix.repositories.TransactionRepository;
+import com.helios.auctix.repositories.WalletBalanceSnapshotRepository;
+import com.helios.auctix.repositories.WalletRepository;
+import com.helios.auctix.services.SchedulerNodeRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Snapshots wallet balances replayed from the transaction log and checks the wallets against them.
+ * <p>
+ * A snapshot adds the deltas of the transactions recorded since the previous snapshot of the wallet,
+ * so it only reads the new events. Transactions younger than {@code settle-lag-ms} are left for the next
+ * run, since a slower transaction may still commit an event dated before them.
+ * <p>
+ * Verification replays the events after the latest snapshot and compares the result with the balances
+ * stored on the wallet, reading both in one statement. A mismatch means a balance was changed without
+ * its event being recorded (or the other way around) and is logged as drift.
+ * Wallets are split across instances with the {@link SchedulerNodeRegistry}.
+ */
+@Slf4j
+@Service
+public class WalletSnapshotService {
+
+    // sorts before every real transaction, the cursor of a wallet without a snapshot
+    private static final LocalDateTime LOG_START_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID LOG_START_ID = new UUID(0L, 0L);
+
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletBalanceSnapshotRepository snapshotRepository;
+    private final SchedulerNodeRegistry schedulerNodeRegistry;
+    private final long settleLagMillis;
+    private final int batchSize;
+
+    public WalletSnapshotService(
+            WalletRepository walletRepository,
+            TransactionRepository transactionRepository,
+            WalletBalanceSnapshotRepository snapshotRepository,
+            SchedulerNodeRegistry schedulerNodeRegistry,
+            @Value("${auctix.wallet.snapshot.settle-lag-ms:60000}") long settleLagMillis,
+            @Value("${auctix.wallet.batch-size:500}") int batchSize
+    ) {
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.schedulerNodeRegistry = schedulerNodeRegistry;
+        this.settleLagMillis = settleLagMillis;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedRateString = "${auctix.wallet.snapshot.rate-ms:3600000}", initialDelayString = "${auctix.wallet.snapshot.rate-ms:3600000}")
+    public void takeSnapshots() {
+        int taken = forEachOwnedWallet(this::takeSnapshot);
+        log.info("Took {} wallet balance snapshots", taken);
+    }
+
+    @Scheduled(fixedRateString = "${auctix.wallet.verify.rate-ms:86400000}", initialDelayString = "${auctix.wallet.verify.rate-ms:86400000}")
+    public void verifyBalances() {
+        int drifted = forEachOwnedWallet(walletId -> !verify(walletId));
+        if (drifted > 0) {
+            log.error("Wallet verification found {} wallets whose balance does not match their transactions", drifted);
+        } else {
+            log.info("Wallet verification found no drift");
+        }
+    }
+
+    /**
+     * Snapshots the wallet if it has settled transactions since its latest snapshot.
+     *
+     * @return true if a snapshot was taken
+     */
+    public boolean takeSnapshot(UUID walletId) {
+        LocalDateTime until = LocalDateTime.now().minusNanos(settleLagMillis * 1_000_000);
+
+        Optional<WalletBalanceSnapshot> previous = snapshotRepository.findTopByWalletIdOrderByTakenAtDesc(walletId);
+        Optional<Transaction> lastEvent = transactionRepository.findLatestByWalletIdUntil(walletId, until);
+
+        if (lastEvent.isEmpty() || previous.map(snapshot -> isCoveredBy(lastEvent.get(), snapshot)).orElse(false)) {
+            return false;
+        }
+
+        TransactionRepository.EventTotals totals = transactionRepository.sumEventsAfter(
+                walletId,
+                previous.map(WalletBalanceSnapshot::getLastTransactionDate).orElse(LOG_START_DATE),
+                previous.map(WalletBalanceSnapshot::getLastTransactionId).orElse(LOG_START_ID),
+                // exactly the events up to the new cursor
+                lastEvent.get().getTransactionDate()
+        );
+
+        WalletBalanceSnapshot snapshot = WalletBalanceSnapshot.builder()
+                .id(UUID.randomUUID())
+                .walletId(walletId)
+                .amount(previous.map(WalletBalanceSnapshot::getAmount).orElse(BigDecimal.ZERO).add(totals.getAmountDelta()))
+                .freezeAmount(previous.map(WalletBalanceSnapshot::getFreezeAmount).orElse(BigDecimal.ZERO).add(totals.getFreezeDelta()))
+                .eventCount(previous.map(WalletBalanceSnapshot::getEventCount).orElse(0L) + totals.getEventCount())
+                .lastTransactionDate(lastEvent.get().getTransactionDate())
+                .lastTransactionId(lastEvent.get().getId())
+                .takenAt(LocalDateTime.now())
+                .build();
+
+        snapshotRepository.save(snapshot);
+        return true;
+    }
+
+    /**
+     * Replays the events after the latest snapshot and compares the result with the wallet.
+     *
+     * @return false if the wallet drifted from its transactions
+     */
+    public boolean verify(UUID walletId) {
+        Optional<WalletBalanceSnapshot> snapshot = snapshotRepository.findTopByWalletIdOrderByTakenAtDesc(walletId);
+
+        Optional<TransactionRepository.WalletReplay> replay = transactionRepository.replayWalletAfter(
+                walletId,
+                snapshot.map(WalletBalanceSnapshot::getLastTransactionDate).orElse(LOG_START_DATE),
+                snapshot.map(WalletBalanceSnapshot::getLastTransactionId).orElse(LOG_START_ID)
+        );
+        if (replay.isEmpty()) {
+            // wallet deleted meanwhile
+            return true;
+        }
+
+        BigDecimal expectedAmount = snapshot.map(WalletBalanceSnapshot::getAmount).orElse(BigDecimal.ZERO)
+                .add(replay.get().getAmountDelta());
+        BigDecimal expectedFreezeAmount = snapshot.map(WalletBalanceSnapshot::getFreezeAmount).orElse(BigDecimal.ZERO)
+                .add(replay.get().getFreezeDelta());
+
+        boolean consistent = expectedAmount.compareTo(replay.get().getWalletAmount()) == 0
+                && expectedFreezeAmount.compareTo(replay.get().getWalletFreezeAmount()) == 0;
+
+        if (!consistent) {
+            log.error("Wallet {} drifted: balance {} / frozen {}, replayed {} / {} from {} events after snapshot {}",
+                    walletId,
+                    replay.get().getWalletAmount(), replay.get().getWalletFreezeAmount(),
+                    expectedAmount, expectedFreezeAmount,
+                    replay.get().getEventCount(),
+                    snapshot.map(WalletBalanceSnapshot::getId).orElse(null));
+        }
+        return consistent;
+    }
+
+    private boolean isCoveredBy(Transaction event, WalletBalanceSnapshot snapshot) {
+        return event.getId().equals(snapshot.getLastTransactionId());
+    }
+
+    /**
+     * Walks all wallets owned by this node in id order, a batch at a time.
+     *
+     * @return how many wallets the action returned true for
+     */
+    private int forEachOwnedWallet(Predicate<UUID> action) {
+        int matched = 0;
+        UUID after = LOG_START_ID;
+
+        while (true) {
+            List<UUID> walletIds = walletRepository.findIdsAfter(after, batchSize);
+            for (UUID walletId : walletIds) {
+                if (!schedulerNodeRegistry.owns(walletId)) {
+                    continue;
+                }
+                try {
+                    if (action.test(walletId)) {
+                        matched++;
+                    }
+                } catch (Exception e) {
+                    log.error("Wallet job failed for wallet {}", walletId, e);
+                }
+            }
+
+            if (walletIds.size() < batchSize) {
+                return matched;
+            }
+            after = walletIds.get(walletIds.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+-- Denormalized bid aggregates maintained atomically by the conditional bid update in AuctionRepository
+ALTER TABLE auctions
+    ADD COLUMN current_high_bid NUMERIC(19,2),
+    ADD COLUMN current_high_bidder_id UUID,
+    ADD COLUMN current_high_bid_id UUID,
+    ADD COLUMN bid_count INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from existing bids, on equal amounts the earliest bid is the highest one
+UPDATE auctions a
+SET current_high_bid       = top.amount,
+    current_high_bidder_id = top.bidder_id,
+    current_high_bid_id    = top.id
+FROM (
+    SELECT DISTINCT ON (auction_id) auction_id, id, bidder_id, amount
+    FROM bids
+    ORDER BY auction_id, amount DESC, bid_time ASC
+) top
+WHERE a.id = top.auction_id;
+
+UPDATE auctions a
+SET bid_count = counts.bid_count
+FROM (
+    SELECT auction_id, COUNT(*) AS bid_count
+    FROM bids
+    GROUP BY auction_id
+) counts
+WHERE a.id = counts.auction_id;
+
+-- Per auction bid lookups (history, top bid) no longer sort the whole table
+CREATE INDEX idx_bids_auction_id_bid_time ON bids(auction_id, bid_time DESC);
+CREATE INDEX idx_bids_auction_id_amount ON bids(auction_id, amount DESC);
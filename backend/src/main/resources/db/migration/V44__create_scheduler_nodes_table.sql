@@ -0,0 +1,10 @@
+-- One row per running application instance, kept alive by heartbeats.
+-- Instances whose heartbeat is older than the lease are considered dead and their work is re-sharded.
+CREATE TABLE scheduler_nodes (
+    node_id UUID PRIMARY KEY,
+    host_name VARCHAR(255),
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_scheduler_nodes_heartbeat_at ON scheduler_nodes (heartbeat_at);
@@ -0,0 +1,38 @@
+-- Transactions become the append-only event log of the wallets: every row carries the signed change
+-- it made to the available and frozen balance, independent of its (mutable) status.
+ALTER TABLE transactions
+    ADD COLUMN amount_delta NUMERIC NOT NULL DEFAULT 0,
+    ADD COLUMN freeze_delta NUMERIC NOT NULL DEFAULT 0;
+
+-- Rows processed by the admin endpoint lost their original status, they stay at zero and show up as drift
+UPDATE transactions SET
+    amount_delta = CASE status
+        WHEN 'CREDITED' THEN amount
+        WHEN 'DEBITED' THEN -amount
+        WHEN 'FREEZED' THEN -amount
+        WHEN 'UNFREEZED' THEN amount
+        ELSE 0
+    END,
+    freeze_delta = CASE status
+        WHEN 'FREEZED' THEN amount
+        WHEN 'UNFREEZED' THEN -amount
+        WHEN 'COMPLETED' THEN -amount
+        ELSE 0
+    END;
+
+-- Keyset pagination and replay walk a wallet's events by (transaction_date, id)
+CREATE INDEX idx_transactions_wallet_id_date_id ON transactions (wallet_id, transaction_date, id);
+
+-- Balance of a wallet after all its events up to and including (last_transaction_date, last_transaction_id)
+CREATE TABLE wallet_balance_snapshots (
+    id UUID PRIMARY KEY,
+    wallet_id UUID NOT NULL REFERENCES wallet(id) ON DELETE CASCADE,
+    amount NUMERIC NOT NULL,
+    freeze_amount NUMERIC NOT NULL,
+    event_count BIGINT NOT NULL,
+    last_transaction_date TIMESTAMP NOT NULL,
+    last_transaction_id UUID NOT NULL,
+    taken_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_wallet_balance_snapshots_wallet_id_taken_at ON wallet_balance_snapshots (wallet_id, taken_at DESC);
@@ -0,0 +1,5 @@
+-- Keyset paginated auction listings walk public, non deleted auctions by (start_time, id) or (end_time, id)
+CREATE INDEX idx_auctions_listing_start_time_id ON auctions (start_time, id) WHERE is_public = TRUE AND is_deleted = FALSE;
+CREATE INDEX idx_auctions_listing_end_time_id ON auctions (end_time, id) WHERE is_public = TRUE AND is_deleted = FALSE;
+
+CREATE INDEX IF NOT EXISTS idx_auction_image_paths_auction_id ON auction_image_paths (auction_id);
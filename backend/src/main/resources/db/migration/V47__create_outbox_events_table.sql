@@ -0,0 +1,15 @@
+-- Side effects of a transaction (notifications), written in the same transaction and delivered after commit by the outbox relay.
+-- available_at doubles as the lease of a claimed event: a relay that dies mid-batch leaves its events to be claimed again once it runs out.
+CREATE TABLE outbox_events (
+    id UUID PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error TEXT,
+    failed_at TIMESTAMP
+);
+
+-- The relay only looks at the pending events, given up ones are kept for inspection
+CREATE INDEX idx_outbox_events_pending ON outbox_events (available_at) WHERE failed_at IS NULL;
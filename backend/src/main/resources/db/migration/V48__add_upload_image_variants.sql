@@ -0,0 +1,9 @@
+-- Downscaled JPEG variants of image uploads, content addressed blobs like the original (file_id).
+-- Null until generated, or when the original is already small enough to be served as is.
+ALTER TABLE uploads
+    ADD COLUMN thumbnail_file_id UUID,
+    ADD COLUMN medium_file_id UUID;
+
+-- The deletion sweep checks whether a variant blob is still used by another upload
+CREATE INDEX idx_uploads_thumbnail_file_id ON uploads (thumbnail_file_id);
+CREATE INDEX idx_uploads_medium_file_id ON uploads (medium_file_id);
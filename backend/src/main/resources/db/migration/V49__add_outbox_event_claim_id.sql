@@ -0,0 +1,2 @@
+-- Which claim of a relay holds the event, so a relay whose lease ran out can not renew, checkpoint or delete an event another relay has claimed since.
+ALTER TABLE outbox_events ADD COLUMN claim_id UUID;
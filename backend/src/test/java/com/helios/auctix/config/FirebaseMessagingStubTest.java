@@ -0,0 +1,161 @@
+package com.helios.auctix.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.helios.auctix.repositories.UserFCMTokenRepository;
+import com.helios.auctix.services.FirebaseCloudMessageService;
+import com.helios.auctix.services.notification.senders.PushNotificationBatcher;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sends FCM messages through {@link FirebaseConfig#redirectingTransport} to a local stub of the FCM v1 endpoint.
+ */
+class FirebaseMessagingStubTest {
+
+    private static final String PROJECT_ID = "auctix-test";
+    private static final String ACCESS_TOKEN = "stub-access-token";
+    private static final String SEND_PATH = "/v1/projects/" + PROJECT_ID + "/messages:send";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Queue<StubRequest> requests = new ConcurrentLinkedQueue<>();
+    private static HttpServer fcmStub;
+    private static FirebaseApp firebaseApp;
+
+    private final UserFCMTokenRepository tokenRepository = Mockito.mock(UserFCMTokenRepository.class);
+    private final FirebaseCloudMessageService firebaseCloudMessageService = new FirebaseCloudMessageService(tokenRepository);
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        fcmStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        fcmStub.createContext("/", FirebaseMessagingStubTest::handle);
+        fcmStub.setExecutor(Executors.newCachedThreadPool());
+        fcmStub.start();
+
+        // a fixed access token, so no OAuth call is made
+        GoogleCredentials credentials = GoogleCredentials.create(new AccessToken(ACCESS_TOKEN, new Date(System.currentTimeMillis() + 3_600_000)));
+        firebaseApp = FirebaseApp.initializeApp(FirebaseOptions.builder()
+                .setCredentials(credentials)
+                .setProjectId(PROJECT_ID)
+                .setHttpTransport(FirebaseConfig.redirectingTransport("http://127.0.0.1:" + fcmStub.getAddress().getPort() + "/"))
+                .build());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        firebaseApp.delete();
+        fcmStub.stop(0);
+    }
+
+    @BeforeEach
+    void clearRequests() {
+        requests.clear();
+    }
+
+    @Test
+    @DisplayName("A multicast reaches the stub as one authorized send per token, with the notification and url")
+    void sendsMulticastToStub() {
+        List<String> deadTokens = firebaseCloudMessageService.sendMulticast(
+                List.of("device-1", "device-2", "device-3"), "Outbid", "You have been outbid", "https://auctix.example/auction-details/1");
+
+        assertThat(deadTokens).isEmpty();
+        assertThat(requests).hasSize(3);
+        assertThat(requests).allSatisfy(request -> {
+            assertThat(request.path()).isEqualTo(SEND_PATH);
+            assertThat(request.authorization()).isEqualTo("Bearer " + ACCESS_TOKEN);
+            assertThat(request.message().at("/notification/title").asText()).isEqualTo("Outbid");
+            assertThat(request.message().at("/data/url").asText()).isEqualTo("https://auctix.example/auction-details/1");
+        });
+        assertThat(requests).extracting(request -> request.message().get("token").asText())
+                .containsExactlyInAnyOrder("device-1", "device-2", "device-3");
+    }
+
+    @Test
+    @DisplayName("The tokens the stub reports as unregistered come back as dead tokens")
+    void reportsUnregisteredTokens() {
+        List<String> deadTokens = firebaseCloudMessageService.sendMulticast(
+                List.of("device-1", "unregistered-2", "device-3", "unregistered-4"), "Outbid", "You have been outbid", null);
+
+        assertThat(deadTokens).containsExactly("unregistered-2", "unregistered-4");
+    }
+
+    @Test
+    @DisplayName("Batched push notifications go out through the stub and its dead tokens are deactivated")
+    @SuppressWarnings("unchecked")
+    void batcherSendsThroughStub() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tokens.add(i % 5 == 0 ? "unregistered-" + i : "device-" + i);
+        }
+        when(tokenRepository.findActiveTokensByUserIdIn(anyCollection())).thenReturn(tokens);
+        PushNotificationBatcher batcher = new PushNotificationBatcher(firebaseCloudMessageService, 20, 2, 1000, 1000);
+        try {
+            for (int i = 0; i < 10; i++) {
+                batcher.enqueue(UUID.randomUUID(), "Auction ending", "An auction you watch ends in 10 minutes", null);
+            }
+
+            ArgumentCaptor<Collection<String>> deactivated = ArgumentCaptor.forClass(Collection.class);
+            verify(tokenRepository, timeout(5000)).deactivateByFcmTokenIn(deactivated.capture());
+            assertThat(deactivated.getValue()).containsExactlyInAnyOrder("unregistered-0", "unregistered-5", "unregistered-10", "unregistered-15");
+            assertThat(requests).hasSize(tokens.size());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode message = objectMapper.readTree(exchange.getRequestBody()).get("message");
+            requests.add(new StubRequest(exchange.getRequestURI().getPath(), exchange.getRequestHeaders().getFirst("Authorization"), message));
+
+            String token = message.get("token").asText();
+            if (token.startsWith("unregistered-")) {
+                respond(exchange, 404, """
+                        {"error": {"code": 404, "message": "Requested entity was not found.", "status": "NOT_FOUND",
+                         "details": [{"@type": "type.googleapis.com/google.firebase.fcm.v1.FcmError", "errorCode": "UNREGISTERED"}]}}
+                        """);
+            } else {
+                respond(exchange, 200, "{\"name\": \"projects/" + PROJECT_ID + "/messages/" + UUID.randomUUID() + "\"}");
+            }
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private record StubRequest(String path, String authorization, JsonNode message) {
+    }
+}
@@ -0,0 +1,201 @@
+package com.helios.auctix.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Two application contexts, each one a node with its own broker channel, bridged over one Postgres.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresBrokerBridgeClusterTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final String PROBE_DESTINATION = "/topic/auction/probe";
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private Node first;
+    private Node second;
+
+    // the bridge on the broker channel, as WebSocketConfig sets it up in the postgres mode
+    @TestConfiguration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            JdbcTemplateAutoConfiguration.class,
+            JacksonAutoConfiguration.class
+    })
+    @Import(PostgresBrokerBridge.class)
+    static class BrokerNodeContext {
+
+        @Bean
+        ExecutorSubscribableChannel brokerChannel(PostgresBrokerBridge postgresBrokerBridge) {
+            ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+            channel.addInterceptor(postgresBrokerBridge);
+            return channel;
+        }
+    }
+
+    // what the simple broker of a node would hand to its subscribers
+    private record Node(ExecutorSubscribableChannel brokerChannel, List<Message<?>> received) {
+
+        void send(String destination, byte[] payload) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(destination);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            brokerChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+        }
+
+        List<Message<?>> receivedOn(String destination) {
+            return received.stream()
+                    .filter(message -> destination.equals(SimpMessageHeaderAccessor.getDestination(message.getHeaders())))
+                    .toList();
+        }
+    }
+
+    @BeforeEach
+    void startNodes() throws InterruptedException {
+        first = startNode();
+        second = startNode();
+
+        // the listeners LISTEN on their own thread once the contexts are ready, wait until both hear the other
+        awaitUntil("both nodes are listening", () -> {
+            first.send(PROBE_DESTINATION, "{}".getBytes(StandardCharsets.UTF_8));
+            second.send(PROBE_DESTINATION, "{}".getBytes(StandardCharsets.UTF_8));
+            return isRelayed(first.receivedOn(PROBE_DESTINATION)) && isRelayed(second.receivedOn(PROBE_DESTINATION));
+        });
+        first.received().clear();
+        second.received().clear();
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("A message sent to an auction topic on one node reaches the subscribers of the other, once")
+    void deliversToOtherNode() throws InterruptedException {
+        byte[] payload = "{\"auctionId\":\"42\",\"amount\":1500}".getBytes(StandardCharsets.UTF_8);
+
+        first.send("/topic/bids/42", payload);
+
+        awaitUntil("the other node received the bid", () -> !second.receivedOn("/topic/bids/42").isEmpty());
+        Message<?> relayed = second.receivedOn("/topic/bids/42").get(0);
+        assertThat(relayed.getPayload()).isEqualTo(payload);
+        assertThat(SimpMessageHeaderAccessor.wrap(relayed).getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+
+        // a marker sent after it, once it arrived nothing more is on the way
+        awaitMarker();
+        assertThat(second.receivedOn("/topic/bids/42")).hasSize(1);
+        // the sender's own subscribers got it when it was sent, the bridge neither echoes it back nor publishes it again
+        assertThat(first.receivedOn("/topic/bids/42")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Topics other than the auction topics stay on their node")
+    void keepsOtherTopicsLocal() throws InterruptedException {
+        first.send("/topic/notifications/someone", "{}".getBytes(StandardCharsets.UTF_8));
+
+        awaitMarker();
+        assertThat(second.receivedOn("/topic/notifications/someone")).isEmpty();
+        assertThat(first.receivedOn("/topic/notifications/someone")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A message whose notification fits in 8000 bytes is bridged, a larger one only reaches its own node")
+    void capsPayloadAt8000Bytes() throws InterruptedException {
+        // base64 makes 5700 bytes 7600, the envelope adds less than 400
+        byte[] fits = randomBytes(5700);
+        // base64 alone makes 6000 bytes 8000
+        byte[] tooLarge = randomBytes(6000);
+
+        first.send("/topic/auction/fits", fits);
+        first.send("/topic/auction/too-large", tooLarge);
+
+        awaitUntil("the message that fits arrived", () -> !second.receivedOn("/topic/auction/fits").isEmpty());
+        assertThat(second.receivedOn("/topic/auction/fits").get(0).getPayload()).isEqualTo(fits);
+
+        awaitMarker();
+        assertThat(second.receivedOn("/topic/auction/too-large")).isEmpty();
+        assertThat(first.receivedOn("/topic/auction/too-large")).hasSize(1);
+    }
+
+    private Node startNode() {
+        // command line arguments, so they win over the placeholders of application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BrokerNodeContext.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--auctix.websocket.broker.mode=postgres",
+                        "--auctix.websocket.broker.postgres.poll-ms=50"
+                );
+        nodes.add(context);
+
+        ExecutorSubscribableChannel brokerChannel = context.getBean(ExecutorSubscribableChannel.class);
+        List<Message<?>> received = new CopyOnWriteArrayList<>();
+        brokerChannel.subscribe(received::add);
+        return new Node(brokerChannel, received);
+    }
+
+    // notifications arrive in the order they were sent, so everything sent before the marker has arrived with it
+    private void awaitMarker() throws InterruptedException {
+        String destination = "/topic/auction/marker-" + System.nanoTime();
+        first.send(destination, "{}".getBytes(StandardCharsets.UTF_8));
+        awaitUntil("the marker arrived", () -> !second.receivedOn(destination).isEmpty());
+    }
+
+    private static boolean isRelayed(List<Message<?>> messages) {
+        return messages.stream().anyMatch(message -> message.getHeaders().containsKey("auctix-relayed"));
+    }
+
+    private static byte[] randomBytes(int count) {
+        byte[] bytes = new byte[count];
+        new Random(count).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static void awaitUntil(String description, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting until " + description);
+            }
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.helios.auctix.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sends through a real SMTP server, to check that a batch goes over one connection and to measure the throughput.
+ */
+class EmailServiceSmtpTest {
+
+    private static final int EMAILS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final CountingMailSender mailSender = new CountingMailSender();
+    private EmailService emailService;
+
+    @AfterEach
+    void tearDown() {
+        emailService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Every batch of emails is sent over a single SMTP connection")
+    void sendsBatchOverOneConnection() throws Exception {
+        TemplateEngine templateEngine = Mockito.mock(TemplateEngine.class);
+        when(templateEngine.process(anyString(), any(IContext.class))).thenReturn("<p>You have been outbid</p>");
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistry = Mockito.mock(ObjectProvider.class);
+        emailService = new EmailService(mailSender, templateEngine, meterRegistry, 1, EMAILS, BATCH_SIZE, 0, 3, 1000);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EMAILS; i++) {
+            emailService.sendHtmlEmail("bidder" + i + "@example.com", "Outbid", "outbid", Map.of());
+        }
+        assertThat(greenMail.waitForIncomingEmail(TimeUnit.SECONDS.toMillis(30), EMAILS)).isTrue();
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(EMAILS);
+        assertThat(mailSender.batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, BATCH_SIZE));
+        assertThat(mailSender.batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(EMAILS);
+        // one connection per send call, not per email
+        assertThat(mailSender.connections.get()).isEqualTo(mailSender.batchSizes.size());
+        assertThat(mailSender.connections.get()).isLessThan(EMAILS);
+
+        System.out.printf("Sent %d emails over %d SMTP connections in %d ms, %.0f msgs/s%n",
+                EMAILS, mailSender.connections.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                EMAILS / (elapsedNanos / 1e9));
+    }
+
+    // counts the Transports JavaMailSenderImpl opens and the messages of every send call
+    private static class CountingMailSender extends JavaMailSenderImpl {
+
+        private final AtomicInteger connections = new AtomicInteger();
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        CountingMailSender() {
+            setHost("localhost");
+            setPort(ServerSetupTest.SMTP.getPort());
+        }
+
+        @Override
+        protected Transport connectTransport() throws MessagingException {
+            connections.incrementAndGet();
+            return super.connectTransport();
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+            batchSizes.add(mimeMessages.length);
+            super.doSend(mimeMessages, originalMessages);
+        }
+    }
+}
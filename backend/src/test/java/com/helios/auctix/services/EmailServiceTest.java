@@ -0,0 +1,157 @@
+package com.helios.auctix.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+class EmailServiceTest {
+
+    private final JavaMailSender mailSender = Mockito.mock(JavaMailSender.class);
+    private final TemplateEngine templateEngine = Mockito.mock(TemplateEngine.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<MeterRegistry> meterRegistry = Mockito.mock(ObjectProvider.class);
+
+    // the messages of every send call, in order
+    private final List<MimeMessage[]> sends = new CopyOnWriteArrayList<>();
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        when(templateEngine.process(anyString(), any(IContext.class))).thenReturn("<p>Hello</p>");
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Queued emails are sent in batches of at most batch-size over one send call")
+    void sendsQueuedEmailsInBatches() throws Exception {
+        emailService = emailService(1, 10, 0, 0);
+        CountDownLatch firstSendStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSend = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            record(invocation.getRawArguments()[0]);
+            if (sends.size() == 1) {
+                // holds the worker, so the next emails pile up in the queue
+                firstSendStarted.countDown();
+                releaseFirstSend.await();
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        send(1);
+        assertThat(firstSendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        send(25);
+        releaseFirstSend.countDown();
+
+        awaitSent(26);
+        assertThat(sends).extracting(messages -> messages.length).containsExactly(1, 10, 10, 5);
+    }
+
+    @Test
+    @DisplayName("No more than rate-per-second emails go out per second")
+    void limitsSendRate() throws Exception {
+        // one email every 50 ms
+        emailService = emailService(1, 1, 20, 0);
+        doAnswer(invocation -> {
+            record(invocation.getRawArguments()[0]);
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        long start = System.nanoTime();
+        send(6);
+        awaitSent(6);
+
+        // the first one right away, then five more 50 ms apart
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(240);
+        assertThat(sends).hasSize(6);
+    }
+
+    @Test
+    @DisplayName("An email that failed for a transient reason is sent again after a backoff")
+    void retriesTransientFailure() throws Exception {
+        emailService = emailService(1, 10, 0, 10);
+        doAnswer(invocation -> {
+            MimeMessage[] messages = record(invocation.getRawArguments()[0]);
+            if (sends.size() == 1) {
+                throw new MailSendException(Map.of(messages[0], new MessagingException("Connection reset")));
+            }
+            return null;
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        send(1);
+        awaitSent(2);
+
+        assertThat(sends.get(1)[0]).isSameAs(sends.get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("An email to a rejected address is not sent again")
+    void doesNotRetryRejectedAddress() throws Exception {
+        emailService = emailService(1, 10, 0, 10);
+        doAnswer(invocation -> {
+            MimeMessage[] messages = record(invocation.getRawArguments()[0]);
+            throw new MailSendException(Map.of(messages[0], new SendFailedException("User unknown")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        send(1);
+        awaitSent(1);
+        Thread.sleep(200);
+
+        assertThat(sends).hasSize(1);
+    }
+
+    private EmailService emailService(int workers, int batchSize, double ratePerSecond, long initialBackoffMillis) {
+        return new EmailService(mailSender, templateEngine, meterRegistry, workers, 1000, batchSize, ratePerSecond, 3, initialBackoffMillis);
+    }
+
+    private void send(int count) throws MessagingException {
+        for (int i = 0; i < count; i++) {
+            emailService.sendHtmlEmail("bidder" + i + "@example.com", "Outbid", "outbid", Map.of());
+        }
+    }
+
+    private MimeMessage[] record(Object messages) {
+        MimeMessage[] sent = (MimeMessage[]) messages;
+        sends.add(sent);
+        return sent;
+    }
+
+    private void awaitSent(int emails) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sends.stream().mapToInt(messages -> messages.length).sum() < emails) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for " + emails + " emails to be sent");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.domain.scheduler.SchedulerNode;
+import com.helios.auctix.repositories.SchedulerNodeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Two application contexts, each one a scheduler node, against one Postgres.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchedulerNodeRegistryClusterTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final long LEASE_MS = 1500;
+    private static final long HEARTBEAT_MS = 200;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    // only what the registry needs, the rest of the application wants blob storage, mail, firebase...
+    @TestConfiguration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+            DataSourceAutoConfiguration.class,
+            FlywayAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class
+    })
+    @EntityScan(basePackageClasses = SchedulerNode.class)
+    @EnableJpaRepositories(
+            basePackageClasses = SchedulerNodeRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = SchedulerNodeRepository.class)
+    )
+    @Import(SchedulerNodeRegistry.class)
+    static class SchedulerNodeContext {
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    @DisplayName("Two nodes split the auctions, and the survivor takes them all when one leaves")
+    void nodesShardAndTakeOver() throws InterruptedException {
+        SchedulerNodeRegistry first = startNode();
+        SchedulerNodeRegistry second = startNode();
+        List<UUID> auctionIds = randomIds(1000);
+
+        awaitUntil("every auction is owned by exactly one node", () -> auctionIds.stream()
+                .allMatch(id -> first.owns(id) != second.owns(id)));
+        assertThat(auctionIds.stream().filter(first::owns).count()).isBetween(1L, 999L);
+
+        nodes.remove(1).close();
+
+        awaitUntil("the remaining node owns every auction", () -> auctionIds.stream().allMatch(first::owns));
+    }
+
+    private SchedulerNodeRegistry startNode() {
+        // command line arguments, so they win over the placeholders of application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SchedulerNodeContext.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "--spring.datasource.username=" + postgres.getUsername(),
+                        "--spring.datasource.password=" + postgres.getPassword(),
+                        "--spring.jpa.show-sql=false",
+                        "--auctix.scheduler.lease-ms=" + LEASE_MS,
+                        "--auctix.scheduler.heartbeat-ms=" + HEARTBEAT_MS
+                );
+        nodes.add(context);
+        return context.getBean(SchedulerNodeRegistry.class);
+    }
+
+    private static List<UUID> randomIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+
+    private static void awaitUntil(String description, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting until " + description);
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.repositories.SchedulerNodeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+class SchedulerNodeRegistryTest {
+
+    private static final long LEASE_MS = 200;
+
+    private final SchedulerNodeRepository schedulerNodeRepository = Mockito.mock(SchedulerNodeRepository.class);
+
+    @Test
+    @DisplayName("A node owns nothing once its last renewal is older than the lease")
+    void ownsNothingAfterLeaseExpires() throws InterruptedException {
+        SchedulerNodeRegistry registry = new SchedulerNodeRegistry(schedulerNodeRepository, LEASE_MS, 50);
+        when(schedulerNodeRepository.findLiveNodeIds(anyLong())).thenReturn(List.of(registry.getNodeId()));
+        UUID auctionId = UUID.randomUUID();
+
+        registry.heartbeat();
+        assertThat(registry.owns(auctionId)).isTrue();
+
+        // the heartbeat thread is never started here, like a starved one
+        Thread.sleep(LEASE_MS + 50);
+        assertThat(registry.owns(auctionId)).isFalse();
+
+        registry.heartbeat();
+        assertThat(registry.owns(auctionId)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A node that can't renew its lease owns nothing")
+    void ownsNothingWhenRenewalFails() {
+        SchedulerNodeRegistry registry = new SchedulerNodeRegistry(schedulerNodeRepository, LEASE_MS, 50);
+        doThrow(new IllegalStateException("database down")).when(schedulerNodeRepository).heartbeat(any(), any());
+
+        assertThat(registry.owns(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Live nodes split the auctions between them, each auction owned by exactly one")
+    void liveNodesSplitAuctions() {
+        SchedulerNodeRegistry first = new SchedulerNodeRegistry(schedulerNodeRepository, 30000, 10000);
+        SchedulerNodeRegistry second = new SchedulerNodeRegistry(schedulerNodeRepository, 30000, 10000);
+        List<UUID> liveNodeIds = Stream.of(first.getNodeId(), second.getNodeId()).sorted().toList();
+        when(schedulerNodeRepository.findLiveNodeIds(anyLong())).thenReturn(liveNodeIds);
+
+        first.heartbeat();
+        second.heartbeat();
+
+        int ownedByFirst = 0;
+        for (int i = 0; i < 1000; i++) {
+            UUID auctionId = UUID.randomUUID();
+            assertThat(first.owns(auctionId)).isNotEqualTo(second.owns(auctionId));
+            if (first.owns(auctionId)) {
+                ownedByFirst++;
+            }
+        }
+        assertThat(ownedByFirst).isBetween(1, 999);
+    }
+}
@@ -0,0 +1,67 @@
+package com.helios.auctix.services;
+
+import com.helios.auctix.domain.user.UserRoleEnum;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String EMAIL = "bidder@example.com";
+    private static final long TTL_MS = 200;
+
+    private final JwtService jwtService = Mockito.mock(JwtService.class);
+    private final UserDetailsService userDetailsService = Mockito.mock(UserDetailsService.class);
+    private final Claims claims = Mockito.mock(Claims.class);
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(jwtService, userDetailsService, 100, TTL_MS);
+
+    @BeforeEach
+    void setUp() {
+        when(jwtService.extractClaims(TOKEN)).thenReturn(claims);
+        when(jwtService.extractRole(claims)).thenReturn(UserRoleEnum.BIDDER);
+        when(claims.getSubject()).thenReturn(EMAIL);
+        // the token itself is valid for a day
+        when(claims.getExpiration()).thenReturn(new Date(System.currentTimeMillis() + 86_400_000));
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(new User(EMAIL, "hash", List.of()));
+    }
+
+    @Test
+    @DisplayName("A cached token is dropped after the ttl, long before the token expires")
+    void reloadsPrincipalAfterTtl() throws InterruptedException {
+        VerifiedTokenCache.VerifiedToken first = cache.verify(TOKEN);
+        cache.verify(TOKEN);
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+        assertThat(first.expiresAt()).isLessThanOrEqualTo(System.currentTimeMillis() + TTL_MS);
+
+        Thread.sleep(TTL_MS + 50);
+        cache.verify(TOKEN);
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Evicting a user loads the principal again on the next request")
+    void evictReloadsPrincipal() {
+        cache.verify(TOKEN);
+        cache.evict("someone-else@example.com");
+        cache.verify(TOKEN);
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+
+        cache.evict(EMAIL);
+        cache.verify(TOKEN);
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+    }
+}
@@ -0,0 +1,98 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.common.StorageSharedKeyCredential;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signs URLs of blobs uploaded to Azurite and downloads them the way a client would, without credentials.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class BlobUrlSignerAzuriteTest {
+
+    private static final int BLOB_PORT = 10000;
+
+    @Container
+    private static final GenericContainer<?> azurite = new GenericContainer<>("mcr.microsoft.com/azure-storage/azurite")
+            .withCommand("azurite-blob", "--blobHost", "0.0.0.0", "--skipApiVersionCheck", "--loose")
+            .withExposedPorts(BLOB_PORT);
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final byte[] content = ("photo " + UUID.randomUUID()).getBytes();
+    private BlobClient blobClient;
+
+    @BeforeEach
+    void setUp() {
+        BlobContainerClient container = new BlobServiceClientBuilder()
+                .endpoint("http://" + azurite.getHost() + ":" + azurite.getMappedPort(BLOB_PORT) + "/devstoreaccount1")
+                .credential(new StorageSharedKeyCredential("devstoreaccount1",
+                        "Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw=="))
+                .buildClient()
+                .getBlobContainerClient("uploads");
+        container.createIfNotExists();
+
+        // stored without a content type, like the uploads are
+        blobClient = container.getBlobClient(UUID.randomUUID().toString());
+        blobClient.upload(BinaryData.fromBytes(content));
+    }
+
+    @Test
+    @DisplayName("The signed URL downloads the blob with the signed content type and cache headers")
+    void downloadsThroughSignedUrl() throws Exception {
+        BlobUrlSigner.SignedUrl signed = new BlobUrlSigner(true, 3600, "").sign(blobClient, "image/png");
+
+        HttpResponse<byte[]> response = get(signed.url());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(content);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue("image/png");
+        assertThat(response.headers().firstValue("Cache-Control")).hasValue("public, max-age=31536000, immutable");
+    }
+
+    @Test
+    @DisplayName("A URL rewritten to the public endpoint still downloads the blob")
+    void downloadsThroughPublicEndpoint() throws Exception {
+        // the host as the clients see it, here the same port under another name
+        String publicEndpoint = "http://" + InetAddress.getByName(azurite.getHost()).getHostAddress() + ":" + azurite.getMappedPort(BLOB_PORT);
+        BlobUrlSigner.SignedUrl signed = new BlobUrlSigner(true, 3600, publicEndpoint).sign(blobClient, "image/png");
+
+        assertThat(signed.url()).startsWith(publicEndpoint + "/devstoreaccount1/uploads/");
+        HttpResponse<byte[]> response = get(signed.url());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("The blob can not be downloaded without a valid signature")
+    void rejectsTamperedSignature() throws Exception {
+        String url = new BlobUrlSigner(true, 3600, "").sign(blobClient, "image/png").url();
+        // another content type than the one signed
+        String tampered = url.replace("rsct=image%2Fpng", "rsct=text%2Fhtml");
+
+        assertThat(tampered).isNotEqualTo(url);
+        assertThat(get(tampered).statusCode()).isEqualTo(403);
+        assertThat(get(blobClient.getBlobUrl()).statusCode()).isIn(403, 404);
+    }
+
+    private HttpResponse<byte[]> get(String url) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
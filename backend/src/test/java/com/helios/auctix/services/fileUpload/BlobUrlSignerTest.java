@@ -0,0 +1,120 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobClientBuilder;
+import com.azure.storage.common.StorageSharedKeyCredential;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlobUrlSignerTest {
+
+    private static final long TTL_SECONDS = 3600;
+    private static final Duration TTL = Duration.ofSeconds(TTL_SECONDS);
+
+    // signing is local, the client never talks to this endpoint
+    private final BlobClient blobClient = new BlobClientBuilder()
+            .endpoint("http://azurite:10000/devstoreaccount1")
+            .containerName("uploads")
+            .blobName(UUID.randomUUID().toString())
+            .credential(new StorageSharedKeyCredential("devstoreaccount1",
+                    "Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw=="))
+            .buildClient();
+
+    private final BlobUrlSigner signer = new BlobUrlSigner(true, TTL_SECONDS, "");
+
+    // a window start, the epoch second is a multiple of the ttl
+    private final Instant windowStart = Instant.ofEpochSecond(Instant.parse("2026-10-18T10:00:00Z").getEpochSecond() / TTL_SECONDS * TTL_SECONDS);
+
+    @Test
+    @DisplayName("Every request in a window gets the same URL")
+    void sameUrlWithinWindow() {
+        BlobUrlSigner.SignedUrl first = signer.sign(blobClient, "image/png", windowStart);
+        BlobUrlSigner.SignedUrl middle = signer.sign(blobClient, "image/png", windowStart.plus(TTL.dividedBy(2)));
+        BlobUrlSigner.SignedUrl last = signer.sign(blobClient, "image/png", windowStart.plus(TTL).minusSeconds(1));
+
+        assertThat(middle.url()).isEqualTo(first.url());
+        assertThat(last.url()).isEqualTo(first.url());
+        assertThat(first.cacheableUntil()).isEqualTo(windowStart.plus(TTL));
+        assertThat(last.cacheableUntil()).isEqualTo(first.cacheableUntil());
+    }
+
+    @Test
+    @DisplayName("The next window gets a new URL")
+    void newUrlInNextWindow() {
+        BlobUrlSigner.SignedUrl current = signer.sign(blobClient, "image/png", windowStart.plus(TTL).minusSeconds(1));
+        BlobUrlSigner.SignedUrl next = signer.sign(blobClient, "image/png", windowStart.plus(TTL));
+
+        assertThat(next.url()).isNotEqualTo(current.url());
+        assertThat(next.cacheableUntil()).isEqualTo(windowStart.plus(TTL.multipliedBy(2)));
+    }
+
+    @Test
+    @DisplayName("A URL stays valid for a whole window after it is last handed out")
+    void validForAnotherWindow() {
+        Instant lastSecondOfWindow = windowStart.plus(TTL).minusSeconds(1);
+        BlobUrlSigner.SignedUrl signed = signer.sign(blobClient, "image/png", lastSecondOfWindow);
+
+        Instant expiry = sasExpiry(signed.url());
+        assertThat(expiry).isEqualTo(signed.cacheableUntil().plus(TTL));
+        // a redirect cached until cacheableUntil still finds a valid URL for a full ttl
+        assertThat(Duration.between(signed.cacheableUntil(), expiry)).isGreaterThanOrEqualTo(TTL);
+        assertThat(Duration.between(lastSecondOfWindow, expiry)).isGreaterThan(TTL);
+    }
+
+    @Test
+    @DisplayName("The content type is signed into the URL, so blob storage sends it")
+    void signsContentType() {
+        String url = signer.sign(blobClient, "image/jpeg", windowStart).url();
+
+        assertThat(queryParameter(url, "rsct")).isEqualTo("image/jpeg");
+        assertThat(queryParameter(url, "sp")).isEqualTo("r");
+    }
+
+    @Test
+    @DisplayName("With a public endpoint, the scheme and host are replaced and the path and signature kept")
+    void rewritesToPublicEndpoint() {
+        BlobUrlSigner publicSigner = new BlobUrlSigner(true, TTL_SECONDS, "https://localhost:10443");
+        String internal = signer.sign(blobClient, "image/png", windowStart).url();
+
+        String rewritten = publicSigner.toPublicEndpoint(internal);
+
+        URI internalUri = URI.create(internal);
+        URI rewrittenUri = URI.create(rewritten);
+        assertThat(rewrittenUri.getScheme()).isEqualTo("https");
+        assertThat(rewrittenUri.getRawAuthority()).isEqualTo("localhost:10443");
+        assertThat(rewrittenUri.getRawPath()).isEqualTo(internalUri.getRawPath());
+        assertThat(rewrittenUri.getRawQuery()).isEqualTo(internalUri.getRawQuery());
+        assertThat(publicSigner.sign(blobClient, "image/png", windowStart).url()).isEqualTo(rewritten);
+    }
+
+    @Test
+    @DisplayName("Without a public endpoint, the URL is left as blob storage builds it")
+    void keepsUrlWithoutPublicEndpoint() {
+        String url = "http://azurite:10000/devstoreaccount1/uploads/blob?sv=2024&sig=abc%2B";
+
+        assertThat(signer.toPublicEndpoint(url)).isEqualTo(url);
+    }
+
+    private static Instant sasExpiry(String url) {
+        return Instant.parse(queryParameter(url, "se"));
+    }
+
+    private static String queryParameter(String url, String name) {
+        for (String parameter : URI.create(url).getRawQuery().split("&")) {
+            int separator = parameter.indexOf('=');
+            if (parameter.substring(0, separator).equals(name)) {
+                return URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        throw new AssertionError("No " + name + " in " + url);
+    }
+}
@@ -0,0 +1,163 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.helios.auctix.domain.upload.Upload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDownloadResponderTest {
+
+    private static final String SIGNED_URL = "https://localhost:10443/devstoreaccount1/uploads/blob?sv=2024&sig=abc%2B";
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    @TempDir
+    Path cacheDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private BlobDiskCache blobDiskCache;
+    private FileDownloadResponder responder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobDiskCache = new BlobDiskCache(cacheDirectory.toString(), 1 << 30);
+        responder = new FileDownloadResponder(objectMapper, blobDiskCache);
+    }
+
+    @Test
+    @DisplayName("Browsers loading an image are redirected to the signed URL")
+    void redirectsImageRequests() {
+        ResponseEntity<StreamingResponseBody> response = responder.redirect(signed(), "image/avif,image/webp,*/*");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+        assertThat(response.getHeaders().getLocation()).isEqualTo(URI.create(SIGNED_URL));
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    @DisplayName("The default accept header of an XHR library is still redirected")
+    void redirectsWildcardAccept() {
+        ResponseEntity<StreamingResponseBody> response = responder.redirect(signed(), "application/json, text/plain, */*");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FOUND);
+    }
+
+    @Test
+    @DisplayName("A caller accepting only JSON gets the signed URL in the body instead of a redirect")
+    void returnsUrlAsJson() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = responder.redirect(signed(), "application/json");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+        JsonNode json = objectMapper.readTree(body.toByteArray());
+        assertThat(json.get("url").asText()).isEqualTo(SIGNED_URL);
+        assertThat(json.has("expiresAt")).isTrue();
+    }
+
+    @Test
+    @DisplayName("A file is handed to Tomcat's sendfile when the connector supports it, and not written by the application")
+    void usesSendfile() throws Exception {
+        FileUploadResponse file = cached(100_000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(file, request, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(100_000);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(blobDiskCache.pathOf(file.getBlobId()).toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(0L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(100_000L);
+        assertThat(file.getFileChannel().isOpen()).isFalse();
+    }
+
+    @Test
+    @DisplayName("A range is sent with sendfile as the part of the file, end exclusive")
+    void usesSendfileForRange() throws Exception {
+        FileUploadResponse file = cached(100_000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(file, request, "bytes=1000-60999", null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(1000L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(61_000L);
+    }
+
+    @Test
+    @DisplayName("Without sendfile support, e.g. behind TLS, the file is streamed by the application")
+    void streamsWithoutSendfile() throws Exception {
+        FileUploadResponse file = cached(100_000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(file, request, null, null);
+
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        response.getBody().writeTo(body);
+        assertThat(body.toByteArray()).isEqualTo(Files.readAllBytes(blobDiskCache.pathOf(file.getBlobId())));
+    }
+
+    @Test
+    @DisplayName("Small files are streamed by the application even with sendfile support")
+    void streamsSmallFiles() throws Exception {
+        FileUploadResponse file = cached((int) FileDownloadResponder.SENDFILE_MIN_BYTES - 1);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+
+        ResponseEntity<StreamingResponseBody> response = responder.respond(file, request, null, null);
+
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+        assertThat(response.getBody()).isNotNull();
+        response.getBody().writeTo(new ByteArrayOutputStream());
+    }
+
+    // a file of the given size in the disk cache, opened like FileUploadService#getFile does
+    private FileUploadResponse cached(int size) throws IOException {
+        UUID blobId = UUID.randomUUID();
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Path path = blobDiskCache.pathOf(blobId);
+        Files.write(path, content);
+
+        Upload upload = new Upload();
+        upload.setIsPublic(true);
+        upload.setFileName("photo.png");
+        return new FileUploadResponse(true, "File found", FileChannel.open(path, StandardOpenOption.READ), blobId, "image/png", upload);
+    }
+
+    private static FileUploadResponse signed() {
+        return new FileUploadResponse(true, "File url signed",
+                new BlobUrlSigner.SignedUrl(SIGNED_URL, Instant.now().plus(1, ChronoUnit.HOURS)), null);
+    }
+}
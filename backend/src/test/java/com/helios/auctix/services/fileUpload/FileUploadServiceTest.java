@@ -0,0 +1,106 @@
+package com.helios.auctix.services.fileUpload;
+
+import com.helios.auctix.config.AzureStorageConfig;
+import com.helios.auctix.domain.upload.Upload;
+import com.helios.auctix.repositories.UploadRepository;
+import com.helios.auctix.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileUploadServiceTest {
+
+    private final UploadRepository uploadRepository = Mockito.mock(UploadRepository.class);
+    private final AzureStorageConfig azureStorageConfig = Mockito.mock(AzureStorageConfig.class);
+    private final BlobContainerProvider blobContainerProvider = Mockito.mock(BlobContainerProvider.class);
+
+    private final FileUploadService fileUploadService = new FileUploadService(
+            uploadRepository,
+            Mockito.mock(UserRepository.class),
+            azureStorageConfig,
+            Mockito.mock(BlobDiskCache.class),
+            blobContainerProvider,
+            Mockito.mock(ImageDerivativeService.class),
+            Mockito.mock(BlobUrlSigner.class)
+    );
+
+    // what the uploads streamed to blob storage
+    private byte[] uploadedBytes;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(azureStorageConfig.getAccountName()).thenReturn("devstoreaccount1");
+        when(azureStorageConfig.getAccountKey()).thenReturn("key");
+        when(azureStorageConfig.getContainerName()).thenReturn("uploads");
+        when(blobContainerProvider.uploadIfAbsent(any(), any())).thenAnswer(invocation -> {
+            uploadedBytes = invocation.<InputStream>getArgument(1).readAllBytes();
+            return true;
+        });
+    }
+
+    @Test
+    @DisplayName("The upload is named by the SHA-256 of the whole file and streams all of its bytes")
+    void namesBlobByContentHash() throws Exception {
+        // larger than one 4 MB upload block
+        byte[] content = new byte[9 * 1024 * 1024 + 17];
+        new Random(42).nextBytes(content);
+        byte[] expectedDigest = MessageDigest.getInstance("SHA-256").digest(content);
+
+        FileUploadResponse response = fileUploadService.uploadFile(
+                new MockMultipartFile("file", "photo.png", "image/png", content), FileUploadUseCaseEnum.AUCTION_IMAGE);
+
+        assertThat(response.isSuccess()).isTrue();
+        UUID expectedFileId = UUID.nameUUIDFromBytes(expectedDigest);
+        verify(blobContainerProvider).uploadIfAbsent(eq(expectedFileId), any());
+        assertThat(uploadedBytes).isEqualTo(content);
+
+        ArgumentCaptor<Upload> saved = ArgumentCaptor.forClass(Upload.class);
+        verify(uploadRepository).save(saved.capture());
+        assertThat(saved.getValue().getFileId()).isEqualTo(expectedFileId);
+        assertThat(saved.getValue().getHash256()).isEqualTo(FileUploadUtilService.byteArrayToHex(expectedDigest));
+        assertThat(saved.getValue().getFileSize()).isEqualTo((long) content.length);
+    }
+
+    @Test
+    @DisplayName("The stored hash is the standard SHA-256 hex of the file")
+    void storesStandardHexDigest() {
+        fileUploadService.uploadFile(
+                new MockMultipartFile("file", "notes.txt", "text/plain", "abc".getBytes(StandardCharsets.US_ASCII)),
+                FileUploadUseCaseEnum.AUCTION_IMAGE);
+
+        ArgumentCaptor<Upload> saved = ArgumentCaptor.forClass(Upload.class);
+        verify(uploadRepository).save(saved.capture());
+        // the FIPS 180-2 test vector of "abc"
+        assertThat(saved.getValue().getHash256())
+                .isEqualToIgnoringCase("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    @Test
+    @DisplayName("Identical files get the same blob, different files different ones")
+    void sameContentSameBlob() {
+        byte[] content = "same bytes".getBytes(StandardCharsets.UTF_8);
+        fileUploadService.uploadFile(new MockMultipartFile("file", "a.png", "image/png", content), FileUploadUseCaseEnum.AUCTION_IMAGE);
+        fileUploadService.uploadFile(new MockMultipartFile("file", "b.png", "image/png", content), FileUploadUseCaseEnum.AUCTION_IMAGE);
+        fileUploadService.uploadFile(new MockMultipartFile("file", "c.png", "image/png", "other bytes".getBytes(StandardCharsets.UTF_8)), FileUploadUseCaseEnum.AUCTION_IMAGE);
+
+        ArgumentCaptor<Upload> saved = ArgumentCaptor.forClass(Upload.class);
+        verify(uploadRepository, Mockito.times(3)).save(saved.capture());
+        assertThat(saved.getAllValues().get(0).getFileId()).isEqualTo(saved.getAllValues().get(1).getFileId());
+        assertThat(saved.getAllValues().get(2).getFileId()).isNotEqualTo(saved.getAllValues().get(0).getFileId());
+    }
+}
@@ -0,0 +1,53 @@
+package com.helios.auctix.services.fileUpload;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageDerivativeServiceTest {
+
+    private static final int MEDIUM = ImageVariant.MEDIUM.getMaxDimension();
+
+    @Test
+    @DisplayName("Large images are subsampled to no less than twice the medium size")
+    void subsamplesToTwiceMedium() {
+        assertThat(ImageDerivativeService.subsampling(4000, 3000)).isEqualTo(1);
+        assertThat(ImageDerivativeService.subsampling(8000, 6000)).isEqualTo(3);
+        assertThat(ImageDerivativeService.subsampling(3000, 12000)).isEqualTo(5);
+
+        for (int side : new int[]{2 * MEDIUM, 5000, 9000, 20000}) {
+            int factor = ImageDerivativeService.subsampling(side, side / 2);
+            assertThat(side / factor).isGreaterThanOrEqualTo(2 * MEDIUM);
+        }
+    }
+
+    @Test
+    @DisplayName("Small images are decoded as they are")
+    void doesNotSubsampleSmallImages() {
+        assertThat(ImageDerivativeService.subsampling(800, 600)).isEqualTo(1);
+        assertThat(ImageDerivativeService.subsampling(2 * MEDIUM - 1, 100)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Transparent parts become white in the scaled image")
+    void flattensAlphaOntoWhite() {
+        BufferedImage transparent = new BufferedImage(2 * MEDIUM, MEDIUM, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage scaled = ImageDerivativeService.downscale(transparent, MEDIUM);
+
+        assertThat(scaled.getWidth()).isEqualTo(MEDIUM);
+        assertThat(scaled.getHeight()).isEqualTo(MEDIUM / 2);
+        assertThat(scaled.getColorModel().hasAlpha()).isFalse();
+        assertThat(new Color(scaled.getRGB(MEDIUM / 2, MEDIUM / 4))).isEqualTo(Color.WHITE);
+    }
+
+    @Test
+    @DisplayName("An image that already fits is not scaled")
+    void leavesFittingImage() {
+        assertThat(ImageDerivativeService.downscale(new BufferedImage(MEDIUM, 10, BufferedImage.TYPE_INT_RGB), MEDIUM)).isNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.helios.auctix.services.notification;
+
+import com.helios.auctix.domain.notification.Notification;
+import com.helios.auctix.domain.notification.NotificationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationChannelDispatcherTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private NotificationChannelDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("A channel that stays full rejects the producer after the offer timeout instead of blocking it")
+    void rejectsAfterOfferTimeout() {
+        dispatcher = new NotificationChannelDispatcher(List.of(blockingSender()), new MockEnvironment()
+                .withProperty("auctix.notifications.channel.email.workers", "1")
+                .withProperty("auctix.notifications.channel.email.queue-capacity", "1")
+                .withProperty("auctix.notifications.channel.offer-timeout-ms", "100"));
+
+        // one on the worker, stuck in the sender, and one in the queue
+        assertThat(dispatcher.dispatch(NotificationType.EMAIL, new Notification())).isTrue();
+        assertThat(dispatcher.dispatch(NotificationType.EMAIL, new Notification())).isTrue();
+        awaitQueued(1);
+        assertThat(dispatcher.isSaturated()).isTrue();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> dispatcher.dispatch(NotificationType.EMAIL, new Notification()))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(100L, 2000L);
+    }
+
+    @Test
+    @DisplayName("A channel with room is not saturated")
+    void notSaturatedWithRoom() {
+        dispatcher = new NotificationChannelDispatcher(List.of(blockingSender()), new MockEnvironment());
+
+        assertThat(dispatcher.isSaturated()).isFalse();
+        assertThat(dispatcher.dispatch(NotificationType.PUSH, new Notification())).isFalse();
+    }
+
+    private NotificationSender blockingSender() {
+        return new NotificationSender() {
+            @Override
+            public NotificationType getNotificationType() {
+                return NotificationType.EMAIL;
+            }
+
+            @Override
+            public void sendNotification(Notification notification) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private void awaitQueued(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.getQueuedCount(NotificationType.EMAIL) != count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(dispatcher.getQueuedCount(NotificationType.EMAIL)).isEqualTo(count);
+    }
+}
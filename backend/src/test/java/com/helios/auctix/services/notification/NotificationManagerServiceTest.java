@@ -0,0 +1,111 @@
+package com.helios.auctix.services.notification;
+
+import com.helios.auctix.domain.notification.Notification;
+import com.helios.auctix.domain.notification.NotificationCategory;
+import com.helios.auctix.domain.notification.NotificationType;
+import com.helios.auctix.domain.user.User;
+import com.helios.auctix.repositories.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationManagerServiceTest {
+
+    private static final int CHUNK_SIZE = 3;
+
+    private final NotificationSettingsService notificationSettingsService = Mockito.mock(NotificationSettingsService.class);
+    private final NotificationRepository notificationRepository = Mockito.mock(NotificationRepository.class);
+    private final NotificationChannelDispatcher channelDispatcher = Mockito.mock(NotificationChannelDispatcher.class);
+
+    private final NotificationManagerService notificationManagerService = new NotificationManagerService(
+            List.of(),
+            notificationSettingsService,
+            notificationRepository,
+            channelDispatcher,
+            Mockito.mock(PlatformTransactionManager.class),
+            CHUNK_SIZE
+    );
+
+    private final List<Integer> progress = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(notificationSettingsService.resolveNotificationPreferences(any(), any())).thenAnswer(invocation ->
+                ((Collection<User>) invocation.getArgument(1)).stream()
+                        .collect(Collectors.toMap(User::getId, user -> Set.of(NotificationType.EMAIL))));
+    }
+
+    @Test
+    @DisplayName("Progress is reported after every chunk of a fan-out")
+    void reportsProgressPerChunk() {
+        when(channelDispatcher.dispatch(eq(NotificationType.EMAIL), any())).thenReturn(true);
+
+        notificationManagerService.handleBulkNotifications(notifications(7), progress::add);
+
+        assertThat(progress).containsExactly(3, 6, 7);
+        verify(notificationRepository, never()).deleteAllInBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("A rejected fan-out stops at the rejected notification and deletes the saved ones it did not queue")
+    @SuppressWarnings("unchecked")
+    void stopsAtRejectedNotification() {
+        List<Notification> notifications = notifications(7);
+        // the fifth one, the second of the second chunk, finds the channel full
+        AtomicInteger dispatches = new AtomicInteger();
+        when(channelDispatcher.dispatch(eq(NotificationType.EMAIL), any())).thenAnswer(invocation -> {
+            if (dispatches.incrementAndGet() == 5) {
+                throw new RejectedExecutionException("Notification channel email stayed full for 5000 ms");
+            }
+            return true;
+        });
+
+        assertThatThrownBy(() -> notificationManagerService.handleBulkNotifications(notifications, progress::add))
+                .isInstanceOfSatisfying(BulkNotificationRejectedException.class,
+                        e -> assertThat(e.getHandled()).isEqualTo(4));
+
+        assertThat(progress).containsExactly(3, 4);
+        ArgumentCaptor<List<Notification>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).deleteAllInBatch(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly(notifications.get(4), notifications.get(5));
+        // the third chunk is not even saved
+        verify(notificationRepository, Mockito.times(2)).saveAll(anyList());
+    }
+
+    private static List<Notification> notifications(int count) {
+        List<Notification> notifications = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = User.builder().id(UUID.randomUUID()).username("watcher" + i).build();
+            notifications.add(Notification.builder()
+                    .user(user)
+                    .title("Auction started")
+                    .content("The auction you are watching just started")
+                    .notificationCategory(NotificationCategory.AUCTION_STARTED)
+                    .build());
+        }
+        return notifications;
+    }
+}
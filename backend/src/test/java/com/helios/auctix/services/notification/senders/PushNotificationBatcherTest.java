@@ -0,0 +1,181 @@
+package com.helios.auctix.services.notification.senders;
+
+import com.helios.auctix.services.FirebaseCloudMessageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PushNotificationBatcherTest {
+
+    private static final String TITLE = "Auction ending";
+    private static final String BODY = "An auction you watch ends in 10 minutes";
+    private static final String URL = "https://auctix.example/auction-details/1";
+    private static final long OFFER_TIMEOUT_MS = 200;
+
+    private final FirebaseCloudMessageService firebaseCloudMessageService = Mockito.mock(FirebaseCloudMessageService.class);
+    private PushNotificationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        batcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("The tokens of a group are sent as multicasts of at most 500 tokens")
+    @SuppressWarnings("unchecked")
+    void chunksTokensIntoMulticasts() {
+        batcher = batcher(20, 10_000);
+        when(firebaseCloudMessageService.getActiveFCMTokensForUsers(anyCollection())).thenReturn(tokens(1200));
+        when(firebaseCloudMessageService.sendMulticast(anyList(), any(), any(), any())).thenReturn(List.of());
+
+        UUID firstUser = UUID.randomUUID();
+        UUID secondUser = UUID.randomUUID();
+        batcher.enqueue(firstUser, TITLE, BODY, URL);
+        batcher.enqueue(secondUser, TITLE, BODY, URL);
+
+        ArgumentCaptor<List<String>> batches = ArgumentCaptor.forClass(List.class);
+        verify(firebaseCloudMessageService, timeout(2000).times(3)).sendMulticast(batches.capture(), eq(TITLE), eq(BODY), eq(URL));
+        assertThat(batches.getAllValues()).extracting(List::size).containsExactly(500, 500, 200);
+
+        // both users in one group, their tokens loaded with one query
+        ArgumentCaptor<Collection<UUID>> userIds = ArgumentCaptor.forClass(Collection.class);
+        verify(firebaseCloudMessageService, times(1)).getActiveFCMTokensForUsers(userIds.capture());
+        assertThat(userIds.getValue()).containsExactlyInAnyOrder(firstUser, secondUser);
+        verify(firebaseCloudMessageService, never()).deactivateTokens(anyCollection());
+    }
+
+    @Test
+    @DisplayName("A group is sent on the caller's thread as soon as it fills a multicast")
+    void sendsFullGroupRightAway() {
+        // long enough that only a full group can have been sent
+        batcher = batcher(60_000, 10_000);
+        when(firebaseCloudMessageService.getActiveFCMTokensForUsers(anyCollection())).thenReturn(tokens(500));
+        when(firebaseCloudMessageService.sendMulticast(anyList(), any(), any(), any())).thenReturn(List.of());
+
+        for (int i = 0; i < FirebaseCloudMessageService.MAX_MULTICAST_TOKENS; i++) {
+            batcher.enqueue(UUID.randomUUID(), TITLE, BODY, URL);
+        }
+
+        verify(firebaseCloudMessageService, times(1)).sendMulticast(anyList(), eq(TITLE), eq(BODY), eq(URL));
+    }
+
+    @Test
+    @DisplayName("Tokens FCM reports as unregistered, from every multicast of a group, are deactivated with one update")
+    @SuppressWarnings("unchecked")
+    void deactivatesDeadTokens() {
+        batcher = batcher(20, 10_000);
+        List<String> tokens = tokens(700);
+        when(firebaseCloudMessageService.getActiveFCMTokensForUsers(anyCollection())).thenReturn(tokens);
+        when(firebaseCloudMessageService.sendMulticast(anyList(), any(), any(), any()))
+                .thenReturn(List.of(tokens.get(3)))
+                .thenReturn(List.of(tokens.get(600), tokens.get(699)));
+        when(firebaseCloudMessageService.deactivateTokens(anyCollection())).thenReturn(3);
+
+        batcher.enqueue(UUID.randomUUID(), TITLE, BODY, URL);
+
+        ArgumentCaptor<Collection<String>> deadTokens = ArgumentCaptor.forClass(Collection.class);
+        verify(firebaseCloudMessageService, timeout(2000).times(1)).deactivateTokens(deadTokens.capture());
+        assertThat(deadTokens.getValue()).containsExactlyInAnyOrder(tokens.get(3), tokens.get(600), tokens.get(699));
+    }
+
+    @Test
+    @DisplayName("Notifications with different content are sent separately")
+    void groupsByContent() {
+        batcher = batcher(20, 10_000);
+        when(firebaseCloudMessageService.getActiveFCMTokensForUsers(anyCollection())).thenReturn(tokens(1));
+        when(firebaseCloudMessageService.sendMulticast(anyList(), any(), any(), any())).thenReturn(List.of());
+
+        batcher.enqueue(UUID.randomUUID(), TITLE, BODY, URL);
+        batcher.enqueue(UUID.randomUUID(), "Outbid", BODY, URL);
+
+        verify(firebaseCloudMessageService, timeout(2000).times(1)).sendMulticast(anyList(), eq(TITLE), eq(BODY), eq(URL));
+        verify(firebaseCloudMessageService, timeout(2000).times(1)).sendMulticast(anyList(), eq("Outbid"), eq(BODY), eq(URL));
+        verify(firebaseCloudMessageService, times(2)).getActiveFCMTokensForUsers(any(Set.class));
+    }
+
+    @Test
+    @DisplayName("Lingering groups are sent in parallel on the sender threads")
+    void sendsGroupsInParallel() throws Exception {
+        batcher = batcher(20, 10_000);
+        when(firebaseCloudMessageService.getActiveFCMTokensForUsers(anyCollection())).thenReturn(tokens(1));
+        CountDownLatch bothSending = new CountDownLatch(2);
+        when(firebaseCloudMessageService.sendMulticast(anyList(), any(), any(), any())).thenAnswer(invocation -> {
+            // only returns once the other group is being sent at the same time
+            bothSending.countDown();
+            assertThat(bothSending.await(2, TimeUnit.SECONDS)).isTrue();
+            return List.of();
+        });
+
+        batcher.enqueue(UUID.randomUUID(), TITLE, BODY, URL);
+        batcher.enqueue(UUID.randomUUID(), "Outbid", BODY, URL);
+
+        assertThat(bothSending.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Enqueue waits while max-pending-users are pending, and gives up after the offer timeout")
+    void boundsPendingUsers() throws Exception {
+        // nothing is flushed during the test, so the pending users never leave
+        batcher = batcher(60_000, 3);
+        for (int i = 0; i < 3; i++) {
+            batcher.enqueue(UUID.randomUUID(), "Outbid " + i, BODY, URL);
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> batcher.enqueue(UUID.randomUUID(), TITLE, BODY, URL))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("stayed full");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(OFFER_TIMEOUT_MS);
+    }
+
+    @Test
+    @DisplayName("A waiting enqueue goes through once a group is sent")
+    void enqueueResumesWhenGroupIsSent() throws Exception {
+        // the first group lingers for a while, the offer timeout is longer
+        batcher = new PushNotificationBatcher(firebaseCloudMessageService, 100, 2, 1, 5_000);
+        when(firebaseCloudMessageService.getActiveFCMTokensForUsers(anyCollection())).thenReturn(tokens(1));
+        when(firebaseCloudMessageService.sendMulticast(anyList(), any(), any(), any())).thenReturn(List.of());
+
+        batcher.enqueue(UUID.randomUUID(), "Outbid", BODY, URL);
+        long start = System.nanoTime();
+        batcher.enqueue(UUID.randomUUID(), TITLE, BODY, URL);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+        verify(firebaseCloudMessageService, timeout(2000).times(1)).sendMulticast(anyList(), eq(TITLE), eq(BODY), eq(URL));
+    }
+
+    private PushNotificationBatcher batcher(long lingerMillis, int maxPendingUsers) {
+        return new PushNotificationBatcher(firebaseCloudMessageService, lingerMillis, 2, maxPendingUsers, OFFER_TIMEOUT_MS);
+    }
+
+    private static List<String> tokens(int count) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tokens.add("token-" + i);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,56 @@
+package com.helios.auctix.services.user;
+
+import com.helios.auctix.domain.user.User;
+import com.helios.auctix.dtos.UserDTO;
+import com.helios.auctix.dtos.UserRoleDTO;
+import com.helios.auctix.mappers.impl.UserMapperImpl;
+import com.helios.auctix.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDTOCacheTest {
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final UserMapperImpl userMapper = Mockito.mock(UserMapperImpl.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<MeterRegistry> meterRegistry = Mockito.mock(ObjectProvider.class);
+
+    @Test
+    @DisplayName("Changing a returned DTO does not change what the next caller gets")
+    void callersGetTheirOwnCopy() {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().id(userId).build();
+        UserDTO mapped = new UserDTO();
+        mapped.setId(userId);
+        mapped.setFirstName("Ann");
+        mapped.setUserRole(new UserRoleDTO("BIDDER"));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userMapper.mapTo(user)).thenReturn(mapped);
+
+        UserDTOCache cache = new UserDTOCache(userRepository, userMapper, meterRegistry, 60000, 100);
+
+        UserDTO first = cache.get(userId);
+        first.setFirstName("Changed");
+        first.getUserRole().setUserRole("ADMIN");
+
+        UserDTO second = cache.get(userId);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getFirstName()).isEqualTo("Ann");
+        assertThat(second.getUserRole().getUserRole()).isEqualTo("BIDDER");
+
+        // the second one was a hit
+        verify(userRepository, times(1)).findById(userId);
+    }
+}
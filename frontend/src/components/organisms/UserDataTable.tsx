@@ -214,10 +214,17 @@ export default function UserDataTable() {
         axiosInstance
           .get(`/user/getUserProfilePhoto?file_uuid=${id}`, {
             responseType: 'blob',
+            // a public photo comes back as its signed blob storage URL, following a redirect there would need CORS
+            headers: { Accept: 'application/json' },
           })
-          .then((response) => {
-            const url = URL.createObjectURL(response.data);
-            setImageUrl(url);
+          .then(async (response) => {
+            const data: Blob = response.data;
+            if (data.type.startsWith('application/json')) {
+              const { url } = JSON.parse(await data.text());
+              setImageUrl(url);
+            } else {
+              setImageUrl(URL.createObjectURL(data));
+            }
           })
           .catch((error) => {
             console.error('Error fetching profile image:', error);
@@ -1,4 +1,4 @@
-import { useEffect } from 'react';
+import { useEffect, useRef } from 'react';
 import SockJS from 'sockjs-client';
 import { Client } from '@stomp/stompjs';
 
@@ -6,6 +6,12 @@ export const useAuctionWebSocket = (
   auctionId: string,
   onBidUpdate: (data: any) => void,
 ) => {
+  // Always call the latest handler, so a new callback on every render does not tear down the subscription
+  const onBidUpdateRef = useRef(onBidUpdate);
+  useEffect(() => {
+    onBidUpdateRef.current = onBidUpdate;
+  }, [onBidUpdate]);
+
   useEffect(() => {
     const socket = new SockJS(`http://localhost:8080/ws-auction`);
 
@@ -16,7 +22,7 @@ export const useAuctionWebSocket = (
 
         client.subscribe(`/topic/auction/${auctionId}`, (message) => {
           const payload = JSON.parse(message.body);
-          onBidUpdate(payload);
+          onBidUpdateRef.current(payload);
         });
       },
       onDisconnect: () => {
@@ -30,7 +36,8 @@ export const useAuctionWebSocket = (
     client.activate();
 
     return () => {
-      if (client.connected) client.deactivate();
+      // also stops a connection attempt that is still in progress
+      client.deactivate();
     };
-  }, [auctionId, onBidUpdate]);
+  }, [auctionId]);
 };
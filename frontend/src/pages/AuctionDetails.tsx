@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { Tabs, TabsContent, TabsList, TabsTrigger } from '@/components/ui/tabs';
 import { Button } from '@/components/ui/button';
 import { Input } from '@/components/ui/input';
@@ -24,6 +24,9 @@ interface TimeRemaining {
 
 export type AuctionStatus = 'upcoming' | 'active' | 'expired';
 
+// Same size as the bid history the backend returns with the auction details
+const BID_HISTORY_SIZE = 10;
+
 export function useAuctionTimer(
   startTime: string,
   endTime: string,
@@ -194,6 +197,7 @@ export function getAuctionTimerText(
 }
 
 interface BidHistory {
+  id?: string;
   bidder: {
     id: string;
     name: string;
@@ -238,6 +242,57 @@ function calculateBidIncrement(
   return Math.ceil(increment / 100) * 100;
 }
 
+// Turns a bid of a WebSocket frame or of the bid history endpoint into a bid history entry
+function toBidHistoryEntry(bid: any): BidHistory {
+  return {
+    id: bid.id,
+    bidder: bid.bidder
+      ? {
+          id: bid.bidder.username,
+          name: `${bid.bidder.firstName} ${bid.bidder.lastName}`,
+          avatar: bid.bidder.profilePicture?.id
+            ? `${import.meta.env.VITE_API_URL}/auctions/getAuctionImages?file_uuid=${bid.bidder.profilePicture.id}`
+            : '/defaultProfilePhoto.jpg',
+        }
+      : {
+          id: '',
+          name: 'No bidder yet',
+          avatar: '/defaultProfilePhoto.jpg',
+        },
+    amount: bid.amount,
+    timestamp: bid.bidTime,
+  };
+}
+
+// Newest first, without the bids that are in both lists, and the highest bid taken from it
+function withBidHistory(
+  product: ProductDetails,
+  bids: BidHistory[],
+): ProductDetails {
+  const seen = new Set<string>();
+  const bidHistory = [...bids, ...product.bidHistory]
+    .filter((bid) => {
+      if (!bid.id) return true;
+      if (seen.has(bid.id)) return false;
+      seen.add(bid.id);
+      return true;
+    })
+    .sort(
+      (a, b) =>
+        new Date(b.timestamp).getTime() - new Date(a.timestamp).getTime(),
+    )
+    .slice(0, BID_HISTORY_SIZE);
+
+  if (bidHistory.length === 0) return product;
+
+  return {
+    ...product,
+    currentBid: bidHistory[0].amount,
+    currentBidder: bidHistory[0].bidder,
+    bidHistory,
+  };
+}
+
 const AuctionDetailsPage = () => {
   const { auctionId } = useParams<{ auctionId: string }>();
   const [product, setProduct] = useState<ProductDetails | null>(null);
@@ -247,6 +302,8 @@ const AuctionDetailsPage = () => {
   const axiosInstance = AxiosRequest().axiosInstance;
   const { toast } = useToast();
   const [selectedImageIndex, setSelectedImageIndex] = useState(0);
+  // Sequence (bid count) of the last bid update applied, null until the auction is loaded
+  const lastSequenceRef = useRef<number | null>(null);
 
   // Use the auction timer hook
   const [timeRemaining, auctionStatus] = useAuctionTimer(
@@ -300,6 +357,7 @@ const AuctionDetailsPage = () => {
       endTime: backendData.endTime,
       startTime: backendData.startTime,
       bidHistory: backendData.bidHistory.map((bid: any) => ({
+        id: bid.id,
         bidder: transformUser(bid.bidder),
         amount: bid.amount,
         timestamp: bid.bidTime,
@@ -313,6 +371,7 @@ const AuctionDetailsPage = () => {
         setLoading(true);
         const response = await axiosInstance.get(`/auctions/${auctionId}`);
         const transformedData = transformBidData(response.data);
+        lastSequenceRef.current = response.data.bidCount ?? null;
         setProduct(transformedData);
         // --- MODIFICATION HERE ---
         const initialBidSuggestion =
@@ -335,42 +394,42 @@ const AuctionDetailsPage = () => {
     }
   }, [auctionId]);
 
-  useAuctionWebSocket(auctionId!, (payload) => {
-    const newBid = payload.newBid;
-    const updatedHistory = payload.bidHistory;
-
-    const updatedProduct = { ...product! }; // product is already fetched earlier
+  // Loads the bid history again after a missed update, the updates only carry the new bids
+  const refetchBidHistory = async () => {
+    try {
+      const response = await axiosInstance.get(`/bids/auction/${auctionId}`);
+      const bids: BidHistory[] = response.data.map(toBidHistoryEntry);
+      setProduct((prev) => prev && withBidHistory(prev, bids));
+    } catch (err) {
+      console.error('Error refetching bid history:', err);
+    }
+  };
 
-    // Update highest bid
-    updatedProduct.currentBid = newBid.amount;
-    updatedProduct.currentBidder = newBid.bidder
-      ? {
-          id: newBid.bidder.username,
-          name: `${newBid.bidder.firstName} ${newBid.bidder.lastName}`,
-          avatar: newBid.bidder.profilePicture?.id
-            ? `${import.meta.env.VITE_API_URL}/auctions/getAuctionImages?file_uuid=${newBid.bidder.profilePicture.id}`
-            : '/defaultProfilePhoto.jpg',
-        }
-      : {
-          id: '',
-          name: 'No bidder yet',
-          avatar: '/defaultProfilePhoto.jpg',
-        };
-
-    // Update bid history
-    updatedProduct.bidHistory = updatedHistory.map((bid: any) => ({
-      bidder: {
-        id: bid.bidder.username,
-        name: `${bid.bidder.firstName} ${bid.bidder.lastName}`,
-        avatar: bid.bidder.profilePicture?.id
-          ? `${import.meta.env.VITE_API_URL}/auctions/getAuctionImages?file_uuid=${bid.bidder.profilePicture.id}`
-          : '/defaultProfilePhoto.jpg',
-      },
-      amount: bid.amount,
-      timestamp: bid.bidTime,
-    }));
+  useAuctionWebSocket(auctionId!, (payload) => {
+    // payload only carries the bids placed since the previous message (newest first)
+    const newBids: any[] = payload.newBids ?? [payload.newBid];
+    const sequence: number | undefined = payload.sequence;
+    const lastSequence = lastSequenceRef.current;
+
+    if (sequence !== undefined && lastSequence !== null) {
+      if (sequence <= lastSequence) {
+        // already in the history we loaded
+        return;
+      }
+      if (sequence - newBids.length > lastSequence) {
+        // a message was missed, merging this one would leave a hole in the history
+        lastSequenceRef.current = sequence;
+        refetchBidHistory();
+        return;
+      }
+    }
+    if (sequence !== undefined) {
+      lastSequenceRef.current = sequence;
+    }
 
-    setProduct(updatedProduct);
+    // Merge the new bids into the bid history we already have
+    const newHistoryEntries = newBids.map(toBidHistoryEntry);
+    setProduct((prev) => prev && withBidHistory(prev, newHistoryEntries));
   });
 
   useEffect(() => {